@@ -0,0 +1,91 @@
+package uk.ac.ucl.comp0010.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.ac.ucl.comp0010.dto.GradeView;
+import uk.ac.ucl.comp0010.dto.RegistrationView;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.model.StudentFixtures;
+
+/**
+ * Builds in-memory entity graphs and list rows for the benchmarks.
+ */
+final class Fixtures {
+
+  private Fixtures() {}
+
+  /**
+   * Creates {@code size} distinct modules.
+   *
+   * @param size the number of modules
+   * @return the modules, coded M0, M1, ...
+   */
+  static List<Module> modules(int size) {
+    List<Module> modules = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      modules.add(new Module("M" + i, "Module " + i, false));
+    }
+    return modules;
+  }
+
+  /**
+   * Creates a student registered on, and graded in, every given module.
+   *
+   * <p>The lists are filled directly, skipping the per-call checks in
+   * {@link Student#registerModule}; the student builds its module indexes on first use.
+   *
+   * @param modules the modules
+   * @return the student
+   */
+  static Student studentWithGrades(List<Module> modules) {
+    Student student = new Student(1, "Bench", "Mark", "bench", "bench@example.com");
+    List<Registration> registrations = new ArrayList<>(modules.size() + 1);
+    List<Grade> grades = new ArrayList<>(modules.size() + 1);
+    int score = 0;
+    for (Module module : modules) {
+      registrations.add(new Registration(student, module));
+      grades.add(new Grade(score, student, module));
+      score = (score + 7) % 101;
+    }
+    StudentFixtures.fill(student, registrations, grades);
+    return student;
+  }
+
+  /**
+   * Creates one grade row per module, as the grade list endpoint returns them, spread
+   * over students of 20 modules each.
+   *
+   * @param modules the modules
+   * @return the grade rows
+   */
+  static List<GradeView> gradeViews(List<Module> modules) {
+    List<GradeView> grades = new ArrayList<>(modules.size());
+    for (int i = 0; i < modules.size(); i++) {
+      int first = i - i % 20;
+      Module module = modules.get(i);
+      grades.add(new GradeView((long) i, i % 101, i / 20, "First" + first, "Last" + first,
+          module.getCode(), module.getName()));
+    }
+    return grades;
+  }
+
+  /**
+   * Creates one registration row per grade row, for the same pairs, as the registration
+   * list endpoint returns them.
+   *
+   * @param grades the grade rows
+   * @return the registration rows
+   */
+  static List<RegistrationView> registrationViews(List<GradeView> grades) {
+    List<RegistrationView> registrations = new ArrayList<>(grades.size());
+    for (GradeView grade : grades) {
+      registrations.add(new RegistrationView(grade.id().intValue(), grade.studentId(),
+          grade.firstName(), grade.lastName(), grade.moduleCode(), grade.moduleName(), false));
+    }
+    return registrations;
+  }
+}
@@ -0,0 +1,67 @@
+package uk.ac.ucl.comp0010.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.ucl.comp0010.dto.GradeView;
+import uk.ac.ucl.comp0010.dto.RegistrationView;
+
+/**
+ * JSON serialisation of grade and registration lists, as the list endpoints return them:
+ * flat {@link GradeView} and {@link RegistrationView} rows.
+ *
+ * <p>Output goes to a null stream so that only encoding is measured. The binary
+ * encodings are compared with JSON by {@link ResponseEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  public int size;
+
+  private final ObjectMapper mapper = new ObjectMapper()
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  private final OutputStream sink = OutputStream.nullOutputStream();
+  private List<GradeView> grades;
+  private List<RegistrationView> registrations;
+
+  /** Builds the lists once per trial. */
+  @Setup
+  public void setUp() {
+    grades = Fixtures.gradeViews(Fixtures.modules(size));
+    registrations = Fixtures.registrationViews(grades);
+  }
+
+  /** Serialises the grade list. */
+  @Benchmark
+  public void grades() throws IOException {
+    mapper.writeValue(sink, grades);
+  }
+
+  /** Serialises the registration list. */
+  @Benchmark
+  public void registrations() throws IOException {
+    mapper.writeValue(sink, registrations);
+  }
+}
@@ -0,0 +1,112 @@
+package uk.ac.ucl.comp0010.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import uk.ac.ucl.comp0010.config.ResponseFormatsConfig;
+import uk.ac.ucl.comp0010.dto.GradeView;
+
+/**
+ * Encoding and decoding a page of grades in each response format, with the mappers the
+ * application's message converters use.
+ *
+ * <p>A page of {@code size} {@link GradeView} rows, 1,000 being the largest list page, is
+ * encoded as JSON, CBOR or Smile, with and without gzip, and decoded again. The encoded
+ * and gzipped sizes of each format are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+  private static final TypeReference<List<GradeView>> PAGE = new TypeReference<>() {};
+
+  @Param({"json", "cbor", "smile"})
+  public String format;
+
+  @Param({"100", "1000"})
+  public int size;
+
+  private ObjectMapper mapper;
+  private List<GradeView> page;
+  private byte[] encoded;
+
+  /** Takes the format's mapper from the application's configuration and builds the page. */
+  @Setup
+  public void setUp() throws IOException {
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+        JacksonAutoConfiguration.class, ResponseFormatsConfig.class)
+        .web(WebApplicationType.NONE)
+        .properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+            "app.compression.enabled=false")
+        .run()) {
+      mapper = switch (format) {
+        case "json" -> context.getBean(ObjectMapper.class);
+        case "cbor" -> context.getBean(MappingJackson2CborHttpMessageConverter.class)
+            .getObjectMapper();
+        case "smile" -> context.getBean(MappingJackson2SmileHttpMessageConverter.class)
+            .getObjectMapper();
+        default -> throw new IllegalArgumentException("Unknown format: " + format);
+      };
+    }
+    page = Fixtures.gradeViews(Fixtures.modules(size));
+    encoded = mapper.writeValueAsBytes(page);
+    if (!page.equals(mapper.readValue(encoded, PAGE))) {
+      throw new IllegalStateException(format + " does not round-trip the page");
+    }
+    System.out.printf("%n%s, %d rows: %,d bytes, %,d gzipped%n",
+        format, size, encoded.length, gzip(encoded).length);
+  }
+
+  /** Encodes the page. */
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return mapper.writeValueAsBytes(page);
+  }
+
+  /** Encodes and gzips the page. */
+  @Benchmark
+  public byte[] encodeGzipped() throws IOException {
+    return gzip(mapper.writeValueAsBytes(page));
+  }
+
+  /** Decodes the encoded page. */
+  @Benchmark
+  public List<GradeView> decode() throws IOException {
+    return mapper.readValue(encoded, PAGE);
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+}
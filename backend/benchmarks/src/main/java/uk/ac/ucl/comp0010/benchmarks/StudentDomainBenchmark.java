@@ -0,0 +1,97 @@
+package uk.ac.ucl.comp0010.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.model.StudentFixtures;
+
+/**
+ * The module lookups on {@link Student}, for a student with {@code size} grades.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentDomainBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  public int size;
+
+  private Module last;
+  private Module ungraded;
+  private Module unregistered;
+  private Student student;
+
+  /** Builds the student once per trial. */
+  @Setup
+  public void setUp() {
+    List<Module> modules = Fixtures.modules(size);
+    last = modules.get(size - 1);
+    ungraded = new Module("FREE", "Registered, ungraded", false);
+    unregistered = new Module("NEW", "Unregistered", false);
+    student = Fixtures.studentWithGrades(modules);
+    student.registerModule(ungraded);
+    student.getGrade(last);
+  }
+
+  /** Looks up the grade for the last module. */
+  @Benchmark
+  public Grade getGrade() {
+    return student.getGrade(last);
+  }
+
+  /**
+   * Adds a grade, checking the registration and for an existing grade.
+   * The grade is removed again so the student keeps its size.
+   */
+  @Benchmark
+  public Grade addGrade() {
+    student.addGrade(ungraded, 50);
+    return StudentFixtures.undoAddGrade(student, ungraded);
+  }
+
+  /**
+   * Registers on a new module, checking for a duplicate.
+   * The registration is removed again so the student keeps its size.
+   */
+  @Benchmark
+  public Registration registerModule() {
+    student.registerModule(unregistered);
+    return StudentFixtures.undoRegisterModule(student, unregistered);
+  }
+
+  /** Averages the grade list. */
+  @Benchmark
+  public double computeAverage() {
+    return student.computeAverage();
+  }
+
+  /** Rejects a grade for a module the student is not registered on. */
+  @Benchmark
+  public boolean addGradeUnregistered() {
+    try {
+      student.addGrade(unregistered, 50);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+}
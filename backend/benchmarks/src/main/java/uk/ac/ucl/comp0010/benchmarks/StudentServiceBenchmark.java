@@ -0,0 +1,132 @@
+package uk.ac.ucl.comp0010.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import uk.ac.ucl.comp0010.Team31Application;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+import uk.ac.ucl.comp0010.service.StudentService;
+
+/**
+ * {@link StudentService} against the embedded database, for a student with
+ * {@code size} grades.
+ *
+ * <p>Each write runs in a transaction that is rolled back, so the data set does not
+ * grow during the run and every invocation writes the same pair. The rollback is part
+ * of the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentServiceBenchmark {
+
+  /** Rows per JDBC batch while seeding. */
+  private static final int SEED_BATCH = 1000;
+
+  @Param({"100", "10000", "1000000"})
+  public int size;
+
+  private ConfigurableApplicationContext context;
+  private StudentService studentService;
+  private TransactionTemplate rollbackTx;
+
+  /** Starts the application on a random port and seeds the database. */
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(Team31Application.class)
+        .web(WebApplicationType.SERVLET)
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL",
+            "spring.main.banner-mode=off",
+            "logging.level.root=WARN")
+        .run();
+    studentService = context.getBean(StudentService.class);
+    rollbackTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    seed(context.getBean(JdbcTemplate.class));
+    rollbackTx.executeWithoutResult(status -> context.getBean(GradeSummaryService.class).rebuild());
+    context.getBean(RegistrationIndex.class).load();
+  }
+
+  /** Stops the application. */
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Inserts student 1 with a grade in each of {@code size} modules, plus module FREE
+   * (registered, ungraded) and module OPEN (not registered) for the write benchmarks.
+   * Ids are negative so they never collide with the sequences.
+   */
+  private void seed(JdbcTemplate jdbc) {
+    jdbc.update("INSERT INTO student (id, first_name, last_name, username, email) "
+        + "VALUES (1, 'Bench', 'Mark', 'bench', 'bench@example.com')");
+    jdbc.update("INSERT INTO module (code, name, mnc) VALUES ('FREE', 'Free', false)");
+    jdbc.update("INSERT INTO module (code, name, mnc) VALUES ('OPEN', 'Open', false)");
+    jdbc.update("INSERT INTO registration (id, student_id, module_code) VALUES (0, 1, 'FREE')");
+    for (int from = 0; from < size; from += SEED_BATCH) {
+      List<Object[]> modules = new ArrayList<>();
+      List<Object[]> rows = new ArrayList<>();
+      for (int i = from; i < Math.min(size, from + SEED_BATCH); i++) {
+        modules.add(new Object[] {"M" + i, "Module " + i});
+        rows.add(new Object[] {-(i + 1), "M" + i, i % 101});
+      }
+      jdbc.batchUpdate("INSERT INTO module (code, name, mnc) VALUES (?, ?, false)", modules);
+      jdbc.batchUpdate("INSERT INTO registration (id, student_id, module_code) VALUES (?, 1, ?)",
+          rows.stream().map(r -> new Object[] {r[0], r[1]}).toList());
+      jdbc.batchUpdate("INSERT INTO grade (id, student_id, module_code, score) VALUES (?, 1, ?, ?)",
+          rows);
+    }
+  }
+
+  /** Reads the student's average. */
+  @Benchmark
+  public double computeAverage() {
+    return studentService.computeAverage(1);
+  }
+
+  /** Records a grade for a registered, ungraded module. */
+  @Benchmark
+  public Grade addGrade() {
+    return rollbackTx.execute(status -> {
+      status.setRollbackOnly();
+      return studentService.addGrade(1, "FREE", 70);
+    });
+  }
+
+  /** Registers the student on a module they are not yet on. */
+  @Benchmark
+  public Registration registerModule() {
+    return rollbackTx.execute(status -> {
+      status.setRollbackOnly();
+      return studentService.registerModule(1, "OPEN");
+    });
+  }
+}
@@ -0,0 +1,46 @@
+package uk.ac.ucl.comp0010.model;
+
+import java.util.List;
+
+/**
+ * Exposes {@link Student}'s package-private fixture hooks to the benchmarks.
+ */
+public final class StudentFixtures {
+
+  private StudentFixtures() {}
+
+  /**
+   * Fills a student's lists directly, skipping the per-call checks in
+   * {@link Student#registerModule} and {@link Student#addGrade}.
+   *
+   * @param student the student
+   * @param registrations the registrations
+   * @param grades the grades
+   */
+  public static void fill(Student student, List<Registration> registrations,
+      List<Grade> grades) {
+    student.replaceLists(registrations, grades);
+  }
+
+  /**
+   * Undoes the {@link Student#addGrade} just made for a module.
+   *
+   * @param student the student
+   * @param module the module
+   * @return the removed grade
+   */
+  public static Grade undoAddGrade(Student student, Module module) {
+    return student.removeLastGrade(module);
+  }
+
+  /**
+   * Undoes the {@link Student#registerModule} just made for a module.
+   *
+   * @param student the student
+   * @param module the module
+   * @return the removed registration
+   */
+  public static Registration undoRegisterModule(Student student, Module module) {
+    return student.removeLastRegistration(module);
+  }
+}
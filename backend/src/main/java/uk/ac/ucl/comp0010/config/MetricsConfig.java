@@ -0,0 +1,65 @@
+package uk.ac.ucl.comp0010.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import uk.ac.ucl.comp0010.metrics.DbUsageInterceptor;
+import uk.ac.ucl.comp0010.metrics.RequestDbUsage;
+
+/**
+ * Wires per-request database usage metrics.
+ *
+ * <p>The data source is wrapped in a proxy that reports every statement to
+ * {@link RequestDbUsage}, and {@link DbUsageInterceptor} publishes the totals of each
+ * request. Pool, Hibernate and HTTP metrics come from Actuator's auto-configuration.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+  private final ObjectProvider<MeterRegistry> registry;
+
+  /**
+   * Constructs the metrics configuration.
+   *
+   * @param registry the meter registry, absent in web slice tests
+   */
+  public MetricsConfig(ObjectProvider<MeterRegistry> registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Wraps the application's data source in a statement-counting proxy.
+   *
+   * @return the post-processor
+   */
+  @Bean
+  public static BeanPostProcessor requestDbUsageDataSourceProxy() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource
+            && !(bean instanceof ProxyDataSource)) {
+          return ProxyDataSourceBuilder.create(dataSource)
+              .name(beanName)
+              .listener(new RequestDbUsage())
+              .build();
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry interceptors) {
+    registry.ifAvailable(meters -> interceptors.addInterceptor(new DbUsageInterceptor(meters)));
+  }
+}
@@ -0,0 +1,334 @@
+package uk.ac.ucl.comp0010.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Gzips response bodies of a compressible type once they reach a minimum size, for
+ * clients that accept gzip.
+ *
+ * <p>Tomcat's own compression skips every response with a strong ETag, which all the
+ * list endpoints have, so it is done here instead. The first {@code minSize} bytes are
+ * held back: a body that ends sooner is sent as it is, with its length, and a longer
+ * one, including a streamed export, is compressed from its first byte. Flushes are
+ * passed on once compression has started, so exports still arrive as they are written.
+ * The ETag of a compressed response is made weak, as its bytes differ from the
+ * uncompressed ones while {@code If-None-Match}, which compares weakly, still matches.
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+  private static final int GZIP_BUFFER = 8192;
+
+  private final int minSize;
+  private final List<MediaType> mimeTypes;
+
+  /**
+   * Constructor for ResponseCompressionFilter.
+   *
+   * @param minSize the smallest body, in bytes, that is compressed
+   * @param mimeTypes the content types that are compressed
+   */
+  public ResponseCompressionFilter(int minSize, List<MediaType> mimeTypes) {
+    if (minSize < 1) {
+      throw new IllegalArgumentException("minSize must be positive");
+    }
+    this.minSize = minSize;
+    this.mimeTypes = List.copyOf(mimeTypes);
+  }
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    // Streaming exports finish on an async dispatch, which must close the gzip stream
+    return false;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    CompressingResponse compressing =
+        WebUtils.getNativeResponse(response, CompressingResponse.class);
+    HttpServletResponse filtered = response;
+    if (compressing == null) {
+      response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      if (acceptsGzip(request)) {
+        compressing = new CompressingResponse(response);
+        filtered = compressing;
+      }
+    }
+    filterChain.doFilter(request, filtered);
+    if (compressing != null && !isAsyncStarted(request)) {
+      compressing.finish();
+    }
+  }
+
+  /**
+   * Checks whether a request's {@code Accept-Encoding} allows gzip.
+   *
+   * @param request the request
+   * @return true if gzip, or any coding, is listed without {@code q=0}
+   */
+  static boolean acceptsGzip(HttpServletRequest request) {
+    Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+    boolean any = false;
+    while (headers != null && headers.hasMoreElements()) {
+      for (String coding : headers.nextElement().split(",")) {
+        String[] parts = coding.split(";");
+        String name = parts[0].trim();
+        boolean allowed = parts.length < 2 || !parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+        if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+          return allowed;
+        }
+        any |= name.equals("*") && allowed;
+      }
+    }
+    return any;
+  }
+
+  /**
+   * Holds back the start of the body until it is known whether to compress it.
+   */
+  private final class CompressingResponse extends HttpServletResponseWrapper {
+
+    private ByteArrayOutputStream held = new ByteArrayOutputStream(256);
+    private OutputStream target;
+    private GZIPOutputStream gzip;
+    private long contentLength = -1;
+    private boolean passThrough;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    CompressingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+      if (writer != null) {
+        throw new IllegalStateException("getWriter() has already been called");
+      }
+      return body();
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+      if (writer == null) {
+        if (stream != null) {
+          throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        writer = new PrintWriter(new OutputStreamWriter(body(), charset));
+      }
+      return writer;
+    }
+
+    private ServletOutputStream body() {
+      if (stream == null) {
+        stream = new ServletOutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            CompressingResponse.this.write(new byte[] {(byte) b}, 0, 1);
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            CompressingResponse.this.write(b, off, len);
+          }
+
+          @Override
+          public void flush() throws IOException {
+            CompressingResponse.this.flush();
+          }
+
+          @Override
+          public boolean isReady() {
+            return true;
+          }
+
+          @Override
+          public void setWriteListener(WriteListener listener) {
+            throw new UnsupportedOperationException("Non-blocking writes are not supported");
+          }
+        };
+      }
+      return stream;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+      setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+      if (target == null && !passThrough) {
+        contentLength = len;
+      } else if (gzip == null) {
+        super.setContentLengthLong(len);
+      }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        setContentLengthLong(value == null ? -1 : Long.parseLong(value));
+      } else {
+        super.setHeader(name, value);
+      }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        setHeader(name, value);
+      } else {
+        super.addHeader(name, value);
+      }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        setContentLengthLong(value);
+      } else {
+        super.setIntHeader(name, value);
+      }
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      // The error page is written by the container straight to the response
+      discard();
+      super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      discard();
+      super.sendError(sc);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      if (writer != null) {
+        writer.flush();
+      }
+      flush();
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      resetBuffer();
+      contentLength = -1;
+    }
+
+    @Override
+    public void resetBuffer() {
+      if (target == null) {
+        held.reset();
+      } else {
+        super.resetBuffer();
+      }
+    }
+
+    private void discard() {
+      passThrough = true;
+      if (target == null) {
+        held.reset();
+      }
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+      if (target != null) {
+        target.write(b, off, len);
+        return;
+      }
+      if (passThrough) {
+        start(false);
+        target.write(b, off, len);
+        return;
+      }
+      held.write(b, off, len);
+      if (held.size() >= minSize) {
+        start(compressible());
+      }
+    }
+
+    private void flush() throws IOException {
+      // Until the size is known, a flush would commit the response uncompressed
+      if (target != null) {
+        target.flush();
+        getResponse().flushBuffer();
+      }
+    }
+
+    /**
+     * Sends what is held back, uncompressed if the body ended below the threshold, and
+     * ends the gzip stream.
+     */
+    void finish() throws IOException {
+      if (writer != null) {
+        writer.flush();
+      }
+      if (target == null && held.size() > 0) {
+        // The whole body is held, so its length is known even if it was never set
+        contentLength = held.size();
+        start(false);
+      }
+      if (gzip != null) {
+        gzip.finish();
+      }
+    }
+
+    private boolean compressible() {
+      HttpServletResponse response = (HttpServletResponse) getResponse();
+      if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+          || getContentType() == null) {
+        return false;
+      }
+      MediaType type = MediaType.parseMediaType(getContentType());
+      return mimeTypes.stream().anyMatch(type::isCompatibleWith);
+    }
+
+    private void start(boolean compress) throws IOException {
+      HttpServletResponse response = (HttpServletResponse) getResponse();
+      if (compress) {
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/")) {
+          response.setHeader(HttpHeaders.ETAG, "W/" + etag);
+        }
+        gzip = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER, true);
+        target = gzip;
+      } else {
+        if (contentLength >= 0) {
+          response.setContentLengthLong(contentLength);
+        }
+        target = response.getOutputStream();
+      }
+      held.writeTo(target);
+      held = null;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package uk.ac.ucl.comp0010.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configures the encodings responses can be sent in.
+ *
+ * <p>Besides JSON, which stays the default for {@code Accept: *}{@code /*} or no
+ * {@code Accept} at all, responses can be asked for as CBOR ({@code application/cbor})
+ * or Smile ({@code application/x-jackson-smile}), binary forms of the same documents.
+ * Both are written by mappers built like the JSON one, so field names and formats match.
+ * Large responses are also gzipped for clients that accept it.
+ */
+@Configuration
+public class ResponseFormatsConfig {
+
+  /**
+   * Writes and reads CBOR, replacing the converter Spring registers with default settings.
+   *
+   * @param builder Boot's mapper builder, a fresh one per injection point
+   * @return the converter
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(
+        builder.factory(new CBORFactory()).build());
+  }
+
+  /**
+   * Writes and reads Smile, replacing the converter Spring registers with default settings.
+   *
+   * @param builder Boot's mapper builder, a fresh one per injection point
+   * @return the converter
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.factory(new SmileFactory()).build());
+  }
+
+  /**
+   * Registers response compression ahead of every other filter, so the bodies and
+   * headers they produce are what is compressed.
+   *
+   * @param minSize the smallest body, in bytes, that is compressed
+   * @param mimeTypes the content types that are compressed
+   * @return the filter registration
+   */
+  @Bean
+  @ConditionalOnProperty(name = "app.compression.enabled", havingValue = "true",
+      matchIfMissing = true)
+  public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(
+      @Value("${app.compression.min-size:2048}") int minSize,
+      @Value("${app.compression.mime-types:application/json,application/*+json,"
+          + "application/cbor,application/cbor-seq,application/x-jackson-smile,"
+          + "application/x-ndjson,text/csv}") String[] mimeTypes) {
+    FilterRegistrationBean<ResponseCompressionFilter> registration =
+        new FilterRegistrationBean<>(new ResponseCompressionFilter(minSize,
+            Arrays.stream(mimeTypes).map(String::trim).map(MediaType::parseMediaType).toList()));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+    return registration;
+  }
+}
@@ -6,6 +6,7 @@ import java.util.Arrays;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -15,6 +16,10 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 /**
  * Security configuration for the application.
  * Configures CORS and disables CSRF protection.
+ *
+ * <p>The API is open, except {@code /admin/**}: imports, snapshot restores and cache
+ * maintenance need HTTP Basic credentials of a user with the ADMIN role (see
+ * {@code spring.security.user.*}), and are not available to cross-origin callers.
  */
 @Configuration
 public class SecurityConfig {
@@ -28,7 +33,13 @@ public class SecurityConfig {
    */
   @Bean
   public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-    http.csrf(csrf -> csrf.disable()).cors(withDefaults());
+    http.csrf(csrf -> csrf.disable()).cors(withDefaults())
+        .authorizeHttpRequests(requests -> requests
+            .requestMatchers("/admin/**").hasRole("ADMIN")
+            .anyRequest().permitAll())
+        .httpBasic(withDefaults())
+        .sessionManagement(session -> session
+            .sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
     return http.build();
   }
@@ -44,10 +55,13 @@ public class SecurityConfig {
     config.setAllowedOriginPatterns(Arrays.asList("*"));
     config.setAllowedHeaders(Arrays.asList("*"));
     config.setAllowedMethods(Arrays.asList("*"));
+    config.setExposedHeaders(Arrays.asList("X-Next-Cursor"));
     config.setAllowCredentials(false);
     config.applyPermitDefaultValues();
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+    // The first matching pattern applies; no origin is allowed to call /admin
+    source.registerCorsConfiguration("/admin/**", new CorsConfiguration());
     source.registerCorsConfiguration("/**", config);
 
     return source;
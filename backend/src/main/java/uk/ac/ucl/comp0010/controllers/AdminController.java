@@ -0,0 +1,166 @@
+package uk.ac.ucl.comp0010.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import uk.ac.ucl.comp0010.dto.CacheRegionStats;
+import uk.ac.ucl.comp0010.dto.GradeSummaryMismatch;
+import uk.ac.ucl.comp0010.dto.ImportReport;
+import uk.ac.ucl.comp0010.dto.RegistrationIndexStats;
+import uk.ac.ucl.comp0010.dto.SnapshotReport;
+import uk.ac.ucl.comp0010.imports.CsvImportService;
+import uk.ac.ucl.comp0010.imports.CsvImportService.Kind;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+import uk.ac.ucl.comp0010.service.SecondLevelCache;
+import uk.ac.ucl.comp0010.snapshot.CorruptSnapshotException;
+import uk.ac.ucl.comp0010.snapshot.SnapshotService;
+
+/**
+ * Controller for maintenance operations on derived data, bulk imports and snapshots.
+ * Every endpoint needs the ADMIN role (see {@link uk.ac.ucl.comp0010.config.SecurityConfig}).
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+  private final GradeSummaryService gradeSummaryService;
+  private final RegistrationIndex registrationIndex;
+  private final SecondLevelCache secondLevelCache;
+  private final CsvImportService csvImportService;
+  private final SnapshotService snapshotService;
+
+  /**
+   * Constructs an AdminController with required services.
+   *
+   * @param gradeSummaryService the per-student grade summary service
+   * @param registrationIndex the in-memory registration index
+   * @param secondLevelCache the Hibernate second-level cache
+   * @param csvImportService the bulk CSV import service
+   * @param snapshotService the binary snapshot service
+   */
+  public AdminController(GradeSummaryService gradeSummaryService,
+      RegistrationIndex registrationIndex,
+      SecondLevelCache secondLevelCache,
+      CsvImportService csvImportService,
+      SnapshotService snapshotService) {
+    this.gradeSummaryService = gradeSummaryService;
+    this.registrationIndex = registrationIndex;
+    this.secondLevelCache = secondLevelCache;
+    this.csvImportService = csvImportService;
+    this.snapshotService = snapshotService;
+  }
+
+  /**
+   * Compares every student's grade summary against the grade table.
+   *
+   * @return the students whose summary is out of date; empty when all are consistent
+   */
+  @GetMapping("/grade-summaries/check")
+  public ResponseEntity<List<GradeSummaryMismatch>> checkGradeSummaries() {
+    return ResponseEntity.ok(gradeSummaryService.check());
+  }
+
+  /**
+   * Recomputes every student's grade summary from the grade table.
+   *
+   * @return the number of summaries written
+   */
+  @PostMapping("/grade-summaries/rebuild")
+  public ResponseEntity<Map<String, Integer>> rebuildGradeSummaries() {
+    return ResponseEntity.ok(Map.of("rebuilt", gradeSummaryService.rebuild()));
+  }
+
+  /**
+   * Reports the size and hit rate of the in-memory registration index.
+   *
+   * @return the index statistics
+   */
+  @GetMapping("/registration-index")
+  public ResponseEntity<RegistrationIndexStats> registrationIndexStats() {
+    return ResponseEntity.ok(registrationIndex.stats());
+  }
+
+  /**
+   * Reports the hit rate and size of each second-level and query cache region.
+   *
+   * @return the statistics, by region
+   */
+  @GetMapping("/caches")
+  public ResponseEntity<List<CacheRegionStats>> cacheStats() {
+    return ResponseEntity.ok(secondLevelCache.stats());
+  }
+
+  /**
+   * Empties the second-level and query caches, e.g. after editing tables by hand.
+   *
+   * @return no content
+   */
+  @PostMapping("/caches/evict")
+  public ResponseEntity<Void> evictCaches() {
+    secondLevelCache.evictAll();
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Imports a CSV request body, read as it arrives.
+   *
+   * @param kind modules, students, registrations or grades
+   * @param body the UTF-8 CSV, with the same header as the matching export
+   * @return the number of rows imported and why any were rejected
+   * @throws IOException if the body cannot be read
+   */
+  @PostMapping("/import/{kind}")
+  public ResponseEntity<ImportReport> importCsv(@PathVariable String kind, InputStream body)
+      throws IOException {
+    try {
+      return ResponseEntity.ok(csvImportService.importCsv(Kind.from(kind), body));
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  /**
+   * Writes a snapshot of the modules, students, registrations and grades.
+   *
+   * @return the snapshot's name and size and the rows it holds
+   * @throws IOException if the snapshot cannot be written
+   */
+  @PostMapping("/snapshots")
+  public ResponseEntity<SnapshotReport> snapshot() throws IOException {
+    return ResponseEntity.ok(snapshotService.snapshot());
+  }
+
+  /**
+   * Restores a snapshot into an empty database.
+   *
+   * @param name the snapshot file name, as returned when it was written
+   * @return the rows restored
+   * @throws IOException if the snapshot cannot be read
+   */
+  @PostMapping("/snapshots/{name}/restore")
+  public ResponseEntity<SnapshotReport> restoreSnapshot(@PathVariable String name)
+      throws IOException {
+    try {
+      return ResponseEntity.ok(snapshotService.restore(name));
+    } catch (IllegalArgumentException | CorruptSnapshotException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    } catch (NoSuchFileException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Snapshot not found: " + name);
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package uk.ac.ucl.comp0010.controllers;
+
+import java.sql.SQLException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Entity;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
+
+/**
+ * Maps unique constraint violations to 409 Conflict, and other integrity violations to
+ * 400 Bad Request.
+ *
+ * <p>Writes rely on the unique constraints rather than checking first, so a duplicate
+ * registration, grade, username or email surfaces here. Other violations, such as a
+ * value longer than its column, a missing required value or a reference to a row that
+ * does not exist, are faults in the request rather than clashes with existing data.
+ */
+@RestControllerAdvice
+public class ConflictExceptionHandler {
+
+  /** The SQLState of a unique or primary key violation, in H2 and PostgreSQL alike. */
+  private static final String UNIQUE_VIOLATION = "23505";
+
+  private final DomainMetrics domainMetrics;
+
+  /**
+   * Constructs a ConflictExceptionHandler.
+   *
+   * @param domainMetrics the rejected-write counters
+   */
+  public ConflictExceptionHandler(DomainMetrics domainMetrics) {
+    this.domainMetrics = domainMetrics;
+  }
+
+  /**
+   * Handles a constraint violation raised by a write.
+   *
+   * @param e the violation
+   * @param handler the controller method that raised it
+   * @return a 409 problem response for a duplicate, otherwise a 400 one
+   */
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  public ResponseEntity<ProblemDetail> handleConstraintViolation(
+      DataIntegrityViolationException e, HandlerMethod handler) {
+    boolean duplicate = isUniqueViolation(e);
+    Reason reason = duplicate ? Reason.DUPLICATE : Reason.INVALID;
+    Class<?> controller = handler.getBeanType();
+    if (controller == GradeController.class) {
+      domainMetrics.rejected(Entity.GRADE, reason);
+    } else if (controller == RegistrationController.class) {
+      domainMetrics.rejected(Entity.REGISTRATION, reason);
+    }
+    if (!duplicate) {
+      return ResponseEntity.badRequest().body(ProblemDetail.forStatusAndDetail(
+          HttpStatus.BAD_REQUEST, "The request breaks a constraint on the data"));
+    }
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(ProblemDetail.forStatusAndDetail(
+        HttpStatus.CONFLICT, "The request conflicts with existing data"));
+  }
+
+  /**
+   * Checks whether a violation was caused by a duplicate key.
+   *
+   * @param e the violation
+   * @return true if an SQLException among its causes reports a unique violation
+   */
+  public static boolean isUniqueViolation(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
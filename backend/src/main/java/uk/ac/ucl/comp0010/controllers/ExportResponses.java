@@ -0,0 +1,64 @@
+package uk.ac.ucl.comp0010.controllers;
+
+import java.util.function.Function;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import uk.ac.ucl.comp0010.service.ExportService.Format;
+
+/**
+ * Builds the responses of the streaming export endpoints.
+ */
+final class ExportResponses {
+
+  private ExportResponses() {}
+
+  /**
+   * Builds a streaming attachment response.
+   *
+   * @param name the base name of the downloaded file
+   * @param format the requested format name, or null to go by {@code accept}
+   * @param accept the Accept header, or null
+   * @param body creates the streaming body for the resolved format
+   * @return the response
+   * @throws ResponseStatusException if the format is not supported
+   */
+  static ResponseEntity<StreamingResponseBody> export(String name, String format,
+      String accept, Function<Format, StreamingResponseBody> body) {
+    Format resolved;
+    try {
+      resolved = format != null ? Format.from(format) : negotiate(accept);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(resolved.getContentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(name + "." + resolved.getExtension()).build().toString())
+        .body(body.apply(resolved));
+  }
+
+  /**
+   * Picks the format whose content type {@code Accept} names first, or NDJSON when it
+   * names none of them, as wildcards and plain {@code application/json} do.
+   */
+  private static Format negotiate(String accept) {
+    if (accept == null) {
+      return Format.NDJSON;
+    }
+    for (MediaType type : MediaType.parseMediaTypes(accept)) {
+      for (Format format : Format.values()) {
+        if (type.equalsTypeAndSubtype(MediaType.parseMediaType(format.getContentType()))) {
+          return format;
+        }
+      }
+    }
+    return Format.NDJSON;
+  }
+}
@@ -1,9 +1,14 @@
 package uk.ac.ucl.comp0010.controllers;
 
+import io.micrometer.core.annotation.Timed;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,17 +16,27 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import uk.ac.ucl.comp0010.dto.BatchRowResult;
+import uk.ac.ucl.comp0010.dto.GradeView;
 import uk.ac.ucl.comp0010.model.Grade;
-import uk.ac.ucl.comp0010.model.Module;
-import uk.ac.ucl.comp0010.model.Student;
 import uk.ac.ucl.comp0010.repository.GradeRepository;
 import uk.ac.ucl.comp0010.repository.ModuleRepository;
-import uk.ac.ucl.comp0010.repository.RegistrationRepository;
 import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.ExportService;
+import uk.ac.ucl.comp0010.service.GradeBatchService;
+import uk.ac.ucl.comp0010.service.GradeRejectedException;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.GradeWriteCoalescer;
+import uk.ac.ucl.comp0010.service.TableVersions;
+import uk.ac.ucl.comp0010.service.TableVersions.Table;
 
 /**
  * Controller for handling grade-related operations.
@@ -34,7 +49,11 @@ public class GradeController {
   private final GradeRepository gradeRepository;
   private final StudentRepository studentRepository;
   private final ModuleRepository moduleRepository;
-  private final RegistrationRepository registrationRepository;
+  private final GradeWriteCoalescer gradeWriteCoalescer;
+  private final GradeBatchService gradeBatchService;
+  private final ExportService exportService;
+  private final GradeSummaryService gradeSummaryService;
+  private final TableVersions tableVersions;
 
   /**
    * Constructs a GradeController with required repositories.
@@ -42,61 +61,153 @@ public class GradeController {
    * @param gradeRepository the grade repository
    * @param studentRepository the student repository
    * @param moduleRepository the module repository
-   * @param registrationRepository the registration repository
+   * @param gradeWriteCoalescer the single-grade write coalescer
+   * @param gradeBatchService the bulk grade service
+   * @param exportService the streaming export service
+   * @param gradeSummaryService the per-student grade summary service
+   * @param tableVersions the per-table write versions
    */
   public GradeController(GradeRepository gradeRepository,
       StudentRepository studentRepository,
       ModuleRepository moduleRepository,
-      RegistrationRepository registrationRepository) {
+      GradeWriteCoalescer gradeWriteCoalescer,
+      GradeBatchService gradeBatchService,
+      ExportService exportService,
+      GradeSummaryService gradeSummaryService,
+      TableVersions tableVersions) {
     this.gradeRepository = gradeRepository;
     this.studentRepository = studentRepository;
     this.moduleRepository = moduleRepository;
-    this.registrationRepository = registrationRepository;
+    this.gradeWriteCoalescer = gradeWriteCoalescer;
+    this.gradeBatchService = gradeBatchService;
+    this.exportService = exportService;
+    this.gradeSummaryService = gradeSummaryService;
+    this.tableVersions = tableVersions;
   }
 
 
   /**
    * Adds a grade for a student and module.
    *
+   * <p>Concurrent calls are merged into shared transactions by {@link GradeWriteCoalescer}.
+   *
    * @param params a map containing student_id, module_code, and score
    * @return the saved Grade entity
    */
   @PostMapping("/addGrade")
+  @Timed(value = "app.grade.writes", extraTags = {"path", "single"})
   public ResponseEntity<Grade> addGrade(@RequestBody Map<String, String> params) {
     Integer studentId = Integer.valueOf(params.get("student_id"));
     String moduleCode = params.get("module_code");
     int score = Integer.parseInt(params.get("score"));
 
-    Student student = studentRepository.findById(studentId)
-        .orElseThrow(() -> new ResponseStatusException(
-            HttpStatus.NOT_FOUND, "Student not found"));
-    Module module = moduleRepository.findById(moduleCode)
-        .orElseThrow(() -> new ResponseStatusException(
-            HttpStatus.NOT_FOUND, "Module not found"));
+    try {
+      return ResponseEntity.ok(gradeWriteCoalescer.addGrade(studentId, moduleCode, score));
+    } catch (GradeRejectedException e) {
+      HttpStatus status = switch (e.getReason()) {
+        case NOT_FOUND -> HttpStatus.NOT_FOUND;
+        case DUPLICATE -> HttpStatus.CONFLICT;
+        case NOT_REGISTERED, INVALID -> HttpStatus.BAD_REQUEST;
+      };
+      throw new ResponseStatusException(status, e.getMessage());
+    }
+  }
 
-    if (!registrationRepository.existsByStudentAndModule(student, module)) {
-      throw new ResponseStatusException(
-          HttpStatus.BAD_REQUEST, "Student must be registered for this module before receiving a grade");
+  /**
+   * Adds many grades in one request.
+   *
+   * @param rows maps containing student_id, module_code, and score
+   * @return the outcome of each row, in request order
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<List<BatchRowResult>> addGrades(@RequestBody List<Map<String, String>> rows) {
+    if (rows == null || rows.isEmpty()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one row is required");
     }
+    return ResponseEntity.ok(gradeBatchService.addGrades(rows));
+  }
+
+  /**
+   * Gets one page of grades, ordered by id, or 304 if no grade, student or module has
+   * changed since the ETag the client sent; each grade carries its student's and
+   * module's names.
+   *
+   * @param after the id of the last grade already seen
+   * @param limit the page size
+   * @param request the request, for its conditional headers
+   * @return the grades, with the next cursor in the X-Next-Cursor header
+   */
+  @GetMapping
+  public ResponseEntity<List<GradeView>> getAllGrades(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    Limit page = KeysetPaging.limit(limit);
+    TableVersions.Version version =
+        tableVersions.current(Table.GRADE, Table.STUDENT, Table.MODULE);
+    return ConditionalRequests.get(request, version, () -> {
+      List<GradeView> grades = gradeRepository.findPageAfter(
+          after == null ? Long.MIN_VALUE : after, page);
+      return KeysetPaging.page(grades, page, GradeView::id);
+    });
+  }
 
-    Grade grade = new Grade();
-    grade.setScore(score);
-    grade.setStudent(student);
-    grade.setModule(module);
+  /**
+   * Gets one page of a student's grades.
+   *
+   * @param studentId the student id
+   * @param after the id of the last grade already seen
+   * @param limit the page size
+   * @return the grades, with the next cursor in the X-Next-Cursor header
+   */
+  @GetMapping("/student/{studentId}")
+  public ResponseEntity<List<GradeView>> getStudentGrades(
+      @PathVariable Integer studentId,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit) {
+    if (!studentRepository.existsById(studentId)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Student not found");
+    }
+    Limit page = KeysetPaging.limit(limit);
+    List<GradeView> grades = gradeRepository.findByStudentAfter(
+        studentId, after == null ? Long.MIN_VALUE : after, page);
+    return KeysetPaging.page(grades, page, GradeView::id);
+  }
 
-    Grade savedGrade = gradeRepository.save(grade);
-    return ResponseEntity.ok(savedGrade);
+  /**
+   * Gets one page of a module's grades.
+   *
+   * @param code the module code
+   * @param after the id of the last grade already seen
+   * @param limit the page size
+   * @return the grades, with the next cursor in the X-Next-Cursor header
+   */
+  @GetMapping("/module/{code}")
+  public ResponseEntity<List<GradeView>> getModuleGrades(
+      @PathVariable String code,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit) {
+    if (!moduleRepository.existsById(code)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Module not found");
+    }
+    Limit page = KeysetPaging.limit(limit);
+    List<GradeView> grades = gradeRepository.findByModuleAfter(
+        code, after == null ? Long.MIN_VALUE : after, page);
+    return KeysetPaging.page(grades, page, GradeView::id);
   }
 
   /**
-   * Gets all grades.
+   * Streams every grade as NDJSON, CSV or CBOR.
    *
-   * @return all grades
+   * @param format ndjson, csv or cbor; when absent, chosen by Accept, defaulting to ndjson
+   * @param accept the Accept header
+   * @return the export, written row by row
    */
-  @GetMapping
-  public ResponseEntity<Iterable<Grade>> getAllGrades() {
-    Iterable<Grade> grades = gradeRepository.findAll();
-    return ResponseEntity.ok(grades);
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportGrades(
+      @RequestParam(required = false) String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    return ExportResponses.export("grades", format, accept, exportService::grades);
   }
 
   /**
@@ -107,7 +218,8 @@ public class GradeController {
    * @return the updated Grade entity
    */
   @PutMapping("/{id}")
-  public ResponseEntity<Grade> updateGrade(@PathVariable Integer id, @RequestBody Map<String, String> params) {
+  @Transactional
+  public ResponseEntity<Grade> updateGrade(@PathVariable Long id, @RequestBody Map<String, String> params) {
     int score = Integer.parseInt(params.get("score"));
 
     if (score < 0 || score > 100) {
@@ -116,8 +228,15 @@ public class GradeController {
 
     return gradeRepository.findById(id)
         .map(existingGrade -> {
+          Integer oldScore = existingGrade.getScore();
           existingGrade.setScore(score);
           Grade savedGrade = gradeRepository.save(existingGrade);
+          Integer studentId = existingGrade.getStudent().getId();
+          if (oldScore == null) {
+            gradeSummaryService.gradeAdded(studentId, score);
+          } else {
+            gradeSummaryService.gradeChanged(studentId, oldScore, score);
+          }
           return ResponseEntity.ok(savedGrade);
         })
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Grade not found"));
@@ -130,11 +249,14 @@ public class GradeController {
    * @return no content response
    */
   @DeleteMapping("/{id}")
-  public ResponseEntity<Void> deleteGrade(@PathVariable Integer id) {
-    if (gradeRepository.existsById(id)) {
-      gradeRepository.deleteById(id);
-      return ResponseEntity.noContent().build();
+  @Transactional
+  public ResponseEntity<Void> deleteGrade(@PathVariable Long id) {
+    Grade grade = gradeRepository.findById(id)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Grade not found"));
+    gradeRepository.delete(grade);
+    if (grade.getScore() != null) {
+      gradeSummaryService.gradeRemoved(grade.getStudent().getId(), grade.getScore());
     }
-    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Grade not found");
+    return ResponseEntity.noContent().build();
   }
 }
@@ -0,0 +1,60 @@
+package uk.ac.ucl.comp0010.controllers;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Helpers for keyset (seek-method) pagination of list endpoints.
+ *
+ * <p>A page is requested with {@code after=<cursor>&limit=N}, where the cursor is the
+ * sort key of the last row already seen. The body stays a plain JSON array; when more
+ * rows may follow, the cursor for the next page is returned in the
+ * {@value #NEXT_CURSOR_HEADER} header.
+ */
+final class KeysetPaging {
+
+  static final int DEFAULT_LIMIT = 100;
+  static final int MAX_LIMIT = 1000;
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private KeysetPaging() {}
+
+  /**
+   * Resolves the requested page size.
+   *
+   * @param requested the limit query parameter, or null for the default
+   * @return the page size, capped at {@link #MAX_LIMIT}
+   * @throws ResponseStatusException if the limit is not positive
+   */
+  static Limit limit(Integer requested) {
+    if (requested == null) {
+      return Limit.of(DEFAULT_LIMIT);
+    }
+    if (requested < 1) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+    }
+    return Limit.of(Math.min(requested, MAX_LIMIT));
+  }
+
+  /**
+   * Builds the response for one page of rows.
+   *
+   * @param rows the rows of the page, in sort order
+   * @param limit the page size used for the query
+   * @param sortKey extracts the sort key (cursor) of a row
+   * @return a 200 response with the next cursor header set if the page was full
+   */
+  static <T> ResponseEntity<List<T>> page(List<T> rows, Limit limit,
+      Function<? super T, ?> sortKey) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (!rows.isEmpty() && rows.size() >= limit.max()) {
+      response.header(NEXT_CURSOR_HEADER, String.valueOf(sortKey.apply(rows.get(rows.size() - 1))));
+    }
+    return response.body(rows);
+  }
+}
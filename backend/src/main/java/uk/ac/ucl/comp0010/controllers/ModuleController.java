@@ -1,15 +1,27 @@
 package uk.ac.ucl.comp0010.controllers;
 
+import java.util.List;
 import java.util.Map;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import uk.ac.ucl.comp0010.dto.LeaderboardEntry;
+import uk.ac.ucl.comp0010.dto.ModuleStats;
+import uk.ac.ucl.comp0010.dto.StudentRank;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.service.ModuleLeaderboard;
+import uk.ac.ucl.comp0010.service.ModuleStatsService;
+import uk.ac.ucl.comp0010.service.TableVersions;
+import uk.ac.ucl.comp0010.service.TableVersions.Table;
 
 /**
  * Controller for handling module-related operations.
@@ -17,20 +29,49 @@ import uk.ac.ucl.comp0010.repository.ModuleRepository;
 @RestController
 @RequestMapping("/modules")
 public class ModuleController {
+  /** The largest leaderboard a single request may ask for. */
+  static final int MAX_TOP = 1000;
+
   /** The module repository. */
   private final ModuleRepository moduleRepository;
 
+  /** The module statistics service. */
+  private final ModuleStatsService moduleStatsService;
+
+  /** The per-module score leaderboard. */
+  private final ModuleLeaderboard moduleLeaderboard;
+
+  /** The per-table write versions that list responses are tagged with. */
+  private final TableVersions tableVersions;
+
   /**
-   * Constructs a ModuleController with required repository.
+   * Constructs a ModuleController with required dependencies.
    *
    * @param moduleRepository the module repository
-   * @throws NullPointerException if moduleRepository is null
+   * @param moduleStatsService the module statistics service
+   * @param moduleLeaderboard the per-module score leaderboard
+   * @param tableVersions the per-table write versions
+   * @throws NullPointerException if any argument is null
    */
-  public ModuleController(ModuleRepository moduleRepository) {
+  public ModuleController(ModuleRepository moduleRepository,
+      ModuleStatsService moduleStatsService, ModuleLeaderboard moduleLeaderboard,
+      TableVersions tableVersions) {
     if (moduleRepository == null) {
       throw new NullPointerException("moduleRepository must not be null");
     }
+    if (moduleStatsService == null) {
+      throw new NullPointerException("moduleStatsService must not be null");
+    }
+    if (moduleLeaderboard == null) {
+      throw new NullPointerException("moduleLeaderboard must not be null");
+    }
+    if (tableVersions == null) {
+      throw new NullPointerException("tableVersions must not be null");
+    }
     this.moduleRepository = moduleRepository;
+    this.moduleStatsService = moduleStatsService;
+    this.moduleLeaderboard = moduleLeaderboard;
+    this.tableVersions = tableVersions;
   }
 
   /**
@@ -59,13 +100,87 @@ public class ModuleController {
   }
 
   /**
-   * Gets all modules from the repository.
+   * Gets one page of modules, ordered by code, or 304 if no module has changed since
+   * the ETag the client sent.
    *
-   * @return a ResponseEntity containing all modules
+   * @param after the code of the last module already seen
+   * @param limit the page size
+   * @param request the request, for its conditional headers
+   * @return the modules, with the next cursor in the X-Next-Cursor header
    */
   @GetMapping
-  public ResponseEntity<Iterable<Module>> getAllModules() {
-    Iterable<Module> modules = moduleRepository.findAll();
-    return ResponseEntity.ok(modules);
+  public ResponseEntity<List<Module>> getAllModules(
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    Limit page = KeysetPaging.limit(limit);
+    return ConditionalRequests.get(request, tableVersions.current(Table.MODULE), () -> {
+      List<Module> modules = moduleRepository.findByCodeGreaterThanOrderByCodeAsc(
+          after == null ? "" : after, page);
+      return KeysetPaging.page(modules, page, Module::getCode);
+    });
+  }
+
+  /**
+   * Gets score statistics for every module.
+   *
+   * @return the statistics, ordered by module code
+   */
+  @GetMapping("/stats")
+  public ResponseEntity<List<ModuleStats>> getAllModuleStats() {
+    return ResponseEntity.ok(moduleStatsService.forAllModules());
+  }
+
+  /**
+   * Gets score statistics for one module.
+   *
+   * @param code the module code
+   * @return the statistics, or 404 if the module does not exist
+   */
+  @GetMapping("/{code}/stats")
+  public ResponseEntity<ModuleStats> getModuleStats(@PathVariable String code) {
+    ModuleStats stats = moduleStatsService.forModule(code);
+    if (stats == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(stats);
+  }
+
+  /**
+   * Gets the highest-scoring students of a module.
+   *
+   * <p>Students with equal scores share a rank (1, 2, 2, 4) and are listed by id.
+   *
+   * @param code the module code
+   * @param n how many students to return, 1 to {@value #MAX_TOP}
+   * @return the leaderboard, 400 if n is out of range, or 404 if the module does not exist
+   */
+  @GetMapping("/{code}/top")
+  public ResponseEntity<List<LeaderboardEntry>> getTopStudents(@PathVariable String code,
+      @RequestParam(defaultValue = "10") int n) {
+    if (n < 1 || n > MAX_TOP) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (moduleRepository.findById(code).isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(moduleLeaderboard.top(code, n));
+  }
+
+  /**
+   * Gets one student's rank in a module.
+   *
+   * @param code the module code
+   * @param studentId the student id
+   * @return the rank, or 404 if the module does not exist or the student has no score in it
+   */
+  @GetMapping("/{code}/rank/{studentId}")
+  public ResponseEntity<StudentRank> getStudentRank(@PathVariable String code,
+      @PathVariable Integer studentId) {
+    StudentRank rank = moduleLeaderboard.rank(code, studentId);
+    if (rank == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(rank);
   }
 }
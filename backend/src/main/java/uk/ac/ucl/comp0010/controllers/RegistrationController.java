@@ -1,19 +1,31 @@
 package uk.ac.ucl.comp0010.controllers;
 
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import uk.ac.ucl.comp0010.dto.BulkRegistrationRequest;
+import uk.ac.ucl.comp0010.dto.RegistrationRowResult;
+import uk.ac.ucl.comp0010.dto.RegistrationView;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Entity;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Registration;
 import uk.ac.ucl.comp0010.model.Student;
 import uk.ac.ucl.comp0010.repository.ModuleRepository;
 import uk.ac.ucl.comp0010.repository.RegistrationRepository;
 import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.BulkRegistrationService;
+import uk.ac.ucl.comp0010.service.ExportService;
 
 @RestController
 @RequestMapping("/registrations")
@@ -23,58 +35,143 @@ public class RegistrationController {
     private final RegistrationRepository registrationRepository;
     private final StudentRepository studentRepository;
     private final ModuleRepository moduleRepository;
+    private final BulkRegistrationService bulkRegistrationService;
+    private final ExportService exportService;
+    private final DomainMetrics domainMetrics;
 
     public RegistrationController(
             RegistrationRepository registrationRepository,
             StudentRepository studentRepository,
-            ModuleRepository moduleRepository) {
+            ModuleRepository moduleRepository,
+            BulkRegistrationService bulkRegistrationService,
+            ExportService exportService,
+            DomainMetrics domainMetrics) {
         this.registrationRepository = registrationRepository;
         this.studentRepository = studentRepository;
         this.moduleRepository = moduleRepository;
+        this.bulkRegistrationService = bulkRegistrationService;
+        this.exportService = exportService;
+        this.domainMetrics = domainMetrics;
     }
 
+    /**
+     * Gets one page of registrations, ordered by id.
+     *
+     * @param after the id of the last registration already seen
+     * @param limit the page size
+     * @return the registrations, with the next cursor in the X-Next-Cursor header
+     */
     @GetMapping
-    public ResponseEntity<List<Registration>> getAllRegistrations() {
-        List<Registration> registrations = registrationRepository.findAll();
-        return ResponseEntity.ok(registrations);
+    public ResponseEntity<List<RegistrationView>> getAllRegistrations(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit) {
+        Limit page = KeysetPaging.limit(limit);
+        List<RegistrationView> registrations = registrationRepository.findPageAfter(
+                after == null ? Integer.MIN_VALUE : after, page);
+        return KeysetPaging.page(registrations, page, RegistrationView::id);
     }
 
     @PostMapping
+    @Timed(value = "app.registration.writes", extraTags = {"path", "single"})
     public ResponseEntity<Registration> createRegistration(@RequestBody Map<String, String> params) {
         Integer studentId = Integer.valueOf(params.get("student_id"));
         String moduleCode = params.get("module_code");
 
         Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Student not found"));
+                .orElseThrow(() -> rejectNotFound("Student not found"));
 
         Module module = moduleRepository.findById(moduleCode)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Module not found"));
-
-        if (registrationRepository.existsByStudentAndModule(student, module)) {
-            throw new ResponseStatusException(
-                    HttpStatus.CONFLICT, "Student is already registered for this module");
-        }
+                .orElseThrow(() -> rejectNotFound("Module not found"));
 
         Registration registration = new Registration();
         registration.setStudent(student);
         registration.setModule(module);
 
-        Registration saved = registrationRepository.save(registration);
+        // A duplicate fails the unique constraint and is mapped to 409 by ConflictExceptionHandler
+        Registration saved = registrationRepository.saveAndFlush(registration);
         return new ResponseEntity<>(saved, HttpStatus.CREATED);
     }
 
+    /**
+     * Registers a cohort of students on one or more modules in a single transaction.
+     *
+     * @param request the module code(s) and student ids
+     * @return which pairs were created, skipped as already registered, or rejected
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<RegistrationRowResult>> createRegistrations(
+            @RequestBody BulkRegistrationRequest request) {
+        List<String> moduleCodes = request.allModuleCodes();
+        if (moduleCodes.isEmpty() || request.studentIds() == null || request.studentIds().isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "At least one module code and one student id are required");
+        }
+        if (request.studentIds().contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Student ids must not be null");
+        }
+        return ResponseEntity.ok(bulkRegistrationService.register(request.studentIds(), moduleCodes));
+    }
+
+    /**
+     * Streams every registration as NDJSON, CSV or CBOR.
+     *
+     * @param format ndjson, csv or cbor; when absent, chosen by Accept, defaulting to ndjson
+     * @param accept the Accept header
+     * @return the export, written row by row
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRegistrations(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return ExportResponses.export("registrations", format, accept, exportService::registrations);
+    }
+
+    /**
+     * Gets one page of a student's registrations.
+     *
+     * @param studentId the student id
+     * @param after the id of the last registration already seen
+     * @param limit the page size
+     * @return the registrations, with the next cursor in the X-Next-Cursor header
+     */
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<Registration>> getStudentRegistrations(@PathVariable Integer studentId) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Student not found"));
+    public ResponseEntity<List<RegistrationView>> getStudentRegistrations(
+            @PathVariable Integer studentId,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit) {
+        if (!studentRepository.existsById(studentId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Student not found");
+        }
+        Limit page = KeysetPaging.limit(limit);
+        List<RegistrationView> registrations = registrationRepository.findByStudentAfter(
+                studentId, after == null ? Integer.MIN_VALUE : after, page);
+        return KeysetPaging.page(registrations, page, RegistrationView::id);
+    }
 
-        List<Registration> registrations = registrationRepository.findAll().stream()
-                .filter(r -> r.getStudent().getId().equals(studentId))
-                .toList();
+    /**
+     * Gets one page of a module's roster.
+     *
+     * @param code the module code
+     * @param after the id of the last registration already seen
+     * @param limit the page size
+     * @return the registrations, with the next cursor in the X-Next-Cursor header
+     */
+    @GetMapping("/module/{code}")
+    public ResponseEntity<List<RegistrationView>> getModuleRegistrations(
+            @PathVariable String code,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit) {
+        if (!moduleRepository.existsById(code)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Module not found");
+        }
+        Limit page = KeysetPaging.limit(limit);
+        List<RegistrationView> registrations = registrationRepository.findByModuleAfter(
+                code, after == null ? Integer.MIN_VALUE : after, page);
+        return KeysetPaging.page(registrations, page, RegistrationView::id);
+    }
 
-        return ResponseEntity.ok(registrations);
+    private ResponseStatusException rejectNotFound(String message) {
+        domainMetrics.rejected(Entity.REGISTRATION, Reason.NOT_FOUND);
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, message);
     }
 }
@@ -1,69 +1,205 @@
 // java
 package uk.ac.ucl.comp0010.controllers;
 
+import io.micrometer.core.annotation.Timed;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import uk.ac.ucl.comp0010.dto.StudentAverage;
 import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.model.StudentGradeSummary;
 import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.ExportService;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.StudentSearchIndex;
+import uk.ac.ucl.comp0010.service.TableVersions;
+import uk.ac.ucl.comp0010.service.TableVersions.Table;
 
 @RestController
 @RequestMapping("/students")
 @CrossOrigin(origins = "*")
 public class StudentController {
 
+    static final int DEFAULT_SEARCH_LIMIT = 10;
+    static final int MAX_SEARCH_LIMIT = 100;
+
     private final StudentRepository studentRepository;
+    private final ExportService exportService;
+    private final GradeSummaryService gradeSummaryService;
+    private final StudentSearchIndex studentSearchIndex;
+    private final TableVersions tableVersions;
 
-    public StudentController(StudentRepository studentRepository) {
+    public StudentController(StudentRepository studentRepository, ExportService exportService,
+            GradeSummaryService gradeSummaryService, StudentSearchIndex studentSearchIndex,
+            TableVersions tableVersions) {
         this.studentRepository = studentRepository;
+        this.exportService = exportService;
+        this.gradeSummaryService = gradeSummaryService;
+        this.studentSearchIndex = studentSearchIndex;
+        this.tableVersions = tableVersions;
     }
 
     /**
-     * Gets all students from the repository.
+     * Gets one page of students, ordered by id, or 304 if no student has changed since
+     * the ETag the client sent.
      *
-     * @return a ResponseEntity containing all students
+     * @param after the id of the last student already seen
+     * @param limit the page size
+     * @param request the request, for its conditional headers
+     * @return the students, with the next cursor in the X-Next-Cursor header
      */
     @GetMapping
-    public ResponseEntity<Iterable<Student>> getAllStudents() {
-        Iterable<Student> students = studentRepository.findAll();
+    public ResponseEntity<List<Student>> getAllStudents(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        Limit page = KeysetPaging.limit(limit);
+        return ConditionalRequests.get(request, tableVersions.current(Table.STUDENT), () -> {
+            List<Student> students = studentRepository.findByIdGreaterThanOrderByIdAsc(
+                    after == null ? Integer.MIN_VALUE : after, page);
+            return KeysetPaging.page(students, page, Student::getId);
+        });
+    }
+
+    /**
+     * Streams every student as NDJSON, CSV or CBOR.
+     *
+     * @param format ndjson, csv or cbor; when absent, chosen by Accept, defaulting to ndjson
+     * @param accept the Accept header
+     * @return the export, written row by row
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return ExportResponses.export("students", format, accept, exportService::students);
+    }
+
+    /**
+     * Searches students by first name, last name, username and email. Each word of the
+     * query must match the start of a word in one of them, or, from four letters on,
+     * be one typo away from it.
+     *
+     * @param q the words to look for
+     * @param limit the most students to return, capped at {@value #MAX_SEARCH_LIMIT}
+     * @return the matching students, best match first
+     */
+    @GetMapping("/search")
+    @Timed("app.student.search")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<Student>> searchStudents(@RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        int max = limit == null ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_SEARCH_LIMIT);
+        List<Student> students = new ArrayList<>(max);
+        for (Integer id : studentSearchIndex.search(q, max)) {
+            // Served from the second-level cache; a student deleted meanwhile is skipped
+            studentRepository.findById(id).ifPresent(students::add);
+        }
         return ResponseEntity.ok(students);
     }
 
+    /**
+     * Gets one student, tagged with an ETag of its fields, or 304 if it still matches
+     * the ETag the client sent.
+     *
+     * @param id the student id
+     * @param request the request, for its conditional headers
+     * @return the student, or 404 if it does not exist
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Student> getStudentById(@PathVariable Integer id) {
+    public ResponseEntity<Student> getStudentById(@PathVariable Integer id, WebRequest request) {
         Optional<Student> s = studentRepository.findById(id);
-        return s.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        if (s.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(ConditionalRequests.etag(s.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok(s.get());
+    }
+
+    /**
+     * Gets a student's average score from their running grade summary.
+     *
+     * @param id the student id
+     * @return the average, or 404 if the student does not exist
+     */
+    @GetMapping("/{id}/average")
+    @Timed("app.grade.average")
+    public ResponseEntity<StudentAverage> getAverage(@PathVariable Integer id) {
+        StudentGradeSummary summary = gradeSummaryService.find(id);
+        if (summary != null) {
+            return ResponseEntity.ok(new StudentAverage(id, summary.average(), summary.getGradeCount()));
+        }
+        if (!studentRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new StudentAverage(id, -1, 0));
     }
 
     @PostMapping
     public ResponseEntity<Student> createStudent(@RequestBody Student student) {
         Student saved = studentRepository.save(student);
-        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ConditionalRequests.etag(saved))
+                .body(saved);
     }
 
+    /**
+     * Replaces a student's names, username and email.
+     *
+     * <p>With an {@code If-Match} header the student is locked while the header is
+     * checked against its ETag, so a write that lost a race fails with 412 instead of
+     * overwriting the winner.
+     *
+     * @param id the student id
+     * @param update the new fields
+     * @param request the request, for its conditional headers
+     * @return the updated student and its new ETag, 404 if it does not exist, or 412
+     *     if it no longer matches {@code If-Match}
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Student> updateStudent(@PathVariable Integer id, @RequestBody Student update) {
-        return studentRepository.findById(id)
-                .map(existing -> {
-                    existing.setFirstName(update.getFirstName());
-                    existing.setLastName(update.getLastName());
-                    existing.setUsername(update.getUsername());
-                    existing.setEmail(update.getEmail());
-                    Student saved = studentRepository.save(existing);
-                    return ResponseEntity.ok(saved);
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    @Transactional
+    public ResponseEntity<Student> updateStudent(@PathVariable Integer id, @RequestBody Student update,
+            WebRequest request) {
+        boolean conditional = request.getHeader(HttpHeaders.IF_MATCH) != null;
+        Optional<Student> found = conditional
+                ? studentRepository.findForUpdateById(id) : studentRepository.findById(id);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Student existing = found.get();
+        if (conditional && request.checkNotModified(ConditionalRequests.etag(existing))) {
+            // checkNotModified has set 412 Precondition Failed
+            return null;
+        }
+        existing.setFirstName(update.getFirstName());
+        existing.setLastName(update.getLastName());
+        existing.setUsername(update.getUsername());
+        existing.setEmail(update.getEmail());
+        Student saved = studentRepository.save(existing);
+        return ResponseEntity.ok().eTag(ConditionalRequests.etag(saved)).body(saved);
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteStudent(@PathVariable Integer id) {
         if (studentRepository.existsById(id)) {
             studentRepository.deleteById(id);
+            gradeSummaryService.studentRemoved(id);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -0,0 +1,33 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * Outcome of a single row in a bulk write request.
+ *
+ * @param index the zero-based position of the row in the request
+ * @param status what happened to the row
+ * @param id the id of the created entity, or null if none was created
+ * @param message the reason the row was not created, or null
+ */
+public record BatchRowResult(int index, Status status, Object id, String message) {
+
+  /**
+   * Possible row outcomes.
+   */
+  public enum Status {
+    CREATED,
+    SKIPPED,
+    REJECTED
+  }
+
+  public static BatchRowResult created(int index, Object id) {
+    return new BatchRowResult(index, Status.CREATED, id, null);
+  }
+
+  public static BatchRowResult skipped(int index, String message) {
+    return new BatchRowResult(index, Status.SKIPPED, null, message);
+  }
+
+  public static BatchRowResult rejected(int index, String message) {
+    return new BatchRowResult(index, Status.REJECTED, null, message);
+  }
+}
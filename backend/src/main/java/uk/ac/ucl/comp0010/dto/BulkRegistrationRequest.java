@@ -0,0 +1,39 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Request body for enrolling many students into one or more modules.
+ *
+ * <p>Either {@code module_code} or {@code module_codes} (or both) may be given; every
+ * listed student is registered on every listed module.
+ *
+ * @param moduleCode a single module code
+ * @param moduleCodes several module codes
+ * @param studentIds the students to enrol
+ */
+public record BulkRegistrationRequest(
+    @JsonProperty("module_code") String moduleCode,
+    @JsonProperty("module_codes") List<String> moduleCodes,
+    @JsonProperty("student_ids") List<Integer> studentIds) {
+
+  /**
+   * Gets the distinct module codes named by the request.
+   *
+   * @return the module codes, in request order
+   */
+  public List<String> allModuleCodes() {
+    Set<String> codes = new LinkedHashSet<>();
+    if (moduleCode != null && !moduleCode.isBlank()) {
+      codes.add(moduleCode);
+    }
+    if (moduleCodes != null) {
+      moduleCodes.stream().filter(c -> c != null && !c.isBlank()).forEach(codes::add);
+    }
+    return new ArrayList<>(codes);
+  }
+}
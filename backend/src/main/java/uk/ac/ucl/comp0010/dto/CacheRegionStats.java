@@ -0,0 +1,21 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Effectiveness of one Hibernate second-level or query cache region.
+ *
+ * @param region the region name
+ * @param hits lookups answered from the cache
+ * @param misses lookups that went to the database
+ * @param puts entries written to the cache
+ * @param entries the entries currently held in memory, or -1 if the provider does not say
+ * @param hitRate hits as a fraction of all lookups, or 0 before the first lookup
+ */
+public record CacheRegionStats(
+    String region,
+    long hits,
+    long misses,
+    long puts,
+    long entries,
+    @JsonProperty("hit_rate") double hitRate) {}
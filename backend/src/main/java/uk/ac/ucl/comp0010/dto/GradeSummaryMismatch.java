@@ -0,0 +1,13 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * A student whose stored grade summary disagrees with the grade table.
+ *
+ * @param studentId the student id
+ * @param storedSum the sum held in the summary, or null if there is no summary row
+ * @param storedCount the count held in the summary, or null if there is no summary row
+ * @param actualSum the sum of the student's scores in the grade table
+ * @param actualCount the number of the student's scored grades in the grade table
+ */
+public record GradeSummaryMismatch(
+    Integer studentId, Long storedSum, Integer storedCount, long actualSum, int actualCount) {}
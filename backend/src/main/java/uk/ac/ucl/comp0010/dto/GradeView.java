@@ -0,0 +1,23 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A grade flattened for list responses, read straight from a join query.
+ *
+ * @param id the grade id
+ * @param score the score
+ * @param studentId the student id
+ * @param firstName the student's first name
+ * @param lastName the student's last name
+ * @param moduleCode the module code
+ * @param moduleName the module name
+ */
+public record GradeView(
+    Long id,
+    Integer score,
+    @JsonProperty("student_id") Integer studentId,
+    @JsonProperty("first_name") String firstName,
+    @JsonProperty("last_name") String lastName,
+    @JsonProperty("module_code") String moduleCode,
+    @JsonProperty("module_name") String moduleName) {}
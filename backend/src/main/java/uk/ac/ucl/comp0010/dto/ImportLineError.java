@@ -0,0 +1,9 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * A CSV line that was not imported.
+ *
+ * @param line the one-based line number in the file, counting the header
+ * @param message why the line was rejected
+ */
+public record ImportLineError(long line, String message) {}
@@ -0,0 +1,26 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Outcome of a bulk CSV import.
+ *
+ * @param entity what was imported: students, modules, registrations or grades
+ * @param rows the data rows read, not counting the header
+ * @param imported the rows written
+ * @param rejected the rows not written
+ * @param elapsedMillis the time taken, in milliseconds
+ * @param rowsPerSecond rows read per second
+ * @param errors why each rejected row was rejected, in file order, up to a limit
+ * @param errorsTruncated whether more rows were rejected than are listed
+ */
+public record ImportReport(
+    String entity,
+    long rows,
+    long imported,
+    long rejected,
+    @JsonProperty("elapsed_ms") long elapsedMillis,
+    @JsonProperty("rows_per_second") long rowsPerSecond,
+    List<ImportLineError> errors,
+    @JsonProperty("errors_truncated") boolean errorsTruncated) {}
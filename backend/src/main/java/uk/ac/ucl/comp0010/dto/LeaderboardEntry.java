@@ -0,0 +1,15 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One place on a module's leaderboard.
+ *
+ * @param rank one more than the number of students with a higher score, so ties share a rank
+ * @param studentId the student id
+ * @param score the student's score in the module
+ */
+public record LeaderboardEntry(
+    int rank,
+    @JsonProperty("student_id") Integer studentId,
+    int score) {}
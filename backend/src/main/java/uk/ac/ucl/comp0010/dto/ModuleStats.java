@@ -0,0 +1,31 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Score statistics for one module.
+ *
+ * <p>The statistics other than the count and histogram are null when the module has
+ * no graded students.
+ *
+ * @param moduleCode the module code
+ * @param gradeCount the number of grades
+ * @param mean the mean score
+ * @param median the median score
+ * @param min the lowest score
+ * @param max the highest score
+ * @param stddev the population standard deviation of the scores
+ * @param passRate the fraction of scores at or above the pass mark
+ * @param histogram grade counts in ten buckets: [0, 10), [10, 20), ..., [90, 100]
+ */
+public record ModuleStats(
+    @JsonProperty("module_code") String moduleCode,
+    @JsonProperty("grade_count") long gradeCount,
+    Double mean,
+    Double median,
+    Integer min,
+    Integer max,
+    Double stddev,
+    @JsonProperty("pass_rate") Double passRate,
+    List<Long> histogram) {}
@@ -0,0 +1,23 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Size and effectiveness of the in-memory registration index.
+ *
+ * @param loaded whether the startup load has completed
+ * @param modules the number of modules with at least one indexed registration
+ * @param registrations the number of indexed registrations
+ * @param sizeInBytes the serialized size of the bitmaps, a close bound on their heap use
+ * @param hits lookups answered from the index
+ * @param misses lookups that fell back to the database
+ * @param hitRate hits as a fraction of all lookups, or 0 before the first lookup
+ */
+public record RegistrationIndexStats(
+    boolean loaded,
+    int modules,
+    long registrations,
+    @JsonProperty("size_in_bytes") long sizeInBytes,
+    long hits,
+    long misses,
+    @JsonProperty("hit_rate") double hitRate) {}
@@ -0,0 +1,20 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import uk.ac.ucl.comp0010.dto.BatchRowResult.Status;
+
+/**
+ * Outcome of one (student, module) pair in a bulk registration.
+ *
+ * @param studentId the student id
+ * @param moduleCode the module code
+ * @param status what happened to the pair
+ * @param id the id of the created registration, or null if none was created
+ * @param message the reason the pair was not created, or null
+ */
+public record RegistrationRowResult(
+    @JsonProperty("student_id") Integer studentId,
+    @JsonProperty("module_code") String moduleCode,
+    Status status,
+    Integer id,
+    String message) {}
@@ -0,0 +1,23 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A registration flattened for list responses, read straight from a join query.
+ *
+ * @param id the registration id
+ * @param studentId the student id
+ * @param firstName the student's first name
+ * @param lastName the student's last name
+ * @param moduleCode the module code
+ * @param moduleName the module name
+ * @param mnc the module's mnc flag
+ */
+public record RegistrationView(
+    Integer id,
+    @JsonProperty("student_id") Integer studentId,
+    @JsonProperty("first_name") String firstName,
+    @JsonProperty("last_name") String lastName,
+    @JsonProperty("module_code") String moduleCode,
+    @JsonProperty("module_name") String moduleName,
+    Boolean mnc) {}
@@ -0,0 +1,23 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of writing or restoring a snapshot.
+ *
+ * @param name the snapshot file name
+ * @param sizeBytes the size of the file, in bytes
+ * @param modules the module rows written or restored
+ * @param students the student rows written or restored
+ * @param registrations the registration rows written or restored
+ * @param grades the grade rows written or restored
+ * @param elapsedMillis the time taken, in milliseconds
+ */
+public record SnapshotReport(
+    String name,
+    @JsonProperty("size_bytes") long sizeBytes,
+    long modules,
+    long students,
+    long registrations,
+    long grades,
+    @JsonProperty("elapsed_ms") long elapsedMillis) {}
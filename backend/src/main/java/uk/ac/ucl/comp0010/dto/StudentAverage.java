@@ -0,0 +1,15 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A student's average score.
+ *
+ * @param studentId the student id
+ * @param average the average score, or -1 if the student has no grades
+ * @param gradeCount the number of grades averaged
+ */
+public record StudentAverage(
+    @JsonProperty("student_id") Integer studentId,
+    double average,
+    @JsonProperty("grade_count") int gradeCount) {}
@@ -0,0 +1,19 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A student's standing in one module.
+ *
+ * @param moduleCode the module code
+ * @param studentId the student id
+ * @param score the student's score in the module
+ * @param rank one more than the number of students with a higher score
+ * @param graded the number of graded students in the module
+ */
+public record StudentRank(
+    @JsonProperty("module_code") String moduleCode,
+    @JsonProperty("student_id") Integer studentId,
+    int score,
+    int rank,
+    int graded) {}
@@ -0,0 +1,23 @@
+package uk.ac.ucl.comp0010.events;
+
+/**
+ * A committed change to grades, delivered to {@link DomainEventConsumer}s by the
+ * {@link DomainEventPipeline}.
+ */
+public sealed interface DomainEvent
+    permits GradeRecorded, GradeChanged, GradeRemoved {
+
+  /**
+   * Gets the student the change concerns.
+   *
+   * @return the student id
+   */
+  Integer studentId();
+
+  /**
+   * Gets the module the change concerns.
+   *
+   * @return the module code
+   */
+  String moduleCode();
+}
@@ -0,0 +1,26 @@
+package uk.ac.ucl.comp0010.events;
+
+import java.util.List;
+
+/**
+ * Maintains derived data from committed {@link DomainEvent}s.
+ *
+ * <p>Every consumer bean is called by the pipeline's single worker thread, in commit
+ * order, with batches of events. Applying an event twice must be harmless, because a
+ * {@link #resync()} may already reflect events that are delivered after it.
+ */
+public interface DomainEventConsumer {
+
+  /**
+   * Applies a batch of committed events.
+   *
+   * @param events the events, oldest first
+   */
+  void consume(List<DomainEvent> events);
+
+  /**
+   * Rebuilds the derived data from the database, after events were dropped under
+   * backpressure or {@link #consume} failed.
+   */
+  void resync();
+}
@@ -0,0 +1,300 @@
+package uk.ac.ucl.comp0010.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Delivers committed {@link DomainEvent}s to every {@link DomainEventConsumer} off the
+ * request thread.
+ *
+ * <p>Events are queued once their transaction commits, in a bounded queue drained by a
+ * single worker in batches of up to {@link #BATCH_SIZE}. When the queue is full a
+ * committing thread waits up to {@link #OFFER_TIMEOUT} for space; if there is still none
+ * the event is dropped and every consumer is resynced from the database instead. On
+ * shutdown the worker drains the queue before the application context closes.
+ *
+ * <p>Published metrics: {@code app.events.queue.depth}, {@code app.events.lag} (commit to
+ * delivery), {@code app.events.batch.size}, {@code app.events.published} by type,
+ * {@code app.events.dropped} and {@code app.events.failed}.
+ */
+@Component
+public class DomainEventPipeline implements SmartLifecycle {
+
+  /** The most events that may wait for delivery. */
+  static final int CAPACITY = 10_000;
+
+  /** The most events handed to a consumer at once. */
+  static final int BATCH_SIZE = 500;
+
+  /** How long a committing thread waits for space in a full queue. */
+  static final Duration OFFER_TIMEOUT = Duration.ofSeconds(1);
+
+  /** How long shutdown waits for the queue to drain. */
+  static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+  private static final Logger log = LoggerFactory.getLogger(DomainEventPipeline.class);
+
+  private static final long POLL_MILLIS = 100;
+
+  private final List<DomainEventConsumer> consumers;
+  private final BlockingQueue<Queued> queue;
+  private final int batchSize;
+  private final Duration offerTimeout;
+
+  private final Map<Class<?>, Counter> published = new HashMap<>();
+  private final Counter dropped;
+  private final Counter failed;
+  private final Timer lag;
+  private final DistributionSummary batches;
+
+  /** Events queued or being delivered. */
+  private final AtomicLong pending = new AtomicLong();
+  private final AtomicBoolean resyncRequested = new AtomicBoolean();
+  private volatile boolean resyncing;
+  private final Object idle = new Object();
+
+  private volatile boolean running;
+  private Thread worker;
+
+  /**
+   * Constructor for DomainEventPipeline.
+   *
+   * @param consumers the event consumers
+   * @param registry the meter registry
+   */
+  @Autowired
+  public DomainEventPipeline(ObjectProvider<DomainEventConsumer> consumers,
+      MeterRegistry registry) {
+    this(consumers.orderedStream().toList(), registry, CAPACITY, BATCH_SIZE, OFFER_TIMEOUT);
+  }
+
+  DomainEventPipeline(List<DomainEventConsumer> consumers, MeterRegistry registry,
+      int capacity, int batchSize, Duration offerTimeout) {
+    this.consumers = List.copyOf(consumers);
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.batchSize = batchSize;
+    this.offerTimeout = offerTimeout;
+
+    for (Class<?> type : DomainEvent.class.getPermittedSubclasses()) {
+      published.put(type, Counter.builder("app.events.published")
+          .description("Committed domain events queued for delivery")
+          .tag("type", type.getSimpleName())
+          .register(registry));
+    }
+    Gauge.builder("app.events.queue.depth", queue, BlockingQueue::size)
+        .description("Domain events waiting for delivery")
+        .register(registry);
+    dropped = Counter.builder("app.events.dropped")
+        .description("Domain events dropped because the queue stayed full")
+        .register(registry);
+    failed = Counter.builder("app.events.failed")
+        .description("Batches a consumer failed to apply")
+        .register(registry);
+    lag = Timer.builder("app.events.lag")
+        .description("Time from commit to delivery")
+        .publishPercentileHistogram()
+        .register(registry);
+    batches = DistributionSummary.builder("app.events.batch.size")
+        .description("Events delivered per batch")
+        .register(registry);
+  }
+
+  /**
+   * Queues an event once the transaction that published it commits, or at once if it
+   * was published outside a transaction.
+   *
+   * @param event the event
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void enqueue(DomainEvent event) {
+    pending.incrementAndGet();
+    boolean queued;
+    try {
+      queued = queue.offer(new Queued(event, System.nanoTime()),
+          offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      queued = false;
+    }
+    if (queued) {
+      published.get(event.getClass()).increment();
+    } else {
+      dropped.increment();
+      resyncRequested.set(true);
+      done(1);
+    }
+  }
+
+  /**
+   * Rebuilds every consumer from the database on the worker, for example after tables
+   * were loaded in bulk without publishing events.
+   */
+  public void requestResync() {
+    resyncRequested.set(true);
+  }
+
+  /**
+   * Waits until every queued event has been delivered.
+   *
+   * @param timeout the longest time to wait
+   * @return true if the queue drained in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitIdle(Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    synchronized (idle) {
+      while (!isIdle()) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    worker = new Thread(this::run, "domain-events");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (worker == null) {
+      return;
+    }
+    try {
+      worker.join(SHUTDOWN_TIMEOUT.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (worker.isAlive()) {
+      log.warn("Domain event queue did not drain within {}; {} events undelivered",
+          SHUTDOWN_TIMEOUT, queue.size());
+      worker.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Starts before, and stops after, the web server, so requests still being served
+   * during a graceful shutdown have their events delivered.
+   */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void run() {
+    List<Queued> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty() || resyncRequested.get()) {
+      try {
+        if (resyncRequested.get()) {
+          resyncing = true;
+          resyncRequested.set(false);
+          resync();
+          resyncing = false;
+          continue;
+        }
+        Queued first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        deliver(batch);
+      } catch (InterruptedException e) {
+        return;
+      } finally {
+        done(batch.size());
+        batch.clear();
+      }
+    }
+  }
+
+  private void deliver(List<Queued> batch) {
+    long now = System.nanoTime();
+    List<DomainEvent> events = new ArrayList<>(batch.size());
+    for (Queued queued : batch) {
+      events.add(queued.event());
+      lag.record(now - queued.enqueuedAt(), TimeUnit.NANOSECONDS);
+    }
+    batches.record(events.size());
+    List<DomainEvent> view = Collections.unmodifiableList(events);
+    for (DomainEventConsumer consumer : consumers) {
+      try {
+        consumer.consume(view);
+      } catch (RuntimeException e) {
+        failed.increment();
+        log.error("{} failed to apply {} events; resyncing it", consumer.getClass().getName(),
+            view.size(), e);
+        resync(consumer);
+      }
+    }
+  }
+
+  /**
+   * Discards the queue and rebuilds every consumer. Everything queued committed before
+   * the rebuild reads the database, so the rebuild already reflects it.
+   */
+  private void resync() {
+    List<Queued> discarded = new ArrayList<>();
+    queue.drainTo(discarded);
+    done(discarded.size());
+    consumers.forEach(this::resync);
+  }
+
+  private void resync(DomainEventConsumer consumer) {
+    try {
+      consumer.resync();
+    } catch (RuntimeException e) {
+      log.error("{} failed to resync", consumer.getClass().getName(), e);
+    }
+  }
+
+  private boolean isIdle() {
+    return pending.get() == 0 && !resyncRequested.get() && !resyncing;
+  }
+
+  private void done(int events) {
+    pending.addAndGet(-events);
+    if (isIdle()) {
+      synchronized (idle) {
+        idle.notifyAll();
+      }
+    }
+  }
+
+  private record Queued(DomainEvent event, long enqueuedAt) {}
+}
@@ -0,0 +1,12 @@
+package uk.ac.ucl.comp0010.events;
+
+/**
+ * A grade's score was changed.
+ *
+ * @param gradeId the grade id
+ * @param studentId the student id
+ * @param moduleCode the module code
+ * @param score the new score, or null if it was cleared
+ */
+public record GradeChanged(Long gradeId, Integer studentId, String moduleCode, Integer score)
+    implements DomainEvent {}
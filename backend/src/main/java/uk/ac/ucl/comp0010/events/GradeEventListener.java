@@ -0,0 +1,49 @@
+package uk.ac.ucl.comp0010.events;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import uk.ac.ucl.comp0010.model.Grade;
+
+/**
+ * JPA entity listener that publishes a {@link DomainEvent} for every grade persisted,
+ * re-scored or removed through the entity manager, whether by the grade endpoints,
+ * {@code StudentService}, a batch or a cascade from deleting a student.
+ *
+ * <p>Instantiated by Hibernate through Spring's bean container. The events are queued
+ * only once the transaction commits (see {@link DomainEventPipeline#enqueue}).
+ */
+public class GradeEventListener {
+
+  private final ApplicationEventPublisher publisher;
+
+  /**
+   * Constructor for GradeEventListener.
+   *
+   * @param publisher the application event publisher
+   */
+  public GradeEventListener(ApplicationEventPublisher publisher) {
+    this.publisher = publisher;
+  }
+
+  @PostPersist
+  void persisted(Grade grade) {
+    publisher.publishEvent(new GradeRecorded(grade.getId(),
+        grade.getStudent().getId(), grade.getModule().getCode(), grade.getScore()));
+  }
+
+  @PostUpdate
+  void updated(Grade grade) {
+    publisher.publishEvent(new GradeChanged(grade.getId(),
+        grade.getStudent().getId(), grade.getModule().getCode(), grade.getScore()));
+  }
+
+  @PostRemove
+  void removed(Grade grade) {
+    publisher.publishEvent(new GradeRemoved(grade.getId(),
+        grade.getStudent().getId(), grade.getModule().getCode()));
+  }
+}
@@ -0,0 +1,12 @@
+package uk.ac.ucl.comp0010.events;
+
+/**
+ * A new grade was committed.
+ *
+ * @param gradeId the grade id
+ * @param studentId the student id
+ * @param moduleCode the module code
+ * @param score the score, or null if the grade has none yet
+ */
+public record GradeRecorded(Long gradeId, Integer studentId, String moduleCode, Integer score)
+    implements DomainEvent {}
@@ -0,0 +1,11 @@
+package uk.ac.ucl.comp0010.events;
+
+/**
+ * A grade was deleted, on its own or with its student.
+ *
+ * @param gradeId the grade id
+ * @param studentId the student id
+ * @param moduleCode the module code
+ */
+public record GradeRemoved(Long gradeId, Integer studentId, String moduleCode)
+    implements DomainEvent {}
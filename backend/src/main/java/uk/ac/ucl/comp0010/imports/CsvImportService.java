@@ -0,0 +1,710 @@
+package uk.ac.ucl.comp0010.imports;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import uk.ac.ucl.comp0010.dto.ImportLineError;
+import uk.ac.ucl.comp0010.dto.ImportReport;
+import uk.ac.ucl.comp0010.events.GradeRecorded;
+import uk.ac.ucl.comp0010.imports.CsvReader.MalformedCsvException;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+import uk.ac.ucl.comp0010.service.SecondLevelCache;
+import uk.ac.ucl.comp0010.service.StudentSearchIndex;
+import uk.ac.ucl.comp0010.service.TableVersions;
+import uk.ac.ucl.comp0010.service.TableVersions.Table;
+
+/**
+ * Imports students, modules, registrations or grades from CSV.
+ *
+ * <p>The input is parsed as a stream and handled in chunks of {@link #CHUNK_SIZE} rows,
+ * so memory use does not depend on its size. Each chunk is checked against the database
+ * with one set-based query per referenced table, then its valid rows are written in one
+ * JDBC batch and one transaction. The columns are those of the matching export; extra
+ * columns, such as the id of an exported grade, are ignored. A row that fails a check
+ * is reported with its line number and the rest are still imported.
+ *
+ * <p>Rows go straight to the tables, so the derived data that JPA writes would keep in
+ * step is updated here instead: grade summaries in the same transaction, and the
+ * registration index, student search index, table versions and domain events once each
+ * chunk commits. Progress is logged
+ * every {@link #PROGRESS_INTERVAL} rows and row counts are published as
+ * {@code app.import.rows}.
+ */
+@Service
+public class CsvImportService {
+
+  /** Rows checked and written per transaction. */
+  static final int CHUNK_SIZE = 5000;
+
+  /** The most rejected rows listed in a report. */
+  static final int MAX_ERRORS = 1000;
+
+  /** Rows read between progress log lines. */
+  static final long PROGRESS_INTERVAL = 100_000;
+
+  /** Ids per sequence value; keep in step with the allocationSize of Grade and Registration. */
+  static final int ID_BLOCK = 50;
+
+  private static final Logger log = LoggerFactory.getLogger(CsvImportService.class);
+
+  private static final String INSERT_STUDENT =
+      "INSERT INTO student (id, first_name, last_name, username, email) VALUES (?, ?, ?, ?, ?)";
+  private static final String INSERT_MODULE =
+      "INSERT INTO module (code, name, mnc) VALUES (?, ?, ?)";
+  private static final String INSERT_REGISTRATION =
+      "INSERT INTO registration (id, student_id, module_code) VALUES (?, ?, ?)";
+  private static final String INSERT_GRADE =
+      "INSERT INTO grade (id, score, student_id, module_code) VALUES (?, ?, ?, ?)";
+
+  /**
+   * What a CSV file holds. Import modules and students before the registrations and
+   * grades that refer to them.
+   */
+  public enum Kind {
+    MODULES("code"),
+    STUDENTS("id"),
+    REGISTRATIONS("student_id", "module_code"),
+    GRADES("student_id", "module_code", "score");
+
+    private final List<String> required;
+
+    Kind(String... required) {
+      this.required = List.of(required);
+    }
+
+    /**
+     * Parses a kind name, ignoring case.
+     *
+     * @param name the kind name
+     * @return the kind
+     * @throws IllegalArgumentException if the name is not a supported kind
+     */
+    public static Kind from(String name) {
+      try {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException | NullPointerException e) {
+        throw new IllegalArgumentException("Unsupported import: " + name);
+      }
+    }
+
+    String label() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private final TransactionTemplate transactionTemplate;
+  private final JdbcTemplate jdbcTemplate;
+  private final ApplicationEventPublisher publisher;
+  private final GradeSummaryService gradeSummaryService;
+  private final RegistrationIndex registrationIndex;
+  private final SecondLevelCache secondLevelCache;
+  private final StudentSearchIndex studentSearchIndex;
+  private final TableVersions tableVersions;
+
+  private final Map<Kind, Counter> importedRows = new EnumMap<>(Kind.class);
+  private final Map<Kind, Counter> rejectedRows = new EnumMap<>(Kind.class);
+
+  /**
+   * Constructor for CsvImportService.
+   *
+   * @param transactionManager the transaction manager
+   * @param jdbcTemplate the JDBC template
+   * @param publisher publishes the domain events of imported grades
+   * @param gradeSummaryService the per-student grade summary service
+   * @param registrationIndex the in-memory registration index
+   * @param secondLevelCache the Hibernate second-level cache
+   * @param studentSearchIndex the in-memory student search index
+   * @param tableVersions the per-table write versions
+   * @param registry the meter registry
+   */
+  public CsvImportService(PlatformTransactionManager transactionManager,
+      JdbcTemplate jdbcTemplate,
+      ApplicationEventPublisher publisher,
+      GradeSummaryService gradeSummaryService,
+      RegistrationIndex registrationIndex,
+      SecondLevelCache secondLevelCache,
+      StudentSearchIndex studentSearchIndex,
+      TableVersions tableVersions,
+      MeterRegistry registry) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.jdbcTemplate = jdbcTemplate;
+    this.publisher = publisher;
+    this.gradeSummaryService = gradeSummaryService;
+    this.registrationIndex = registrationIndex;
+    this.secondLevelCache = secondLevelCache;
+    this.studentSearchIndex = studentSearchIndex;
+    this.tableVersions = tableVersions;
+    for (Kind kind : Kind.values()) {
+      importedRows.put(kind, rowCounter(registry, kind, "imported"));
+      rejectedRows.put(kind, rowCounter(registry, kind, "rejected"));
+    }
+  }
+
+  private static Counter rowCounter(MeterRegistry registry, Kind kind, String outcome) {
+    return Counter.builder("app.import.rows")
+        .description("CSV rows imported or rejected")
+        .tag("entity", kind.label())
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
+  /**
+   * Imports a UTF-8 CSV stream.
+   *
+   * @param kind what the CSV holds
+   * @param in the CSV, header first; not closed
+   * @return what was imported and why any rows were rejected
+   * @throws IllegalArgumentException if the CSV is empty or lacks a required column
+   * @throws IOException if the stream cannot be read
+   */
+  public ImportReport importCsv(Kind kind, InputStream in) throws IOException {
+    return importCsv(kind, new InputStreamReader(in, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Imports a UTF-8 CSV file.
+   *
+   * @param kind what the file holds
+   * @param file the file, header first
+   * @return what was imported and why any rows were rejected
+   * @throws IllegalArgumentException if the file is empty or lacks a required column
+   * @throws IOException if the file cannot be read
+   */
+  public ImportReport importCsv(Kind kind, Path file) throws IOException {
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return importCsv(kind, reader);
+    }
+  }
+
+  private ImportReport importCsv(Kind kind, Reader reader) throws IOException {
+    CsvReader csv = new CsvReader(reader);
+    String[] header = csv.next();
+    if (header == null) {
+      throw new IllegalArgumentException("The CSV has no header line");
+    }
+    Columns columns = Columns.of(kind, header);
+    Progress progress = new Progress(kind);
+    List<Line> chunk = new ArrayList<>(CHUNK_SIZE);
+    try {
+      for (String[] fields = csv.next(); fields != null; fields = csv.next()) {
+        chunk.add(new Line(csv.lineNumber(), fields));
+        if (chunk.size() == CHUNK_SIZE) {
+          importChunk(kind, columns, chunk, progress);
+          chunk.clear();
+        }
+      }
+    } catch (MalformedCsvException e) {
+      importChunk(kind, columns, chunk, progress);
+      chunk.clear();
+      // Nothing after an unclosed quote can be split into rows
+      Chunk malformed = new Chunk();
+      malformed.errors.add(new ImportLineError(e.line(), e.getMessage()));
+      progress.add(1, malformed);
+    }
+    importChunk(kind, columns, chunk, progress);
+    if (kind == Kind.MODULES || kind == Kind.STUDENTS) {
+      // The cached module list no longer matches the table
+      secondLevelCache.evictAll();
+    }
+    return progress.finish();
+  }
+
+  private void importChunk(Kind kind, Columns columns, List<Line> chunk, Progress progress) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    Chunk result;
+    try {
+      result = write(kind, columns, chunk);
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent write took a row between the checks and the insert; checking
+      // again will see it
+      try {
+        result = write(kind, columns, chunk);
+      } catch (DataAccessException retryFailure) {
+        result = Chunk.failed(chunk, retryFailure);
+      }
+    } catch (DataAccessException e) {
+      result = Chunk.failed(chunk, e);
+    }
+    progress.add(chunk.size(), result);
+  }
+
+  private Chunk write(Kind kind, Columns columns, List<Line> chunk) {
+    return transactionTemplate.execute(status -> switch (kind) {
+      case MODULES -> writeModules(columns, chunk);
+      case STUDENTS -> writeStudents(columns, chunk);
+      case REGISTRATIONS -> writeRegistrations(columns, chunk);
+      case GRADES -> writeGrades(columns, chunk);
+    });
+  }
+
+  private Chunk writeModules(Columns columns, List<Line> chunk) {
+    Chunk result = new Chunk();
+    Map<Line, Object[]> rows = new HashMap<>();
+    for (Line line : chunk) {
+      try {
+        rows.put(line, new Object[] {
+            columns.text(line, "code", 10, true),
+            columns.text(line, "name", 100, false),
+            columns.bool(line, "mnc")});
+      } catch (IllegalArgumentException e) {
+        result.reject(line, e.getMessage());
+      }
+    }
+    Set<String> existing = existing("SELECT code FROM module WHERE code = ANY(?)", "VARCHAR",
+        rows.values().stream().map(row -> row[0]).toList());
+    List<Object[]> inserts = new ArrayList<>(rows.size());
+    for (Line line : chunk) {
+      Object[] row = rows.get(line);
+      if (row == null) {
+        continue;
+      }
+      if (!existing.add((String) row[0])) {
+        result.reject(line, "Module already exists");
+      } else {
+        inserts.add(row);
+      }
+    }
+    jdbcTemplate.batchUpdate(INSERT_MODULE, inserts);
+    tableVersions.changed(Table.MODULE);
+    result.imported = inserts.size();
+    return result;
+  }
+
+  private Chunk writeStudents(Columns columns, List<Line> chunk) {
+    Chunk result = new Chunk();
+    Map<Line, Object[]> rows = new HashMap<>();
+    for (Line line : chunk) {
+      try {
+        rows.put(line, new Object[] {
+            columns.integer(line, "id"),
+            columns.text(line, "first_name", 30, false),
+            columns.text(line, "last_name", 30, false),
+            columns.text(line, "username", 30, false),
+            columns.text(line, "email", 50, false)});
+      } catch (IllegalArgumentException e) {
+        result.reject(line, e.getMessage());
+      }
+    }
+    Set<Integer> existing = existing("SELECT id FROM student WHERE id = ANY(?)", "INTEGER",
+        rows.values().stream().map(row -> row[0]).toList());
+    Set<String> usernames = existing("SELECT username FROM student WHERE username = ANY(?)",
+        "VARCHAR", rows.values().stream().map(row -> row[3]).filter(v -> v != null).toList());
+    Set<String> emails = existing("SELECT email FROM student WHERE email = ANY(?)", "VARCHAR",
+        rows.values().stream().map(row -> row[4]).filter(v -> v != null).toList());
+    List<Object[]> inserts = new ArrayList<>(rows.size());
+    List<Student> students = new ArrayList<>(rows.size());
+    for (Line line : chunk) {
+      Object[] row = rows.get(line);
+      if (row == null) {
+        continue;
+      }
+      if (existing.contains((Integer) row[0])) {
+        result.reject(line, "Student already exists");
+      } else if (row[3] != null && usernames.contains((String) row[3])) {
+        result.reject(line, "Username is already taken");
+      } else if (row[4] != null && emails.contains((String) row[4])) {
+        result.reject(line, "Email is already taken");
+      } else {
+        existing.add((Integer) row[0]);
+        usernames.add((String) row[3]);
+        emails.add((String) row[4]);
+        inserts.add(row);
+        students.add(new Student((Integer) row[0], (String) row[1], (String) row[2],
+            (String) row[3], (String) row[4]));
+      }
+    }
+    jdbcTemplate.batchUpdate(INSERT_STUDENT, inserts);
+    studentSearchIndex.savedAll(students);
+    tableVersions.changed(Table.STUDENT);
+    result.imported = inserts.size();
+    return result;
+  }
+
+  private Chunk writeRegistrations(Columns columns, List<Line> chunk) {
+    Chunk result = new Chunk();
+    Map<Line, Pair> rows = parsePairs(columns, chunk, result, false);
+    References references = references(rows.values(), "registration");
+    List<Pair> accepted = new ArrayList<>(rows.size());
+    for (Line line : chunk) {
+      Pair pair = rows.get(line);
+      if (pair == null) {
+        continue;
+      }
+      String problem = references.problem(pair);
+      if (problem == null && !references.existing.add(pair)) {
+        problem = "Student is already registered for this module";
+      }
+      if (problem != null) {
+        result.reject(line, problem);
+      } else {
+        accepted.add(pair);
+      }
+    }
+
+    long[] ids = allocateIds("registration_seq", accepted.size());
+    List<Object[]> inserts = new ArrayList<>(accepted.size());
+    for (int i = 0; i < accepted.size(); i++) {
+      Pair pair = accepted.get(i);
+      inserts.add(new Object[] {(int) ids[i], pair.studentId(), pair.moduleCode()});
+    }
+    jdbcTemplate.batchUpdate(INSERT_REGISTRATION, inserts);
+    Map<String, List<Integer>> studentsByModule = new HashMap<>();
+    for (Pair pair : accepted) {
+      studentsByModule.computeIfAbsent(pair.moduleCode(), code -> new ArrayList<>())
+          .add(pair.studentId());
+    }
+    registrationIndex.addedAll(studentsByModule);
+    result.imported = accepted.size();
+    return result;
+  }
+
+  private Chunk writeGrades(Columns columns, List<Line> chunk) {
+    Chunk result = new Chunk();
+    Map<Line, Pair> rows = parsePairs(columns, chunk, result, true);
+    References references = references(rows.values(), "grade");
+    Set<Pair> registered = pairs("registration", rows.values());
+    List<Pair> accepted = new ArrayList<>(rows.size());
+    for (Line line : chunk) {
+      Pair pair = rows.get(line);
+      if (pair == null) {
+        continue;
+      }
+      String problem = references.problem(pair);
+      if (problem == null && !registered.contains(pair)) {
+        problem = "Student must be registered for this module before receiving a grade";
+      } else if (problem == null && !references.existing.add(pair)) {
+        problem = "Student already has a grade for this module";
+      }
+      if (problem != null) {
+        result.reject(line, problem);
+      } else {
+        accepted.add(pair);
+      }
+    }
+
+    long[] ids = allocateIds("grade_seq", accepted.size());
+    List<Object[]> inserts = new ArrayList<>(accepted.size());
+    Map<Integer, long[]> totals = new HashMap<>();
+    for (int i = 0; i < accepted.size(); i++) {
+      Pair pair = accepted.get(i);
+      inserts.add(new Object[] {ids[i], pair.score(), pair.studentId(), pair.moduleCode()});
+      long[] total = totals.computeIfAbsent(pair.studentId(), id -> new long[2]);
+      total[0] += pair.score();
+      total[1]++;
+    }
+    jdbcTemplate.batchUpdate(INSERT_GRADE, inserts);
+    gradeSummaryService.gradesAdded(totals);
+    tableVersions.changed(Table.GRADE);
+    for (int i = 0; i < accepted.size(); i++) {
+      Pair pair = accepted.get(i);
+      publisher.publishEvent(
+          new GradeRecorded(ids[i], pair.studentId(), pair.moduleCode(), pair.score()));
+    }
+    result.imported = accepted.size();
+    return result;
+  }
+
+  private static Map<Line, Pair> parsePairs(Columns columns, List<Line> chunk, Chunk result,
+      boolean scored) {
+    Map<Line, Pair> rows = new HashMap<>();
+    for (Line line : chunk) {
+      try {
+        Integer studentId = columns.integer(line, "student_id");
+        String moduleCode = columns.text(line, "module_code", 10, true);
+        Integer score = null;
+        if (scored) {
+          score = columns.integer(line, "score");
+          if (score < 0 || score > 100) {
+            throw new IllegalArgumentException("Score must be between 0 and 100");
+          }
+        }
+        rows.put(line, new Pair(studentId, moduleCode, score));
+      } catch (IllegalArgumentException e) {
+        result.reject(line, e.getMessage());
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Looks up the students and modules a chunk refers to, and its pairs already in the
+   * given table.
+   */
+  private References references(Collection<Pair> pairs, String table) {
+    Set<Integer> students = existing("SELECT id FROM student WHERE id = ANY(?)", "INTEGER",
+        pairs.stream().map(Pair::studentId).distinct().toList());
+    Set<String> modules = existing("SELECT code FROM module WHERE code = ANY(?)", "VARCHAR",
+        pairs.stream().map(Pair::moduleCode).distinct().toList());
+    return new References(students, modules, pairs(table, pairs));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Set<T> existing(String sql, String type, List<?> values) {
+    Set<T> found = new HashSet<>();
+    if (!values.isEmpty()) {
+      jdbcTemplate.query(sql,
+          ps -> ps.setArray(1, ps.getConnection().createArrayOf(type, values.toArray())),
+          rs -> {
+            found.add((T) rs.getObject(1));
+          });
+    }
+    return found;
+  }
+
+  /**
+   * Finds which of the given (student, module) pairs are already in a table.
+   */
+  private Set<Pair> pairs(String table, Collection<Pair> candidates) {
+    Set<Pair> found = new HashSet<>();
+    if (candidates.isEmpty()) {
+      return found;
+    }
+    Object[] studentIds = candidates.stream().map(Pair::studentId).distinct().toArray();
+    Object[] moduleCodes = candidates.stream().map(Pair::moduleCode).distinct().toArray();
+    jdbcTemplate.query("SELECT student_id, module_code FROM " + table
+            + " WHERE student_id = ANY(?) AND module_code = ANY(?)",
+        (PreparedStatement ps) -> {
+          ps.setArray(1, ps.getConnection().createArrayOf("INTEGER", studentIds));
+          ps.setArray(2, ps.getConnection().createArrayOf("VARCHAR", moduleCodes));
+        },
+        rs -> {
+          found.add(new Pair(rs.getInt(1), rs.getString(2), null));
+        });
+    return found;
+  }
+
+  /**
+   * Takes ids from a sequence in the blocks Hibernate's pooled optimizer uses, so they
+   * never collide with ids it hands out: each value v reserves v - ID_BLOCK + 1 to v.
+   */
+  private long[] allocateIds(String sequence, int count) {
+    long[] ids = new long[count];
+    int n = 0;
+    while (n < count) {
+      int blocks = (count - n + ID_BLOCK - 1) / ID_BLOCK;
+      List<Long> highs = jdbcTemplate.queryForList(
+          "SELECT NEXT VALUE FOR " + sequence + " FROM SYSTEM_RANGE(1, ?)", Long.class, blocks);
+      for (long high : highs) {
+        // The first value of a new sequence is 1, which reserves only itself
+        for (long id = Math.max(1, high - ID_BLOCK + 1); id <= high && n < count; id++) {
+          ids[n++] = id;
+        }
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * A data line of the CSV, compared by identity.
+   */
+  private static final class Line {
+    private final long number;
+    private final String[] fields;
+
+    Line(long number, String[] fields) {
+      this.number = number;
+      this.fields = fields;
+    }
+  }
+
+  /**
+   * A (student, module) pair and, for grades, the score; equal by student and module.
+   */
+  private record Pair(Integer studentId, String moduleCode, Integer score) {
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Pair other && studentId.equals(other.studentId)
+          && moduleCode.equals(other.moduleCode);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * studentId.hashCode() + moduleCode.hashCode();
+    }
+  }
+
+  /**
+   * The existing students, modules and pairs a chunk refers to.
+   */
+  private record References(Set<Integer> students, Set<String> modules, Set<Pair> existing) {
+
+    String problem(Pair pair) {
+      if (!students.contains(pair.studentId())) {
+        return "Student not found";
+      }
+      if (!modules.contains(pair.moduleCode())) {
+        return "Module not found";
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Positions of the columns an import reads.
+   */
+  private record Columns(Map<String, Integer> positions) {
+
+    static Columns of(Kind kind, String[] header) {
+      Map<String, Integer> positions = new HashMap<>();
+      for (int i = 0; i < header.length; i++) {
+        positions.putIfAbsent(header[i].trim().toLowerCase(Locale.ROOT), i);
+      }
+      for (String column : kind.required) {
+        if (!positions.containsKey(column)) {
+          throw new IllegalArgumentException("The CSV has no " + column + " column");
+        }
+      }
+      return new Columns(positions);
+    }
+
+    /** Gets a trimmed field, or null if it is empty or the line is too short. */
+    String get(Line line, String column) {
+      Integer position = positions.get(column);
+      if (position == null || position >= line.fields.length) {
+        return null;
+      }
+      String value = line.fields[position].trim();
+      return value.isEmpty() ? null : value;
+    }
+
+    String text(Line line, String column, int maxLength, boolean required) {
+      String value = get(line, column);
+      if (value == null && required) {
+        throw new IllegalArgumentException(column + " is required");
+      }
+      if (value != null && value.length() > maxLength) {
+        throw new IllegalArgumentException(
+            column + " must be at most " + maxLength + " characters");
+      }
+      return value;
+    }
+
+    Integer integer(Line line, String column) {
+      String value = get(line, column);
+      if (value == null) {
+        throw new IllegalArgumentException(column + " is required");
+      }
+      try {
+        return Integer.valueOf(value);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(column + " must be an integer");
+      }
+    }
+
+    boolean bool(Line line, String column) {
+      String value = get(line, column);
+      if (value == null || value.equalsIgnoreCase("false")) {
+        return false;
+      }
+      if (value.equalsIgnoreCase("true")) {
+        return true;
+      }
+      throw new IllegalArgumentException(column + " must be true or false");
+    }
+  }
+
+  /**
+   * The outcome of one chunk.
+   */
+  private static final class Chunk {
+    private final List<ImportLineError> errors = new ArrayList<>();
+    private int imported;
+
+    void reject(Line line, String message) {
+      errors.add(new ImportLineError(line.number, message));
+    }
+
+    static Chunk failed(List<Line> chunk, DataAccessException e) {
+      log.error("Import chunk of {} rows failed", chunk.size(), e);
+      Chunk failed = new Chunk();
+      String message = "Not imported: " + e.getMostSpecificCause().getMessage();
+      chunk.forEach(line -> failed.reject(line, message));
+      return failed;
+    }
+  }
+
+  /**
+   * Running totals of one import.
+   */
+  private final class Progress {
+    private final Kind kind;
+    private final long started = System.nanoTime();
+    private final List<ImportLineError> errors = new ArrayList<>();
+    private long rows;
+    private long imported;
+    private long rejected;
+    private long nextLog = PROGRESS_INTERVAL;
+
+    Progress(Kind kind) {
+      this.kind = kind;
+    }
+
+    void add(int chunkRows, Chunk chunk) {
+      rows += chunkRows;
+      imported += chunk.imported;
+      importedRows.get(kind).increment(chunk.imported);
+      chunk.errors.sort((a, b) -> Long.compare(a.line(), b.line()));
+      chunk.errors.forEach(this::rejected);
+      if (rows >= nextLog) {
+        nextLog += PROGRESS_INTERVAL;
+        log.info("Importing {}: {} rows read, {} imported, {} rows/s", kind.label(), rows,
+            imported, rowsPerSecond());
+      }
+    }
+
+    void rejected(ImportLineError error) {
+      rejected++;
+      rejectedRows.get(kind).increment();
+      if (errors.size() < MAX_ERRORS) {
+        errors.add(error);
+      }
+    }
+
+    ImportReport finish() {
+      ImportReport report = new ImportReport(kind.label(), rows, imported, rejected,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), rowsPerSecond(),
+          List.copyOf(errors), rejected > errors.size());
+      log.info("Imported {}: {} of {} rows in {} ms, {} rejected", kind.label(), imported,
+          rows, report.elapsedMillis(), rejected);
+      return report;
+    }
+
+    private long rowsPerSecond() {
+      long nanos = Math.max(1, System.nanoTime() - started);
+      return rows * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+  }
+}
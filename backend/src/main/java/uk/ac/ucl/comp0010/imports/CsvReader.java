@@ -0,0 +1,160 @@
+package uk.ac.ucl.comp0010.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV parser.
+ *
+ * <p>Reads through its own fixed-size buffer, one record at a time, so memory use does
+ * not depend on the size of the input. Fields may be quoted, with {@code ""} for a quote
+ * and line breaks allowed inside quotes; records end with CRLF, LF or CR. Blank lines
+ * and a leading byte order mark are skipped.
+ */
+final class CsvReader {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Reader reader;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  private int limit;
+
+  private final List<String> fields = new ArrayList<>();
+  private final StringBuilder field = new StringBuilder();
+  private long line = 1;
+  private long recordLine;
+  private boolean started;
+
+  /**
+   * Constructor for CsvReader.
+   *
+   * @param reader the input; not closed by this parser
+   */
+  CsvReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the fields of the record, or null at the end of the input
+   * @throws MalformedCsvException if a quoted field is not closed before the input ends
+   * @throws IOException if the input cannot be read
+   */
+  String[] next() throws IOException {
+    if (!started) {
+      started = true;
+      if (peek() == '\uFEFF') {
+        position++;
+      }
+    }
+    int c;
+    // Skip blank lines between records
+    while ((c = peek()) == '\r' || c == '\n') {
+      endOfLine(read());
+    }
+    if (c < 0) {
+      return null;
+    }
+    recordLine = line;
+    fields.clear();
+    while (true) {
+      c = read();
+      if (c == '"' && field.isEmpty()) {
+        readQuoted();
+        c = read();
+      }
+      while (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+        field.append((char) c);
+        c = read();
+      }
+      fields.add(field.toString());
+      field.setLength(0);
+      if (c != ',') {
+        if (c >= 0) {
+          endOfLine(c);
+        }
+        return fields.toArray(new String[0]);
+      }
+    }
+  }
+
+  /**
+   * Gets the line number on which the last record read started.
+   *
+   * @return the one-based line number
+   */
+  long lineNumber() {
+    return recordLine;
+  }
+
+  private void readQuoted() throws IOException {
+    while (true) {
+      int c = read();
+      if (c < 0) {
+        throw new MalformedCsvException(recordLine, "Quoted field is not closed");
+      }
+      if (c == '"') {
+        if (peek() != '"') {
+          return;
+        }
+        c = read();
+      } else if (c == '\r' || c == '\n') {
+        endOfLine(c);
+        field.append('\n');
+        continue;
+      }
+      field.append((char) c);
+    }
+  }
+
+  /** Counts a line break, treating CRLF as one. */
+  private void endOfLine(int c) throws IOException {
+    if (c == '\r' && peek() == '\n') {
+      position++;
+    }
+    line++;
+  }
+
+  private int read() throws IOException {
+    int c = peek();
+    if (c >= 0) {
+      position++;
+    }
+    return c;
+  }
+
+  private int peek() throws IOException {
+    if (position == limit) {
+      limit = reader.read(buffer);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+    return buffer[position];
+  }
+
+  /**
+   * The input is not valid CSV.
+   */
+  static final class MalformedCsvException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+
+    MalformedCsvException(long line, String message) {
+      super(message);
+      this.line = line;
+    }
+
+    long line() {
+      return line;
+    }
+  }
+}
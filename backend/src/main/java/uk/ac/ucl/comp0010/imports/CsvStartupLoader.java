@@ -0,0 +1,48 @@
+package uk.ac.ucl.comp0010.imports;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import uk.ac.ucl.comp0010.imports.CsvImportService.Kind;
+
+/**
+ * Imports CSV files named in the configuration once the application has started.
+ *
+ * <p>Each of {@code app.import.modules}, {@code app.import.students},
+ * {@code app.import.registrations} and {@code app.import.grades} may name a file, and
+ * they are imported in that order so that references resolve. A file that cannot be
+ * read, or lacks a required column, stops the application from starting; rejected rows
+ * are only logged.
+ */
+@Component
+public class CsvStartupLoader implements ApplicationRunner {
+
+  private final CsvImportService importService;
+  private final Environment environment;
+
+  /**
+   * Constructor for CsvStartupLoader.
+   *
+   * @param importService the CSV import service
+   * @param environment the configuration holding the file paths
+   */
+  public CsvStartupLoader(CsvImportService importService, Environment environment) {
+    this.importService = importService;
+    this.environment = environment;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws IOException {
+    for (Kind kind : Kind.values()) {
+      String file = environment.getProperty("app.import." + kind.label());
+      if (file != null && !file.isBlank()) {
+        importService.importCsv(kind, Path.of(file));
+      }
+    }
+  }
+}
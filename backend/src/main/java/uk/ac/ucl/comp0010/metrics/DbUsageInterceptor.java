@@ -0,0 +1,68 @@
+package uk.ac.ucl.comp0010.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records, per endpoint, how many statements each request ran and how long it spent
+ * in the database, as {@code http.server.db.statements} and {@code http.server.db.time}.
+ *
+ * <p>Tagged with the method and URI template, like {@code http.server.requests}, so the
+ * two can be compared to find the endpoints that spend most of their time in the
+ * database. Statements run for a request on another thread, such as the merged
+ * transaction of a coalesced grade write, are included.
+ */
+public class DbUsageInterceptor implements HandlerInterceptor {
+
+  private final MeterRegistry registry;
+
+  /**
+   * Constructor for DbUsageInterceptor.
+   *
+   * @param registry the meter registry
+   */
+  public DbUsageInterceptor(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    RequestDbUsage.begin();
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    RequestDbUsage.Usage usage = RequestDbUsage.end();
+    if (usage == null) {
+      return;
+    }
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+    DistributionSummary.builder("http.server.db.statements")
+        .description("JDBC statements executed per request, including work done for it "
+            + "on other threads")
+        .tag("method", request.getMethod())
+        .tag("uri", uri)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(usage.statements());
+    Timer.builder("http.server.db.time")
+        .description("Time spent executing JDBC statements per request, including work "
+            + "done for it on other threads")
+        .tag("method", request.getMethod())
+        .tag("uri", uri)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(usage.nanos(), TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,88 @@
+package uk.ac.ucl.comp0010.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters for writes the application refuses, by entity and reason.
+ *
+ * <p>Write and average timings are recorded with {@code @Timed} on the methods
+ * themselves; this class covers the outcomes that a timer cannot tell apart.
+ */
+@Component
+public class DomainMetrics {
+
+  /** Counter of rejected writes, tagged with entity and reason. */
+  public static final String REJECTED_WRITES = "app.writes.rejected";
+
+  /**
+   * The entity a write targeted.
+   */
+  public enum Entity {
+    GRADE,
+    REGISTRATION
+  }
+
+  /**
+   * Why a write was refused.
+   */
+  public enum Reason {
+    /** The student is not registered on the module being graded. */
+    NOT_REGISTERED,
+    /** The registration or grade already exists. */
+    DUPLICATE,
+    /** The student or module does not exist. */
+    NOT_FOUND,
+    /** The request itself is malformed, e.g. a score out of range. */
+    INVALID
+  }
+
+  private final Map<Entity, Map<Reason, Counter>> rejected = new EnumMap<>(Entity.class);
+
+  /**
+   * Constructor for DomainMetrics.
+   *
+   * @param registry the meter registry
+   */
+  public DomainMetrics(MeterRegistry registry) {
+    for (Entity entity : Entity.values()) {
+      Map<Reason, Counter> byReason = new EnumMap<>(Reason.class);
+      for (Reason reason : Reason.values()) {
+        byReason.put(reason, Counter.builder(REJECTED_WRITES)
+            .description("Writes refused by validation or constraints")
+            .tag("entity", entity.name().toLowerCase(Locale.ROOT))
+            .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+            .register(registry));
+      }
+      rejected.put(entity, byReason);
+    }
+  }
+
+  /**
+   * Counts one rejected write.
+   *
+   * @param entity the entity written
+   * @param reason why it was rejected
+   */
+  public void rejected(Entity entity, Reason reason) {
+    rejected(entity, reason, 1);
+  }
+
+  /**
+   * Counts several rejected writes, e.g. the rejected rows of a batch.
+   *
+   * @param entity the entity written
+   * @param reason why they were rejected
+   * @param count the number of rejected writes
+   */
+  public void rejected(Entity entity, Reason reason, long count) {
+    if (count > 0) {
+      rejected.get(entity).get(reason).increment(count);
+    }
+  }
+}
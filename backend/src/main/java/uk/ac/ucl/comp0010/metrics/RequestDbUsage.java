@@ -0,0 +1,120 @@
+package uk.ac.ucl.comp0010.metrics;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Accumulates the JDBC statements executed, and the time spent in them, by the
+ * current thread between {@link #begin()} and {@link #end()}.
+ *
+ * <p>Registered as a listener on the proxied data source, so it sees every statement,
+ * whether issued by Hibernate or by a JdbcTemplate. A batch counts as one statement.
+ * Work done for a request on another thread, such as a merged grade write, is charged
+ * back to it with {@link #chargedTo}.
+ */
+public class RequestDbUsage implements QueryExecutionListener {
+
+  /**
+   * Statements executed and time spent in them.
+   *
+   * @param statements the number of statements executed
+   * @param nanos the time spent executing them
+   */
+  public record Usage(long statements, long nanos) {}
+
+  /**
+   * The running totals of one request, which other threads may add to.
+   */
+  public static final class Totals {
+    private long statements;
+    private long nanos;
+
+    synchronized void add(long statements, long nanos) {
+      this.statements += statements;
+      this.nanos += nanos;
+    }
+
+    synchronized Usage usage() {
+      return new Usage(statements, nanos);
+    }
+  }
+
+  private static final ThreadLocal<Totals> CURRENT = new ThreadLocal<>();
+  private static final ThreadLocal<Long> STARTED = new ThreadLocal<>();
+
+  /**
+   * Starts accumulating for the current thread, discarding anything accumulated before.
+   */
+  public static void begin() {
+    CURRENT.set(new Totals());
+  }
+
+  /**
+   * Stops accumulating for the current thread.
+   *
+   * @return what was accumulated since {@link #begin()}, or null if it was not called
+   */
+  public static Usage end() {
+    Totals totals = CURRENT.get();
+    CURRENT.remove();
+    return totals == null ? null : totals.usage();
+  }
+
+  /**
+   * Gets the totals the current thread is accumulating, so that work done for it on
+   * another thread can be charged to it.
+   *
+   * @return the totals, or null if the current thread is not accumulating
+   */
+  public static Totals current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Runs work and charges the statements it executes to each of the given totals in
+   * full, rather than to the current thread's.
+   *
+   * @param totals the totals to charge; nulls are skipped
+   * @param work the work
+   * @return the work's result
+   */
+  public static <T> T chargedTo(List<Totals> totals, Supplier<T> work) {
+    Totals outer = CURRENT.get();
+    Totals own = new Totals();
+    CURRENT.set(own);
+    try {
+      return work.get();
+    } finally {
+      if (outer == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(outer);
+      }
+      Usage usage = own.usage();
+      totals.stream().filter(Objects::nonNull)
+          .forEach(t -> t.add(usage.statements(), usage.nanos()));
+    }
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    if (CURRENT.get() != null) {
+      STARTED.set(System.nanoTime());
+    }
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    Totals totals = CURRENT.get();
+    Long started = STARTED.get();
+    if (totals != null && started != null) {
+      STARTED.remove();
+      totals.add(1, System.nanoTime() - started);
+    }
+  }
+}
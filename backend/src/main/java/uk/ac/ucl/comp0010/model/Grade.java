@@ -1,22 +1,37 @@
 package uk.ac.ucl.comp0010.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import uk.ac.ucl.comp0010.events.GradeEventListener;
+import uk.ac.ucl.comp0010.service.TableVersionsListener;
 
 /**
  * Entity representing a grade for a student in a module.
  */
 @Entity
-@Table(name = "grade")
+@EntityListeners({GradeEventListener.class, TableVersionsListener.class})
+@Table(name = "grade", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_grade_student_module",
+        columnNames = {"student_id", "module_code"})
+}, indexes = {
+    @Index(name = "idx_grade_module_score", columnList = "module_code, score")
+})
 public class Grade {
 
+  // Sequence ids (allocated in blocks) let Hibernate batch inserts; IDENTITY would not.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grade_seq")
+  @SequenceGenerator(name = "grade_seq", sequenceName = "grade_seq", allocationSize = 50)
   private Long id;
 
   private Integer score;
@@ -1,15 +1,24 @@
 package uk.ac.ucl.comp0010.model;
 
+import java.util.Objects;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import uk.ac.ucl.comp0010.service.TableVersionsListener;
 
 /**
  * Entity representing a module.
  */
 @Entity
+@EntityListeners(TableVersionsListener.class)
 @Table(name = "module")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Module {
 
   @Id
@@ -62,4 +71,23 @@ public class Module {
   public void setMnc(Boolean mnc) {
     this.mnc = mnc;
   }
-}
\ No newline at end of file
+
+  /**
+   * Modules are equal when their codes are, the code being the module's identity.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Module other)) {
+      return false;
+    }
+    return code != null && code.equals(other.getCode());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(code);
+  }
+}
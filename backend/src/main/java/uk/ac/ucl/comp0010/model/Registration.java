@@ -1,22 +1,38 @@
 package uk.ac.ucl.comp0010.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import uk.ac.ucl.comp0010.service.RegistrationIndexListener;
 
 /**
  * Entity representing a student's registration for a module.
  */
 @Entity
-@Table(name = "registration")
+@EntityListeners(RegistrationIndexListener.class)
+@Table(name = "registration", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_registration_student_module",
+        columnNames = {"student_id", "module_code"})
+}, indexes = {
+    @Index(name = "idx_registration_student", columnList = "student_id, id"),
+    @Index(name = "idx_registration_module", columnList = "module_code, id")
+})
 public class Registration {
 
+  // Sequence ids (allocated in blocks) let Hibernate batch inserts; IDENTITY would not.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registration_seq")
+  @SequenceGenerator(name = "registration_seq", sequenceName = "registration_seq",
+      allocationSize = 50)
   private Integer id;
 
   @ManyToOne
@@ -1,21 +1,38 @@
 package uk.ac.ucl.comp0010.model;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import uk.ac.ucl.comp0010.service.StudentSearchIndexListener;
+import uk.ac.ucl.comp0010.service.TableVersionsListener;
 
 /**
  * Entity representing a student.
  */
 @Entity
-@Table(name = "student")
+@EntityListeners({StudentSearchIndexListener.class, TableVersionsListener.class})
+@Table(name = "student", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_student_username", columnNames = "username"),
+    @UniqueConstraint(name = "uk_student_email", columnNames = "email")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Student {
 
-  @Id // schema.sql: id INT PRIMARY KEY
+  @Id // V1__baseline.sql: id INT PRIMARY KEY
   private Integer id;
 
   @Column(length = 30)
@@ -31,10 +48,18 @@ public class Student {
   private String email;
 
   @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, orphanRemoval = true)
-  private List<Grade> grades;
+  private List<Grade> grades = new ArrayList<>();
 
   @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, orphanRemoval = true)
-  private List<Registration> registrations;
+  private List<Registration> registrations = new ArrayList<>();
+
+  // Module-code indexes over the two lists, built on first use since JPA fills the
+  // lists after construction; addGrade and registerModule keep both in step.
+  @Transient
+  private Map<String, Grade> gradesByModule;
+
+  @Transient
+  private Map<String, Registration> registrationsByModule;
 
     /**
    * Default constructor for JPA.
@@ -76,16 +101,22 @@ public class Student {
    *
    * @param module the module for which the grade is being added
    * @param score the grade score
+   * @throws IllegalArgumentException if the student is not registered for the module,
+   *     or already has a grade for it
    */
   public void addGrade(Module module, int score) {
-      if (registrations.stream().noneMatch(reg -> reg.getModule().equals(module))) {
+      if (!registrationIndex().containsKey(module.getCode())) {
           throw new IllegalArgumentException("Student is not registered for the module: " + module.getCode());
       }
+      if (gradeIndex().containsKey(module.getCode())) {
+          throw new IllegalArgumentException("Student already has a grade for the module: " + module.getCode());
+      }
       Grade grade = new Grade();
       grade.setStudent(this);
       grade.setModule(module);
       grade.setScore(score);
       grades.add(grade);
+      gradesByModule.put(module.getCode(), grade);
   }
 
 
@@ -96,10 +127,7 @@ public class Student {
    * @return the grade for the module, or null if no grade is available
    */
   public Grade getGrade(Module module) {
-      return grades.stream()
-              .filter(grade -> grade.getModule().equals(module))
-              .findFirst()
-              .orElse(null);
+      return gradeIndex().get(module.getCode());
   }
 
     /**
@@ -108,15 +136,65 @@ public class Student {
      * @param module the module to register for
      */
     public void registerModule(Module module) {
-        if (registrations.stream().anyMatch(reg -> reg.getModule().equals(module))) {
+        if (registrationIndex().containsKey(module.getCode())) {
             throw new IllegalArgumentException("Student is already registered for the module: " + module.getCode());
         }
         Registration registration = new Registration();
         registration.setStudent(this);
         registration.setModule(module);
         registrations.add(registration);
+        registrationsByModule.put(module.getCode(), registration);
     }
 
+  /**
+   * Replaces both lists without the per-call checks, for benchmark fixtures; the
+   * indexes are rebuilt on first use.
+   */
+  void replaceLists(List<Registration> registrations, List<Grade> grades) {
+    this.registrations = registrations;
+    this.grades = grades;
+    gradesByModule = null;
+    registrationsByModule = null;
+  }
+
+  /**
+   * Removes the grade just added for a module, so a benchmark can undo its write.
+   */
+  Grade removeLastGrade(Module module) {
+    gradeIndex().remove(module.getCode());
+    return grades.remove(grades.size() - 1);
+  }
+
+  /**
+   * Removes the registration just added for a module, so a benchmark can undo its write.
+   */
+  Registration removeLastRegistration(Module module) {
+    registrationIndex().remove(module.getCode());
+    return registrations.remove(registrations.size() - 1);
+  }
+
+  private Map<String, Grade> gradeIndex() {
+    if (gradesByModule == null) {
+      Map<String, Grade> index = new HashMap<>();
+      for (Grade grade : grades) {
+        index.putIfAbsent(grade.getModule().getCode(), grade);
+      }
+      gradesByModule = index;
+    }
+    return gradesByModule;
+  }
+
+  private Map<String, Registration> registrationIndex() {
+    if (registrationsByModule == null) {
+      Map<String, Registration> index = new HashMap<>();
+      for (Registration registration : registrations) {
+        index.putIfAbsent(registration.getModule().getCode(), registration);
+      }
+      registrationsByModule = index;
+    }
+    return registrationsByModule;
+  }
+
   public Integer getId() {
     return id;
   }
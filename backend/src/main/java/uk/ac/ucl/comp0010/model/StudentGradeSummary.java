@@ -0,0 +1,76 @@
+package uk.ac.ucl.comp0010.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Running total of a student's grades, kept in step with the grade table so that the
+ * average can be read without aggregating.
+ */
+@Entity
+@Table(name = "student_grade_summary")
+public class StudentGradeSummary {
+
+  @Id
+  @Column(name = "student_id")
+  private Integer studentId;
+
+  @Column(name = "grade_sum", nullable = false)
+  private long gradeSum;
+
+  @Column(name = "grade_count", nullable = false)
+  private int gradeCount;
+
+  /**
+   * Default constructor for JPA.
+   */
+  public StudentGradeSummary() {}
+
+  /**
+   * Constructs a StudentGradeSummary with all fields.
+   *
+   * @param studentId the student id
+   * @param gradeSum the sum of the student's scores
+   * @param gradeCount the number of scored grades
+   */
+  public StudentGradeSummary(Integer studentId, long gradeSum, int gradeCount) {
+    this.studentId = studentId;
+    this.gradeSum = gradeSum;
+    this.gradeCount = gradeCount;
+  }
+
+  /**
+   * Computes the average score.
+   *
+   * @return the average score, or -1 if the student has no grades
+   */
+  public double average() {
+    return gradeCount == 0 ? -1 : (double) gradeSum / gradeCount;
+  }
+
+  public Integer getStudentId() {
+    return studentId;
+  }
+
+  public void setStudentId(Integer studentId) {
+    this.studentId = studentId;
+  }
+
+  public long getGradeSum() {
+    return gradeSum;
+  }
+
+  public void setGradeSum(long gradeSum) {
+    this.gradeSum = gradeSum;
+  }
+
+  public int getGradeCount() {
+    return gradeCount;
+  }
+
+  public void setGradeCount(int gradeCount) {
+    this.gradeCount = gradeCount;
+  }
+}
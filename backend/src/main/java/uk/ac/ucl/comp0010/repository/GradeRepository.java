@@ -1,10 +1,19 @@
 package uk.ac.ucl.comp0010.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.springframework.data.repository.CrudRepository;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import uk.ac.ucl.comp0010.dto.GradeView;
 import uk.ac.ucl.comp0010.model.Grade;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Student;
@@ -12,8 +21,75 @@ import uk.ac.ucl.comp0010.model.Student;
 /**
  * Repository interface for Grade entities.
  */
-public interface GradeRepository extends CrudRepository<Grade, Long> {
+public interface GradeRepository extends JpaRepository<Grade, Long> {
   Optional<Grade> findByStudentAndModule(Student student, Module module);
 
   List<Grade> findByStudent(Student student);
+
+  /**
+   * Finds the graded pairs among the given students and modules in one query.
+   *
+   * @param studentIds the candidate student ids
+   * @param moduleCodes the candidate module codes
+   * @return every grade whose student and module are both in the given sets
+   */
+  @Query("select g.student.id as studentId, g.module.code as moduleCode from Grade g "
+      + "where g.student.id in :studentIds and g.module.code in :moduleCodes")
+  List<StudentModulePair> findPairs(@Param("studentIds") Collection<Integer> studentIds,
+      @Param("moduleCodes") Collection<String> moduleCodes);
+
+  /**
+   * Gets one keyset page of grades, ordered by id.
+   *
+   * @param after only grades with a greater id are returned
+   * @param limit the page size
+   * @return the grades as flat views, read in one join query without managed entities
+   */
+  @Query("select new uk.ac.ucl.comp0010.dto.GradeView(g.id, g.score, s.id, s.firstName, "
+      + "s.lastName, m.code, m.name) from Grade g join g.student s join g.module m "
+      + "where g.id > :after order by g.id")
+  List<GradeView> findPageAfter(@Param("after") Long after, Limit limit);
+
+  /**
+   * Gets one keyset page of a student's grades, ordered by id.
+   *
+   * @param studentId the student id
+   * @param after only grades with a greater id are returned
+   * @param limit the page size
+   * @return the grades as flat views, read in one join query without managed entities
+   */
+  @Query("select new uk.ac.ucl.comp0010.dto.GradeView(g.id, g.score, s.id, s.firstName, "
+      + "s.lastName, m.code, m.name) from Grade g join g.student s join g.module m "
+      + "where s.id = :studentId and g.id > :after order by g.id")
+  List<GradeView> findByStudentAfter(@Param("studentId") Integer studentId,
+      @Param("after") Long after, Limit limit);
+
+  /**
+   * Gets one keyset page of a module's grades, ordered by id.
+   *
+   * @param moduleCode the module code
+   * @param after only grades with a greater id are returned
+   * @param limit the page size
+   * @return the grades as flat views, read in one join query without managed entities
+   */
+  @Query("select new uk.ac.ucl.comp0010.dto.GradeView(g.id, g.score, s.id, s.firstName, "
+      + "s.lastName, m.code, m.name) from Grade g join g.student s join g.module m "
+      + "where m.code = :moduleCode and g.id > :after order by g.id")
+  List<GradeView> findByModuleAfter(@Param("moduleCode") String moduleCode,
+      @Param("after") Long after, Limit limit);
+
+  /**
+   * Streams every grade through a forward-only, read-only cursor.
+   *
+   * <p>Must be consumed inside a transaction, and the stream closed afterwards.
+   *
+   * @return the grades, with student and module fetched in the same query
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+  })
+  @Query("select g from Grade g join fetch g.student join fetch g.module")
+  Stream<Grade> streamAll();
 }
@@ -1,12 +1,29 @@
 package uk.ac.ucl.comp0010.repository;
 
-import org.springframework.data.repository.CrudRepository;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import uk.ac.ucl.comp0010.model.Module;
 
 /**
  * Repository interface for Module entities.
+ *
+ * <p>Modules are in the second-level cache, and module list pages in the query cache.
  */
-public interface ModuleRepository extends CrudRepository<Module, String> {
-  // No additional methods required - code is the primary key
+public interface ModuleRepository extends JpaRepository<Module, String> {
+
+  /**
+   * Gets one keyset page of modules, ordered by code.
+   *
+   * @param after only modules with a code sorting after this one are returned
+   * @param limit the page size
+   * @return the modules
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<Module> findByCodeGreaterThanOrderByCodeAsc(String after, Limit limit);
 }
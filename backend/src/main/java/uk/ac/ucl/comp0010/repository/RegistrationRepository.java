@@ -1,8 +1,19 @@
 package uk.ac.ucl.comp0010.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import uk.ac.ucl.comp0010.dto.RegistrationView;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Registration;
 import uk.ac.ucl.comp0010.model.Student;
@@ -13,4 +24,73 @@ import uk.ac.ucl.comp0010.model.Student;
 @Repository
 public interface RegistrationRepository extends JpaRepository<Registration, Integer> {
   boolean existsByStudentAndModule(Student student, Module module);
+
+  boolean existsByStudentIdAndModuleCode(Integer studentId, String moduleCode);
+
+  /**
+   * Finds the registered pairs among the given students and modules in one query.
+   *
+   * @param studentIds the candidate student ids
+   * @param moduleCodes the candidate module codes
+   * @return every registration whose student and module are both in the given sets
+   */
+  @Query("select r.student.id as studentId, r.module.code as moduleCode from Registration r "
+      + "where r.student.id in :studentIds and r.module.code in :moduleCodes")
+  List<StudentModulePair> findPairs(@Param("studentIds") Collection<Integer> studentIds,
+      @Param("moduleCodes") Collection<String> moduleCodes);
+
+  /**
+   * Gets one keyset page of a student's registrations, ordered by id.
+   *
+   * @param studentId the student id
+   * @param after only registrations with a greater id are returned
+   * @param limit the page size
+   * @return the registrations as flat views, read in one join query without managed entities
+   */
+  @Query("select new uk.ac.ucl.comp0010.dto.RegistrationView(r.id, s.id, s.firstName, "
+      + "s.lastName, m.code, m.name, m.mnc) from Registration r join r.student s join r.module m "
+      + "where s.id = :studentId and r.id > :after order by r.id")
+  List<RegistrationView> findByStudentAfter(@Param("studentId") Integer studentId,
+      @Param("after") Integer after, Limit limit);
+
+  /**
+   * Gets one keyset page of a module's registrations, ordered by id.
+   *
+   * @param moduleCode the module code
+   * @param after only registrations with a greater id are returned
+   * @param limit the page size
+   * @return the registrations as flat views, read in one join query without managed entities
+   */
+  @Query("select new uk.ac.ucl.comp0010.dto.RegistrationView(r.id, s.id, s.firstName, "
+      + "s.lastName, m.code, m.name, m.mnc) from Registration r join r.student s join r.module m "
+      + "where m.code = :moduleCode and r.id > :after order by r.id")
+  List<RegistrationView> findByModuleAfter(@Param("moduleCode") String moduleCode,
+      @Param("after") Integer after, Limit limit);
+
+  /**
+   * Gets one keyset page of registrations, ordered by id.
+   *
+   * @param after only registrations with a greater id are returned
+   * @param limit the page size
+   * @return the registrations as flat views, read in one join query without managed entities
+   */
+  @Query("select new uk.ac.ucl.comp0010.dto.RegistrationView(r.id, s.id, s.firstName, "
+      + "s.lastName, m.code, m.name, m.mnc) from Registration r join r.student s join r.module m "
+      + "where r.id > :after order by r.id")
+  List<RegistrationView> findPageAfter(@Param("after") Integer after, Limit limit);
+
+  /**
+   * Streams every registration through a forward-only, read-only cursor.
+   *
+   * <p>Must be consumed inside a transaction, and the stream closed afterwards.
+   *
+   * @return the registrations, with student and module fetched in the same query
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+  })
+  @Query("select r from Registration r join fetch r.student join fetch r.module")
+  Stream<Registration> streamAll();
 }
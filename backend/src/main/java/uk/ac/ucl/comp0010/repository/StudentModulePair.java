@@ -0,0 +1,10 @@
+package uk.ac.ucl.comp0010.repository;
+
+/**
+ * Projection of a registration or grade onto its (student id, module code) key.
+ */
+public interface StudentModulePair {
+  Integer getStudentId();
+
+  String getModuleCode();
+}
@@ -1,10 +1,54 @@
 package uk.ac.ucl.comp0010.repository;
 
-import org.springframework.data.repository.CrudRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import uk.ac.ucl.comp0010.model.Student;
 
 /**
  * Repository interface for Student entities.
  */
-public interface StudentRepository extends CrudRepository<Student, Integer> {}
+public interface StudentRepository extends JpaRepository<Student, Integer> {
+
+  /**
+   * Gets one keyset page of students, ordered by id.
+   *
+   * @param after only students with a greater id are returned
+   * @param limit the page size
+   * @return the students
+   */
+  List<Student> findByIdGreaterThanOrderByIdAsc(Integer after, Limit limit);
+
+  /**
+   * Gets a student from the database, locking its row until the transaction ends.
+   *
+   * @param id the student id
+   * @return the student, if it exists
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<Student> findForUpdateById(Integer id);
 
+  /**
+   * Streams every student through a forward-only, read-only cursor.
+   *
+   * <p>Must be consumed inside a transaction, and the stream closed afterwards.
+   *
+   * @return the students
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+  })
+  @Query("select s from Student s")
+  Stream<Student> streamAll();
+}
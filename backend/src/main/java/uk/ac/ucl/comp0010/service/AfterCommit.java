@@ -0,0 +1,31 @@
+package uk.ac.ucl.comp0010.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates to in-memory indexes until the writing transaction commits, so a
+ * rolled-back write never shows up in them.
+ */
+final class AfterCommit {
+
+  private AfterCommit() {}
+
+  /**
+   * Runs an action when the current transaction commits, or now if there is none.
+   *
+   * @param action the action
+   */
+  static void run(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentModulePair;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Shared constants and helpers for the bulk write services.
+ */
+final class BatchSupport {
+
+  /** Rows per JDBC batch; keep in step with hibernate.jdbc.batch_size. */
+  static final int BATCH_SIZE = 50;
+
+  /** Maximum number of ids bound into a single IN list. */
+  static final int LOOKUP_CHUNK = 1000;
+
+  private BatchSupport() {}
+
+  /**
+   * Builds the lookup key of a (student, module) pair.
+   *
+   * @param studentId the student id
+   * @param moduleCode the module code
+   * @return a key that is unique per pair
+   */
+  static String pairKey(Integer studentId, String moduleCode) {
+    return studentId + ":" + moduleCode;
+  }
+
+  /**
+   * Splits values into lists of at most {@link #LOOKUP_CHUNK} elements.
+   *
+   * @param values the values to split
+   * @return the chunks, in iteration order
+   */
+  static <T> List<List<T>> chunks(Collection<T> values) {
+    List<List<T>> chunks = new ArrayList<>();
+    List<T> current = new ArrayList<>(Math.min(values.size(), LOOKUP_CHUNK));
+    for (T value : values) {
+      current.add(value);
+      if (current.size() == LOOKUP_CHUNK) {
+        chunks.add(current);
+        current = new ArrayList<>(LOOKUP_CHUNK);
+      }
+    }
+    if (!current.isEmpty()) {
+      chunks.add(current);
+    }
+    return chunks;
+  }
+
+  /**
+   * Loads the existing students among the given ids, one query per chunk.
+   *
+   * @param repo the student repository
+   * @param ids the candidate ids
+   * @return the students found, keyed by id
+   */
+  static Map<Integer, Student> loadStudents(StudentRepository repo, Collection<Integer> ids) {
+    Map<Integer, Student> found = new HashMap<>();
+    for (List<Integer> chunk : chunks(ids)) {
+      repo.findAllById(chunk).forEach(s -> found.put(s.getId(), s));
+    }
+    return found;
+  }
+
+  /**
+   * Loads the existing modules among the given codes, one query per chunk.
+   *
+   * @param repo the module repository
+   * @param codes the candidate codes
+   * @return the modules found, keyed by code
+   */
+  static Map<String, Module> loadModules(ModuleRepository repo, Collection<String> codes) {
+    Map<String, Module> found = new HashMap<>();
+    for (List<String> chunk : chunks(codes)) {
+      repo.findAllById(chunk).forEach(m -> found.put(m.getCode(), m));
+    }
+    return found;
+  }
+
+  /**
+   * Finds which of the given students are registered on which of the given modules.
+   *
+   * @param repo the registration repository
+   * @param studentIds the candidate student ids
+   * @param moduleCodes the candidate module codes
+   * @return the {@link #pairKey} of every existing registration among the candidates
+   */
+  static Set<String> loadRegisteredPairs(RegistrationRepository repo,
+      Collection<Integer> studentIds, Collection<String> moduleCodes) {
+    Set<String> pairs = new HashSet<>();
+    if (studentIds.isEmpty() || moduleCodes.isEmpty()) {
+      return pairs;
+    }
+    for (List<Integer> chunk : chunks(studentIds)) {
+      for (StudentModulePair pair : repo.findPairs(chunk, moduleCodes)) {
+        pairs.add(pairKey(pair.getStudentId(), pair.getModuleCode()));
+      }
+    }
+    return pairs;
+  }
+
+  /**
+   * Finds which of the given students already have a grade on which of the given modules.
+   *
+   * @param repo the grade repository
+   * @param studentIds the candidate student ids
+   * @param moduleCodes the candidate module codes
+   * @return the {@link #pairKey} of every existing grade among the candidates
+   */
+  static Set<String> loadGradedPairs(GradeRepository repo,
+      Collection<Integer> studentIds, Collection<String> moduleCodes) {
+    Set<String> pairs = new HashSet<>();
+    if (studentIds.isEmpty() || moduleCodes.isEmpty()) {
+      return pairs;
+    }
+    for (List<Integer> chunk : chunks(studentIds)) {
+      for (StudentModulePair pair : repo.findPairs(chunk, moduleCodes)) {
+        pairs.add(pairKey(pair.getStudentId(), pair.getModuleCode()));
+      }
+    }
+    return pairs;
+  }
+}
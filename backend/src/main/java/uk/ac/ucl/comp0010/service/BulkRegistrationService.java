@@ -0,0 +1,125 @@
+package uk.ac.ucl.comp0010.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import uk.ac.ucl.comp0010.dto.BatchRowResult.Status;
+import uk.ac.ucl.comp0010.dto.RegistrationRowResult;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Entity;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Service for enrolling whole cohorts of students in one transaction.
+ *
+ * <p>Unknown students and modules, and pairs that are already registered, are found
+ * with set-based queries up front; the remaining registrations are inserted in JDBC
+ * batches.
+ */
+@Service
+public class BulkRegistrationService {
+
+  private final EntityManager entityManager;
+  private final StudentRepository studentRepo;
+  private final ModuleRepository moduleRepo;
+  private final RegistrationRepository registrationRepo;
+  private final DomainMetrics domainMetrics;
+
+  /**
+   * Constructor for BulkRegistrationService.
+   *
+   * @param entityManager the JPA entity manager
+   * @param studentRepo the student repository
+   * @param moduleRepo the module repository
+   * @param registrationRepo the registration repository
+   * @param domainMetrics the rejected-write counters
+   */
+  public BulkRegistrationService(EntityManager entityManager,
+      StudentRepository studentRepo,
+      ModuleRepository moduleRepo,
+      RegistrationRepository registrationRepo,
+      DomainMetrics domainMetrics) {
+    this.entityManager = entityManager;
+    this.studentRepo = studentRepo;
+    this.moduleRepo = moduleRepo;
+    this.registrationRepo = registrationRepo;
+    this.domainMetrics = domainMetrics;
+  }
+
+  /**
+   * Registers every given student on every given module.
+   *
+   * @param studentIds the students to enrol
+   * @param moduleCodes the modules to enrol them on
+   * @return the outcome of each (module, student) pair, module by module
+   */
+  @Transactional
+  @Timed(value = "app.registration.writes", extraTags = {"path", "bulk"})
+  public List<RegistrationRowResult> register(List<Integer> studentIds, List<String> moduleCodes) {
+    Set<Integer> distinctIds = new LinkedHashSet<>(studentIds);
+    Map<Integer, Student> students = BatchSupport.loadStudents(studentRepo, distinctIds);
+    Map<String, Module> modules = BatchSupport.loadModules(moduleRepo, moduleCodes);
+    Set<String> existing = BatchSupport.loadRegisteredPairs(
+        registrationRepo, students.keySet(), modules.keySet());
+
+    List<RegistrationRowResult> results = new ArrayList<>(studentIds.size() * moduleCodes.size());
+    List<Registration> persisted = new ArrayList<>();
+    List<Integer> persistedIndexes = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    int pending = 0;
+    for (String code : moduleCodes) {
+      Module module = modules.get(code);
+      for (Integer studentId : studentIds) {
+        Student student = students.get(studentId);
+        String key = BatchSupport.pairKey(studentId, code);
+        if (module == null) {
+          results.add(new RegistrationRowResult(
+              studentId, code, Status.REJECTED, null, "Module not found"));
+          domainMetrics.rejected(Entity.REGISTRATION, Reason.NOT_FOUND);
+        } else if (student == null) {
+          results.add(new RegistrationRowResult(
+              studentId, code, Status.REJECTED, null, "Student not found"));
+          domainMetrics.rejected(Entity.REGISTRATION, Reason.NOT_FOUND);
+        } else if (existing.contains(key) || !seen.add(key)) {
+          // Already registered is the outcome asked for, so not counted as a rejection
+          results.add(new RegistrationRowResult(studentId, code, Status.SKIPPED, null,
+              "Student is already registered for this module"));
+        } else {
+          Registration registration = new Registration(student, module);
+          entityManager.persist(registration);
+          persisted.add(registration);
+          persistedIndexes.add(results.size());
+          results.add(null);
+          if (++pending == BatchSupport.BATCH_SIZE) {
+            entityManager.flush();
+            pending = 0;
+          }
+        }
+      }
+    }
+    entityManager.flush();
+
+    for (int i = 0; i < persisted.size(); i++) {
+      Registration registration = persisted.get(i);
+      results.set(persistedIndexes.get(i), new RegistrationRowResult(
+          registration.getStudent().getId(), registration.getModule().getCode(),
+          Status.CREATED, registration.getId(), null));
+    }
+    return results;
+  }
+}
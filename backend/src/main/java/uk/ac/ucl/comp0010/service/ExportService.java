@@ -0,0 +1,295 @@
+package uk.ac.ucl.comp0010.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Service for streaming full-table exports.
+ *
+ * <p>Rows are read through a forward-only cursor and written to the response as they
+ * arrive, and the persistence context is cleared every {@link #CLEAR_INTERVAL} rows,
+ * so memory use does not depend on the size of the table.
+ */
+@Service
+public class ExportService {
+
+  /** Rows written between persistence context clears and output flushes. */
+  static final int CLEAR_INTERVAL = 500;
+
+  /**
+   * Supported export encodings.
+   */
+  public enum Format {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv"),
+    /** A CBOR sequence (RFC 8742): one CBOR map per row, with the NDJSON fields. */
+    CBOR("application/cbor-seq", "cbor");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public String getExtension() {
+      return extension;
+    }
+
+    /**
+     * Parses a format name, ignoring case.
+     *
+     * @param name the format name
+     * @return the format
+     * @throws IllegalArgumentException if the name is not a supported format
+     */
+    public static Format from(String name) {
+      try {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException | NullPointerException e) {
+        throw new IllegalArgumentException("Unsupported export format: " + name);
+      }
+    }
+  }
+
+  private static final List<Column<Grade>> GRADE_COLUMNS = List.of(
+      new Column<>("id", Grade::getId),
+      new Column<>("student_id", g -> g.getStudent().getId()),
+      new Column<>("module_code", g -> g.getModule().getCode()),
+      new Column<>("score", Grade::getScore));
+
+  private static final List<Column<Registration>> REGISTRATION_COLUMNS = List.of(
+      new Column<>("id", Registration::getId),
+      new Column<>("student_id", r -> r.getStudent().getId()),
+      new Column<>("module_code", r -> r.getModule().getCode()));
+
+  private static final List<Column<Student>> STUDENT_COLUMNS = List.of(
+      new Column<>("id", Student::getId),
+      new Column<>("first_name", Student::getFirstName),
+      new Column<>("last_name", Student::getLastName),
+      new Column<>("username", Student::getUsername),
+      new Column<>("email", Student::getEmail));
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate readOnlyTx;
+  private final ObjectMapper objectMapper;
+  private final CBORFactory cborFactory = new CBORFactory();
+  private final GradeRepository gradeRepo;
+  private final RegistrationRepository registrationRepo;
+  private final StudentRepository studentRepo;
+
+  /**
+   * Constructor for ExportService.
+   *
+   * @param entityManager the JPA entity manager
+   * @param transactionManager the transaction manager used to hold the cursor open
+   * @param objectMapper the JSON mapper
+   * @param gradeRepo the grade repository
+   * @param registrationRepo the registration repository
+   * @param studentRepo the student repository
+   */
+  public ExportService(EntityManager entityManager,
+      PlatformTransactionManager transactionManager,
+      ObjectMapper objectMapper,
+      GradeRepository gradeRepo,
+      RegistrationRepository registrationRepo,
+      StudentRepository studentRepo) {
+    this.entityManager = entityManager;
+    this.readOnlyTx = new TransactionTemplate(transactionManager);
+    this.readOnlyTx.setReadOnly(true);
+    this.objectMapper = objectMapper;
+    this.gradeRepo = gradeRepo;
+    this.registrationRepo = registrationRepo;
+    this.studentRepo = studentRepo;
+  }
+
+  /**
+   * Streams every grade.
+   *
+   * @param format the output encoding
+   * @return a body that writes the export when the response is committed
+   */
+  public StreamingResponseBody grades(Format format) {
+    return out -> export(gradeRepo::streamAll, GRADE_COLUMNS, format, out);
+  }
+
+  /**
+   * Streams every registration.
+   *
+   * @param format the output encoding
+   * @return a body that writes the export when the response is committed
+   */
+  public StreamingResponseBody registrations(Format format) {
+    return out -> export(registrationRepo::streamAll, REGISTRATION_COLUMNS, format, out);
+  }
+
+  /**
+   * Streams every student.
+   *
+   * @param format the output encoding
+   * @return a body that writes the export when the response is committed
+   */
+  public StreamingResponseBody students(Format format) {
+    return out -> export(studentRepo::streamAll, STUDENT_COLUMNS, format, out);
+  }
+
+  private <T> void export(Supplier<Stream<T>> rows, List<Column<T>> columns, Format format,
+      OutputStream out) throws IOException {
+    try {
+      readOnlyTx.executeWithoutResult(status -> {
+        try (Stream<T> stream = rows.get()) {
+          RowWriter<T> writer = switch (format) {
+            case CSV -> new CsvWriter<>(out, columns);
+            case CBOR -> new ObjectWriter<>(cborFactory, out, columns, false);
+            case NDJSON -> new ObjectWriter<>(objectMapper.getFactory(), out, columns, true);
+          };
+          long count = 0;
+          for (T row : (Iterable<T>) stream::iterator) {
+            writer.write(row);
+            if (++count % CLEAR_INTERVAL == 0) {
+              entityManager.clear();
+              writer.flush();
+            }
+          }
+          writer.flush();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * A named export column.
+   */
+  private record Column<T>(String name, Function<T, Object> value) {}
+
+  /**
+   * Writes rows in one output encoding.
+   */
+  private interface RowWriter<T> {
+    void write(T row) throws IOException;
+
+    void flush() throws IOException;
+  }
+
+  /**
+   * Writes one object per row with a Jackson generator: JSON objects one per line, or
+   * CBOR maps back to back.
+   */
+  private static final class ObjectWriter<T> implements RowWriter<T> {
+    private final OutputStream out;
+    private final JsonGenerator json;
+    private final List<Column<T>> columns;
+    private final boolean newlines;
+
+    ObjectWriter(JsonFactory factory, OutputStream out, List<Column<T>> columns,
+        boolean newlines) throws IOException {
+      this.out = out;
+      this.json = factory.createGenerator(out)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      this.columns = columns;
+      this.newlines = newlines;
+    }
+
+    @Override
+    public void write(T row) throws IOException {
+      json.writeStartObject();
+      for (Column<T> column : columns) {
+        json.writeFieldName(column.name());
+        json.writeObject(column.value().apply(row));
+      }
+      json.writeEndObject();
+      if (newlines) {
+        json.writeRaw('\n');
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      json.flush();
+      out.flush();
+    }
+  }
+
+  /**
+   * Writes RFC 4180 CSV with a header line.
+   */
+  private static final class CsvWriter<T> implements RowWriter<T> {
+    private final Writer writer;
+    private final List<Column<T>> columns;
+
+    CsvWriter(OutputStream out, List<Column<T>> columns) throws IOException {
+      this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      this.columns = columns;
+      for (int i = 0; i < columns.size(); i++) {
+        if (i > 0) {
+          writer.write(',');
+        }
+        writer.write(columns.get(i).name());
+      }
+      writer.write("\r\n");
+    }
+
+    @Override
+    public void write(T row) throws IOException {
+      for (int i = 0; i < columns.size(); i++) {
+        if (i > 0) {
+          writer.write(',');
+        }
+        Object value = columns.get(i).value().apply(row);
+        if (value != null) {
+          writer.write(escape(value.toString()));
+        }
+      }
+      writer.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+
+    static String escape(String value) {
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+          && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+        return value;
+      }
+      return '"' + value.replace("\"", "\"\"") + '"';
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package uk.ac.ucl.comp0010.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import uk.ac.ucl.comp0010.dto.BatchRowResult;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Entity;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Service for recording many grades at once.
+ *
+ * <p>Students, modules, registrations and existing grades are validated with a few set-based
+ * queries rather than one lookup per row, and the valid grades are flushed to the
+ * database in JDBC batches of {@link BatchSupport#BATCH_SIZE}.
+ */
+@Service
+public class GradeBatchService {
+
+  private final EntityManager entityManager;
+  private final GradeRepository gradeRepo;
+  private final StudentRepository studentRepo;
+  private final ModuleRepository moduleRepo;
+  private final RegistrationRepository registrationRepo;
+  private final GradeSummaryService gradeSummaryService;
+  private final DomainMetrics domainMetrics;
+
+  /**
+   * Constructor for GradeBatchService.
+   *
+   * @param entityManager the JPA entity manager
+   * @param gradeRepo the grade repository
+   * @param studentRepo the student repository
+   * @param moduleRepo the module repository
+   * @param registrationRepo the registration repository
+   * @param gradeSummaryService the per-student grade summary service
+   * @param domainMetrics the rejected-write counters
+   */
+  public GradeBatchService(EntityManager entityManager,
+      GradeRepository gradeRepo,
+      StudentRepository studentRepo,
+      ModuleRepository moduleRepo,
+      RegistrationRepository registrationRepo,
+      GradeSummaryService gradeSummaryService,
+      DomainMetrics domainMetrics) {
+    this.entityManager = entityManager;
+    this.gradeRepo = gradeRepo;
+    this.studentRepo = studentRepo;
+    this.moduleRepo = moduleRepo;
+    this.registrationRepo = registrationRepo;
+    this.gradeSummaryService = gradeSummaryService;
+    this.domainMetrics = domainMetrics;
+  }
+
+  /**
+   * Validates and records a batch of grades in a single transaction.
+   *
+   * @param rows maps containing student_id, module_code and score
+   * @return the outcome of each row, in request order
+   */
+  @Transactional
+  @Timed(value = "app.grade.writes", extraTags = {"path", "batch"})
+  public List<BatchRowResult> addGrades(List<Map<String, String>> rows) {
+    BatchRowResult[] results = new BatchRowResult[rows.size()];
+    List<GradeRow> parsed = new ArrayList<>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      try {
+        parsed.add(GradeRow.parse(i, rows.get(i)));
+      } catch (IllegalArgumentException e) {
+        results[i] = BatchRowResult.rejected(i, e.getMessage());
+        domainMetrics.rejected(Entity.GRADE, Reason.INVALID);
+      }
+    }
+
+    Set<Integer> studentIds = new LinkedHashSet<>();
+    Set<String> moduleCodes = new LinkedHashSet<>();
+    for (GradeRow row : parsed) {
+      studentIds.add(row.studentId());
+      moduleCodes.add(row.moduleCode());
+    }
+    Map<Integer, Student> students = BatchSupport.loadStudents(studentRepo, studentIds);
+    Map<String, Module> modules = BatchSupport.loadModules(moduleRepo, moduleCodes);
+    Set<String> registered = BatchSupport.loadRegisteredPairs(
+        registrationRepo, students.keySet(), modules.keySet());
+    Set<String> graded = BatchSupport.loadGradedPairs(
+        gradeRepo, students.keySet(), modules.keySet());
+
+    int pending = 0;
+    Map<Integer, long[]> totals = new HashMap<>();
+    List<Grade> persisted = new ArrayList<>();
+    List<Integer> persistedIndexes = new ArrayList<>();
+    for (GradeRow row : parsed) {
+      Student student = students.get(row.studentId());
+      Module module = modules.get(row.moduleCode());
+      if (student == null) {
+        results[row.index()] = BatchRowResult.rejected(row.index(), "Student not found");
+        domainMetrics.rejected(Entity.GRADE, Reason.NOT_FOUND);
+      } else if (module == null) {
+        results[row.index()] = BatchRowResult.rejected(row.index(), "Module not found");
+        domainMetrics.rejected(Entity.GRADE, Reason.NOT_FOUND);
+      } else if (!registered.contains(BatchSupport.pairKey(row.studentId(), row.moduleCode()))) {
+        results[row.index()] = BatchRowResult.rejected(row.index(),
+            "Student must be registered for this module before receiving a grade");
+        domainMetrics.rejected(Entity.GRADE, Reason.NOT_REGISTERED);
+      } else if (!graded.add(BatchSupport.pairKey(row.studentId(), row.moduleCode()))) {
+        results[row.index()] = BatchRowResult.rejected(row.index(),
+            "Student already has a grade for this module");
+        domainMetrics.rejected(Entity.GRADE, Reason.DUPLICATE);
+      } else {
+        Grade grade = new Grade(row.score(), student, module);
+        entityManager.persist(grade);
+        persisted.add(grade);
+        persistedIndexes.add(row.index());
+        long[] total = totals.computeIfAbsent(row.studentId(), id -> new long[2]);
+        total[0] += row.score();
+        total[1]++;
+        if (++pending == BatchSupport.BATCH_SIZE) {
+          entityManager.flush();
+          pending = 0;
+        }
+      }
+    }
+    entityManager.flush();
+    gradeSummaryService.gradesAdded(totals);
+
+    for (int i = 0; i < persisted.size(); i++) {
+      int index = persistedIndexes.get(i);
+      results[index] = BatchRowResult.created(index, persisted.get(i).getId());
+    }
+    return List.of(results);
+  }
+
+  /**
+   * A parsed and range-checked grade row.
+   */
+  record GradeRow(int index, Integer studentId, String moduleCode, int score) {
+
+    static GradeRow parse(int index, Map<String, String> params) {
+      if (params == null) {
+        throw new IllegalArgumentException("Row must not be null");
+      }
+      String moduleCode = params.get("module_code");
+      if (moduleCode == null || moduleCode.isBlank()) {
+        throw new IllegalArgumentException("module_code is required");
+      }
+      Integer studentId;
+      int score;
+      try {
+        studentId = Integer.valueOf(params.get("student_id"));
+        score = Integer.parseInt(params.get("score"));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("student_id and score must be integers");
+      }
+      if (score < 0 || score > 100) {
+        throw new IllegalArgumentException("Score must be between 0 and 100");
+      }
+      return new GradeRow(index, studentId, moduleCode, score);
+    }
+  }
+}
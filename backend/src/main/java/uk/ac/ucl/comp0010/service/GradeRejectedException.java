@@ -0,0 +1,32 @@
+package uk.ac.ucl.comp0010.service;
+
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
+
+/**
+ * Thrown when a single grade write is refused, carrying the reason so the caller can
+ * pick the response status.
+ */
+public class GradeRejectedException extends RuntimeException {
+
+  private final Reason reason;
+
+  /**
+   * Constructs a GradeRejectedException.
+   *
+   * @param reason why the grade was refused
+   * @param message the detail message
+   */
+  public GradeRejectedException(Reason reason, String message) {
+    super(message);
+    this.reason = reason;
+  }
+
+  /**
+   * Gets why the grade was refused.
+   *
+   * @return the reason
+   */
+  public Reason getReason() {
+    return reason;
+  }
+}
@@ -0,0 +1,169 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import uk.ac.ucl.comp0010.dto.GradeSummaryMismatch;
+import uk.ac.ucl.comp0010.model.StudentGradeSummary;
+
+/**
+ * Service maintaining each student's running grade sum and count.
+ *
+ * <p>Every grade insert, score change and delete applies a delta to the student's
+ * summary row in the same transaction as the grade write, so the average is a
+ * single-row read. {@link #check()} and {@link #rebuild()} compare against and
+ * recompute from the grade table.
+ */
+@Service
+public class GradeSummaryService {
+
+  private static final String APPLY_DELTA =
+      "MERGE INTO student_grade_summary t "
+      + "USING (SELECT CAST(? AS INT) AS student_id, CAST(? AS BIGINT) AS sum_delta, "
+      + "CAST(? AS INT) AS count_delta) d "
+      + "ON t.student_id = d.student_id "
+      + "WHEN MATCHED THEN UPDATE SET grade_sum = t.grade_sum + d.sum_delta, "
+      + "grade_count = t.grade_count + d.count_delta "
+      + "WHEN NOT MATCHED THEN INSERT (student_id, grade_sum, grade_count) "
+      + "VALUES (d.student_id, d.sum_delta, d.count_delta)";
+
+  private static final String ACTUAL_TOTALS =
+      "SELECT student_id, SUM(score) AS grade_sum, COUNT(score) AS grade_count "
+      + "FROM grade WHERE score IS NOT NULL GROUP BY student_id";
+
+  private static final String MISMATCHES =
+      "SELECT s.student_id, s.grade_sum AS stored_sum, s.grade_count AS stored_count, "
+      + "COALESCE(a.grade_sum, 0) AS actual_sum, COALESCE(a.grade_count, 0) AS actual_count "
+      + "FROM student_grade_summary s LEFT JOIN (" + ACTUAL_TOTALS + ") a "
+      + "ON a.student_id = s.student_id "
+      + "WHERE (a.student_id IS NULL AND s.grade_count <> 0) "
+      + "OR a.grade_sum <> s.grade_sum OR a.grade_count <> s.grade_count "
+      + "UNION ALL "
+      + "SELECT a.student_id, NULL, NULL, a.grade_sum, a.grade_count "
+      + "FROM (" + ACTUAL_TOTALS + ") a "
+      + "WHERE NOT EXISTS (SELECT 1 FROM student_grade_summary s "
+      + "WHERE s.student_id = a.student_id)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for GradeSummaryService.
+   *
+   * @param jdbcTemplate the JDBC template, sharing the JPA transaction's connection
+   */
+  public GradeSummaryService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Records a new grade.
+   *
+   * @param studentId the student id
+   * @param score the score
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void gradeAdded(Integer studentId, int score) {
+    jdbcTemplate.update(APPLY_DELTA, studentId, score, 1);
+  }
+
+  /**
+   * Records many new grades, applying one delta per student in a single JDBC batch.
+   *
+   * @param totals the score sum and count of the new grades, per student
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void gradesAdded(Map<Integer, long[]> totals) {
+    if (totals.isEmpty()) {
+      return;
+    }
+    List<Object[]> args = new ArrayList<>(totals.size());
+    totals.forEach((studentId, total) -> args.add(new Object[] {studentId, total[0], total[1]}));
+    jdbcTemplate.batchUpdate(APPLY_DELTA, args);
+  }
+
+  /**
+   * Records a change of score.
+   *
+   * @param studentId the student id
+   * @param oldScore the previous score
+   * @param newScore the new score
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void gradeChanged(Integer studentId, int oldScore, int newScore) {
+    if (oldScore != newScore) {
+      jdbcTemplate.update(APPLY_DELTA, studentId, newScore - oldScore, 0);
+    }
+  }
+
+  /**
+   * Records a deleted grade.
+   *
+   * @param studentId the student id
+   * @param score the score of the deleted grade
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void gradeRemoved(Integer studentId, int score) {
+    jdbcTemplate.update(APPLY_DELTA, studentId, -score, -1);
+  }
+
+  /**
+   * Drops a student's summary, for when the student and their grades are deleted.
+   *
+   * @param studentId the student id
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void studentRemoved(Integer studentId) {
+    jdbcTemplate.update("DELETE FROM student_grade_summary WHERE student_id = ?", studentId);
+  }
+
+  /**
+   * Reads a student's summary with a single primary-key lookup.
+   *
+   * <p>Read through JDBC rather than the entity manager so that deltas applied earlier
+   * in the same transaction are always visible.
+   *
+   * @param studentId the student id
+   * @return the summary, or null if the student has never had a grade
+   */
+  @Transactional(readOnly = true)
+  public StudentGradeSummary find(Integer studentId) {
+    List<StudentGradeSummary> rows = jdbcTemplate.query(
+        "SELECT grade_sum, grade_count FROM student_grade_summary WHERE student_id = ?",
+        (rs, i) -> new StudentGradeSummary(studentId, rs.getLong(1), rs.getInt(2)),
+        studentId);
+    return rows.isEmpty() ? null : rows.get(0);
+  }
+
+  /**
+   * Lists the students whose summary disagrees with the grade table.
+   *
+   * @return the mismatches; empty when every summary is consistent
+   */
+  @Transactional(readOnly = true)
+  public List<GradeSummaryMismatch> check() {
+    return jdbcTemplate.query(MISMATCHES, (rs, i) -> new GradeSummaryMismatch(
+        rs.getInt("student_id"),
+        rs.getObject("stored_sum", Long.class),
+        rs.getObject("stored_count", Integer.class),
+        rs.getLong("actual_sum"),
+        rs.getInt("actual_count")));
+  }
+
+  /**
+   * Recomputes every summary from the grade table.
+   *
+   * @return the number of summary rows written
+   */
+  @Transactional
+  public int rebuild() {
+    jdbcTemplate.update("DELETE FROM student_grade_summary");
+    return jdbcTemplate.update("INSERT INTO student_grade_summary "
+        + "(student_id, grade_sum, grade_count) " + ACTUAL_TOTALS);
+  }
+}
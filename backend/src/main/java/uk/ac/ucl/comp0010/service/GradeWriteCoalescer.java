@@ -0,0 +1,374 @@
+package uk.ac.ucl.comp0010.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Entity;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
+import uk.ac.ucl.comp0010.metrics.RequestDbUsage;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+
+/**
+ * Merges concurrent single-grade writes into shared transactions.
+ *
+ * <p>Each {@link #addGrade} call is queued and its thread waits. A single writer takes
+ * the first waiting call, collects any others that arrive within the configured window,
+ * up to the maximum batch size, and records them all in one transaction. Students,
+ * modules and existing grades are checked for the whole batch with one query, and the
+ * new grades are inserted in one JDBC batch. Registrations are checked against the
+ * {@link RegistrationIndex}, so only pairs it does not hold reach the database. Each
+ * caller still gets its own grade or {@link GradeRejectedException}. If the shared
+ * transaction fails, for example on a duplicate that raced the check, every call in it
+ * is retried on its own.
+ *
+ * <p>Configured by {@code app.grades.coalesce.enabled}, {@code .window},
+ * {@code .max-batch} and {@code .timeout}, how long a caller waits for the writer. When
+ * disabled, or once the application is shutting down, each call is recorded on its own
+ * thread instead. Batch sizes are published as {@code app.grade.coalesce.batch.size}.
+ *
+ * <p>The statements of a merged transaction run on the writer's thread and are charged
+ * in full to the per-request database usage of every call in it.
+ */
+@Service
+public class GradeWriteCoalescer implements SmartLifecycle {
+
+  private static final long POLL_MILLIS = 100;
+
+  private static final String CHECK_PAIRS =
+      "SELECT v.student_id, v.module_code, s.id IS NOT NULL AS student_found, "
+      + "m.code IS NOT NULL AS module_found, g.id IS NOT NULL AS graded "
+      + "FROM (VALUES %s) AS v(student_id, module_code) "
+      + "LEFT JOIN student s ON s.id = v.student_id "
+      + "LEFT JOIN module m ON m.code = v.module_code "
+      + "LEFT JOIN grade g ON g.student_id = v.student_id AND g.module_code = v.module_code";
+
+  private static final String PAIR = "(CAST(? AS INT), CAST(? AS VARCHAR))";
+
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManager entityManager;
+  private final JdbcTemplate jdbcTemplate;
+  private final GradeSummaryService gradeSummaryService;
+  private final RegistrationIndex registrationIndex;
+  private final DomainMetrics domainMetrics;
+  private final boolean enabled;
+  private final Duration window;
+  private final int maxBatch;
+  private final Duration timeout;
+
+  private final BlockingQueue<PendingGrade> queue = new LinkedBlockingQueue<>();
+  private final DistributionSummary batchSizes;
+  private final Counter retries;
+
+  private volatile boolean running;
+  private volatile boolean writing;
+  private Thread writer;
+
+  /**
+   * Constructor for GradeWriteCoalescer.
+   *
+   * @param transactionManager the transaction manager
+   * @param entityManager the JPA entity manager
+   * @param jdbcTemplate the JDBC template, sharing the JPA transaction's connection
+   * @param gradeSummaryService the per-student grade summary service
+   * @param registrationIndex the in-memory registration index
+   * @param domainMetrics the rejected-write counters
+   * @param registry the meter registry
+   * @param enabled whether concurrent writes are merged at all
+   * @param window how long the writer waits for more calls after the first
+   * @param maxBatch the most calls merged into one transaction
+   * @param timeout how long a call waits for the writer to record it
+   */
+  public GradeWriteCoalescer(PlatformTransactionManager transactionManager,
+      EntityManager entityManager,
+      JdbcTemplate jdbcTemplate,
+      GradeSummaryService gradeSummaryService,
+      RegistrationIndex registrationIndex,
+      DomainMetrics domainMetrics,
+      MeterRegistry registry,
+      @Value("${app.grades.coalesce.enabled:true}") boolean enabled,
+      @Value("${app.grades.coalesce.window:2ms}") Duration window,
+      @Value("${app.grades.coalesce.max-batch:64}") int maxBatch,
+      @Value("${app.grades.coalesce.timeout:30s}") Duration timeout) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.entityManager = entityManager;
+    this.jdbcTemplate = jdbcTemplate;
+    this.gradeSummaryService = gradeSummaryService;
+    this.registrationIndex = registrationIndex;
+    this.domainMetrics = domainMetrics;
+    this.enabled = enabled;
+    this.window = window;
+    this.maxBatch = Math.max(1, maxBatch);
+    this.timeout = timeout;
+    this.batchSizes = DistributionSummary.builder("app.grade.coalesce.batch.size")
+        .description("Single-grade writes merged into one transaction")
+        .register(registry);
+    this.retries = Counter.builder("app.grade.coalesce.retries")
+        .description("Merged transactions that failed and were retried call by call")
+        .register(registry);
+  }
+
+  /**
+   * Records a grade, sharing a transaction with any concurrent calls.
+   *
+   * @param studentId the student id
+   * @param moduleCode the module code
+   * @param score the score
+   * @return the saved grade
+   * @throws GradeRejectedException if the score is not between 0 and 100, the student or
+   *     module does not exist, the student is not registered on the module, or already
+   *     has a grade for it
+   * @throws IllegalStateException if the writer does not record the grade in time; it
+   *     may still be recorded if the writer had already taken it
+   */
+  public Grade addGrade(Integer studentId, String moduleCode, int score) {
+    if (score < 0 || score > 100) {
+      domainMetrics.rejected(Entity.GRADE, Reason.INVALID);
+      throw new GradeRejectedException(Reason.INVALID, "Score must be between 0 and 100");
+    }
+    PendingGrade pending = new PendingGrade(studentId, moduleCode, score);
+    if (enabled && running && writing) {
+      queue.add(pending);
+      // The writer may have stopped between the check and the add
+      if (!(running && writing) && queue.remove(pending)) {
+        write(List.of(pending));
+      }
+    } else {
+      write(List.of(pending));
+    }
+    try {
+      return pending.result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof TimeoutException) {
+        queue.remove(pending);
+        throw new IllegalStateException("Timed out waiting for the grade writer", e.getCause());
+      }
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    if (enabled) {
+      writing = true;
+      writer = new Thread(this::run, "grade-writes");
+      writer.setDaemon(true);
+      writer.start();
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (writer != null) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Stops after the web server, so requests finishing during a graceful shutdown are
+   * still merged, and before the event pipeline, so their events are delivered.
+   */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 3072;
+  }
+
+  private void run() {
+    try {
+      takeBatches();
+    } finally {
+      writing = false;
+      // Calls queued once the writer is gone would otherwise wait for their timeout
+      List<PendingGrade> left = new ArrayList<>();
+      queue.drainTo(left);
+      IllegalStateException stopped = new IllegalStateException("The grade writer has stopped");
+      left.forEach(p -> p.result.completeExceptionally(stopped));
+    }
+  }
+
+  private void takeBatches() {
+    List<PendingGrade> batch = new ArrayList<>(maxBatch);
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingGrade first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + window.toNanos();
+        while (batch.size() < maxBatch) {
+          queue.drainTo(batch, maxBatch - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() == maxBatch || remaining <= 0) {
+            break;
+          }
+          PendingGrade next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        write(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        batch.forEach(p -> p.result.completeExceptionally(e));
+        return;
+      } catch (Throwable e) {
+        // Fails this batch's calls, not the writer, so later calls are still recorded
+        batch.forEach(p -> p.result.completeExceptionally(e));
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  /**
+   * Records a batch in one transaction, then completes each call once it has committed.
+   */
+  private void write(List<PendingGrade> batch) {
+    batchSizes.record(batch.size());
+    List<Outcome> outcomes;
+    try {
+      outcomes = RequestDbUsage.chargedTo(batch.stream().map(PendingGrade::usage).toList(),
+          () -> transactionTemplate.execute(status -> record(batch)));
+    } catch (RuntimeException e) {
+      if (batch.size() == 1) {
+        batch.get(0).result.completeExceptionally(e);
+      } else {
+        retries.increment();
+        batch.forEach(pending -> write(List.of(pending)));
+      }
+      return;
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      Outcome outcome = outcomes.get(i);
+      if (outcome.grade() != null) {
+        batch.get(i).result.complete(outcome.grade());
+      } else {
+        domainMetrics.rejected(Entity.GRADE, outcome.rejection().getReason());
+        batch.get(i).result.completeExceptionally(outcome.rejection());
+      }
+    }
+  }
+
+  private List<Outcome> record(List<PendingGrade> batch) {
+    Map<String, PairCheck> checks = checkPairs(batch);
+    Set<String> graded = new HashSet<>();
+    Map<Integer, long[]> totals = new HashMap<>();
+    List<Outcome> outcomes = new ArrayList<>(batch.size());
+    for (PendingGrade pending : batch) {
+      String key = BatchSupport.pairKey(pending.studentId(), pending.moduleCode());
+      PairCheck check = checks.get(key);
+      if (!check.studentFound()) {
+        outcomes.add(Outcome.rejected(Reason.NOT_FOUND, "Student not found"));
+      } else if (!check.moduleFound()) {
+        outcomes.add(Outcome.rejected(Reason.NOT_FOUND, "Module not found"));
+      } else if (!registrationIndex.isRegistered(pending.studentId(), pending.moduleCode())) {
+        outcomes.add(Outcome.rejected(Reason.NOT_REGISTERED,
+            "Student must be registered for this module before receiving a grade"));
+      } else if (check.graded() || !graded.add(key)) {
+        outcomes.add(Outcome.rejected(Reason.DUPLICATE,
+            "Student already has a grade for this module"));
+      } else {
+        // Both are in the second-level cache, so these rarely reach the database
+        Grade grade = new Grade(pending.score(),
+            entityManager.find(Student.class, pending.studentId()),
+            entityManager.find(Module.class, pending.moduleCode()));
+        entityManager.persist(grade);
+        outcomes.add(new Outcome(grade, null));
+        long[] total = totals.computeIfAbsent(pending.studentId(), id -> new long[2]);
+        total[0] += pending.score();
+        total[1]++;
+      }
+    }
+    entityManager.flush();
+    gradeSummaryService.gradesAdded(totals);
+    return outcomes;
+  }
+
+  /**
+   * Checks every distinct (student, module) pair of a batch with a single query.
+   */
+  private Map<String, PairCheck> checkPairs(List<PendingGrade> batch) {
+    Set<String> keys = new LinkedHashSet<>();
+    List<Object> args = new ArrayList<>();
+    for (PendingGrade pending : batch) {
+      if (keys.add(BatchSupport.pairKey(pending.studentId(), pending.moduleCode()))) {
+        args.add(pending.studentId());
+        args.add(pending.moduleCode());
+      }
+    }
+    String sql = CHECK_PAIRS.formatted(String.join(", ", Collections.nCopies(keys.size(), PAIR)));
+    Map<String, PairCheck> checks = new HashMap<>();
+    jdbcTemplate.query(sql, (RowCallbackHandler) rs -> checks.put(
+        BatchSupport.pairKey(rs.getInt("student_id"), rs.getString("module_code")),
+        new PairCheck(rs.getBoolean("student_found"), rs.getBoolean("module_found"),
+            rs.getBoolean("graded"))),
+        args.toArray());
+    return checks;
+  }
+
+  /**
+   * A queued call, completed by the writer.
+   */
+  private record PendingGrade(Integer studentId, String moduleCode, int score,
+      CompletableFuture<Grade> result, RequestDbUsage.Totals usage) {
+
+    PendingGrade(Integer studentId, String moduleCode, int score) {
+      this(studentId, moduleCode, score, new CompletableFuture<>(), RequestDbUsage.current());
+    }
+  }
+
+  private record PairCheck(boolean studentFound, boolean moduleFound, boolean graded) {}
+
+  private record Outcome(Grade grade, GradeRejectedException rejection) {
+
+    static Outcome rejected(Reason reason, String message) {
+      return new Outcome(null, new GradeRejectedException(reason, message));
+    }
+  }
+}
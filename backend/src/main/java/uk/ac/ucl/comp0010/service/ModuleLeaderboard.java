@@ -0,0 +1,306 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import uk.ac.ucl.comp0010.dto.LeaderboardEntry;
+import uk.ac.ucl.comp0010.dto.StudentRank;
+import uk.ac.ucl.comp0010.events.DomainEvent;
+import uk.ac.ucl.comp0010.events.DomainEventConsumer;
+import uk.ac.ucl.comp0010.events.GradeChanged;
+import uk.ac.ucl.comp0010.events.GradeRecorded;
+import uk.ac.ucl.comp0010.events.GradeRemoved;
+
+/**
+ * In-memory leaderboard of every module's scores.
+ *
+ * <p>Scores are whole numbers from 0 to 100, so each module keeps one bucket per score,
+ * holding the count and a compressed bitmap of the students on it. A rank is the number
+ * of students in the buckets above, and the top n is read from the highest buckets down,
+ * so neither depends on the number of grades. Loaded when the application starts and
+ * kept up to date from committed grade events, in batches off the request thread (see
+ * {@link uk.ac.ucl.comp0010.events.DomainEventPipeline}), so a write shows up here
+ * shortly after it commits rather than immediately.
+ *
+ * <p>With {@code app.indexes.load-on-startup=false} nothing is loaded at startup;
+ * instead each module's scores are loaded the first time it is asked for, so startup
+ * time does not depend on how many grades there are.
+ */
+@Service
+public class ModuleLeaderboard implements DomainEventConsumer {
+
+  /** The highest possible score. */
+  static final int MAX_SCORE = 100;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean loadOnStartup;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** The loaded modules; once fully loaded, a module that is absent has no scores. */
+  private Map<String, ModuleScores> byModule = new HashMap<>();
+  private boolean loaded;
+
+  /**
+   * Constructor for ModuleLeaderboard.
+   *
+   * @param jdbcTemplate the JDBC template used to load the leaderboard
+   * @param loadOnStartup whether to load every module once the application is ready,
+   *     rather than each module on first use
+   */
+  public ModuleLeaderboard(JdbcTemplate jdbcTemplate,
+      @Value("${app.indexes.load-on-startup:true}") boolean loadOnStartup) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.loadOnStartup = loadOnStartup;
+  }
+
+  /**
+   * Loads the whole leaderboard once the application is ready, unless modules are
+   * loaded on first use.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (loadOnStartup) {
+      load();
+    }
+  }
+
+  /**
+   * Loads every graded score into the leaderboard, replacing its contents. The query runs
+   * under the write lock, so no event applied while it runs can be lost.
+   */
+  public void load() {
+    lock.writeLock().lock();
+    try {
+      Map<String, ModuleScores> loading = new HashMap<>();
+      jdbcTemplate.query(
+          "SELECT module_code, student_id, score FROM grade WHERE score IS NOT NULL",
+          (RowCallbackHandler) rs -> loading
+              .computeIfAbsent(rs.getString(1), c -> new ModuleScores())
+              .put(rs.getInt(2), rs.getInt(3)));
+      byModule = loading;
+      loaded = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the highest-scoring students of a module, ties ordered by student id.
+   *
+   * @param moduleCode the module code
+   * @param n the maximum number of entries
+   * @return up to n entries, best first; empty if the module has no graded students
+   */
+  public List<LeaderboardEntry> top(String moduleCode, int n) {
+    lock.readLock().lock();
+    try {
+      if (isLoaded(moduleCode)) {
+        ModuleScores scores = byModule.get(moduleCode);
+        return scores == null ? List.of() : scores.top(n);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    lock.writeLock().lock();
+    try {
+      return loadModule(moduleCode).top(n);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Gets a student's rank in a module.
+   *
+   * @param moduleCode the module code
+   * @param studentId the student id
+   * @return the rank, or null if the student has no score in the module
+   */
+  public StudentRank rank(String moduleCode, Integer studentId) {
+    lock.readLock().lock();
+    try {
+      if (isLoaded(moduleCode)) {
+        return rank(byModule.get(moduleCode), moduleCode, studentId);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    lock.writeLock().lock();
+    try {
+      return rank(loadModule(moduleCode), moduleCode, studentId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void consume(List<DomainEvent> events) {
+    lock.writeLock().lock();
+    try {
+      for (DomainEvent event : events) {
+        if (event instanceof GradeRecorded recorded) {
+          apply(recorded.studentId(), recorded.moduleCode(), recorded.score());
+        } else if (event instanceof GradeChanged changed) {
+          apply(changed.studentId(), changed.moduleCode(), changed.score());
+        } else if (event instanceof GradeRemoved removed) {
+          apply(removed.studentId(), removed.moduleCode(), null);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void resync() {
+    if (loadOnStartup) {
+      load();
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      byModule = new HashMap<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Checks whether a module's scores are in memory. Before the whole leaderboard has
+   * loaded, including while the startup load is still to run, only modules already
+   * asked for are.
+   */
+  private boolean isLoaded(String moduleCode) {
+    return loaded || byModule.containsKey(moduleCode);
+  }
+
+  /**
+   * Loads one module's scores; the caller holds the write lock. Events are applied
+   * under the same lock, so none is lost: anything committed before the query is in
+   * its result, and any later event is applied to the loaded scores.
+   */
+  private ModuleScores loadModule(String moduleCode) {
+    ModuleScores scores = byModule.get(moduleCode);
+    if (scores == null) {
+      ModuleScores loading = new ModuleScores();
+      jdbcTemplate.query(
+          "SELECT student_id, score FROM grade WHERE module_code = ? AND score IS NOT NULL",
+          (RowCallbackHandler) rs -> loading.put(rs.getInt(1), rs.getInt(2)), moduleCode);
+      byModule.put(moduleCode, loading);
+      scores = loading;
+    }
+    return scores;
+  }
+
+  private static StudentRank rank(ModuleScores scores, String moduleCode, Integer studentId) {
+    Integer score = scores == null ? null : scores.scoreOf(studentId);
+    if (score == null) {
+      return null;
+    }
+    return new StudentRank(moduleCode, studentId, score, scores.higherThan(score) + 1,
+        scores.size());
+  }
+
+  private void apply(Integer studentId, String moduleCode, Integer score) {
+    if (score != null) {
+      // A module not loaded yet reads the score from the database when it is
+      if (loaded) {
+        byModule.computeIfAbsent(moduleCode, c -> new ModuleScores()).put(studentId, score);
+      } else if (byModule.containsKey(moduleCode)) {
+        byModule.get(moduleCode).put(studentId, score);
+      }
+    } else {
+      ModuleScores scores = byModule.get(moduleCode);
+      if (scores != null) {
+        scores.remove(studentId);
+        if (scores.size() == 0) {
+          byModule.remove(moduleCode);
+        }
+      }
+    }
+  }
+
+  /**
+   * One module's scores, bucketed by score.
+   */
+  private static final class ModuleScores {
+    private final int[] counts = new int[MAX_SCORE + 1];
+    private final RoaringBitmap[] students = new RoaringBitmap[MAX_SCORE + 1];
+    private final Map<Integer, Integer> scoreByStudent = new HashMap<>();
+
+    void put(int studentId, int score) {
+      // Every write path refuses scores outside 0-100; one stored before that is unranked
+      if (score < 0 || score > MAX_SCORE) {
+        remove(studentId);
+        return;
+      }
+      Integer old = scoreByStudent.put(studentId, score);
+      if (old != null) {
+        leave(studentId, old);
+      }
+      if (students[score] == null) {
+        students[score] = new RoaringBitmap();
+      }
+      students[score].add(studentId);
+      counts[score]++;
+    }
+
+    void remove(int studentId) {
+      Integer old = scoreByStudent.remove(studentId);
+      if (old != null) {
+        leave(studentId, old);
+      }
+    }
+
+    Integer scoreOf(int studentId) {
+      return scoreByStudent.get(studentId);
+    }
+
+    int size() {
+      return scoreByStudent.size();
+    }
+
+    int higherThan(int score) {
+      int higher = 0;
+      for (int s = score + 1; s <= MAX_SCORE; s++) {
+        higher += counts[s];
+      }
+      return higher;
+    }
+
+    List<LeaderboardEntry> top(int n) {
+      List<LeaderboardEntry> top = new ArrayList<>(Math.min(n, size()));
+      int ahead = 0;
+      for (int score = MAX_SCORE; score >= 0 && top.size() < n; score--) {
+        if (counts[score] == 0) {
+          continue;
+        }
+        int rank = ahead + 1;
+        IntIterator ids = students[score].getIntIterator();
+        while (ids.hasNext() && top.size() < n) {
+          top.add(new LeaderboardEntry(rank, ids.next(), score));
+        }
+        ahead += counts[score];
+      }
+      return top;
+    }
+
+    private void leave(int studentId, int score) {
+      students[score].remove(studentId);
+      counts[score]--;
+    }
+  }
+}
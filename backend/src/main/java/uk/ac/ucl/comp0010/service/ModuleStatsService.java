@@ -0,0 +1,117 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import uk.ac.ucl.comp0010.dto.ModuleStats;
+
+/**
+ * Service computing per-module score statistics in the database.
+ *
+ * <p>Every statistic is a {@code GROUP BY} aggregate over the grade table, served by the
+ * {@code (module_code, score)} index, so no grade rows are loaded into memory.
+ */
+@Service
+public class ModuleStatsService {
+
+  /** The lowest passing score. */
+  static final int PASS_MARK = 40;
+
+  /**
+   * The number of histogram buckets; the last one also holds a score of 100. A score
+   * outside 0-100, stored before writes were range-checked, falls in the nearest end one.
+   */
+  static final int BUCKETS = 10;
+
+  private static final String AGGREGATES =
+      "SELECT m.code AS module_code, COUNT(g.score) AS grade_count, "
+      + "AVG(CAST(g.score AS DOUBLE PRECISION)) AS mean, "
+      + "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY g.score) AS median, "
+      + "MIN(g.score) AS min_score, MAX(g.score) AS max_score, "
+      + "STDDEV_POP(g.score) AS stddev, "
+      + "SUM(CASE WHEN g.score >= " + PASS_MARK + " THEN 1 ELSE 0 END) AS passed "
+      + "FROM module m LEFT JOIN grade g ON g.module_code = m.code AND g.score IS NOT NULL ";
+
+  private static final String BUCKET = "GREATEST(0, LEAST(score / 10, " + (BUCKETS - 1) + "))";
+
+  private static final String HISTOGRAM =
+      "SELECT module_code, " + BUCKET + " AS bucket, COUNT(*) AS grade_count "
+      + "FROM grade WHERE score IS NOT NULL ";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for ModuleStatsService.
+   *
+   * @param jdbcTemplate the JDBC template
+   */
+  public ModuleStatsService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Computes the statistics for one module.
+   *
+   * @param code the module code
+   * @return the statistics, or null if the module does not exist
+   */
+  @Transactional(readOnly = true)
+  public ModuleStats forModule(String code) {
+    Map<String, long[]> histograms = new HashMap<>();
+    jdbcTemplate.query(HISTOGRAM + "AND module_code = ? GROUP BY module_code, " + BUCKET,
+        (RowCallbackHandler) rs -> addBucket(histograms, rs), code);
+    List<ModuleStats> stats = jdbcTemplate.query(
+        AGGREGATES + "WHERE m.code = ? GROUP BY m.code",
+        (rs, i) -> toStats(rs, histograms), code);
+    return stats.isEmpty() ? null : stats.get(0);
+  }
+
+  /**
+   * Computes the statistics for every module, including modules with no grades.
+   *
+   * @return the statistics, ordered by module code
+   */
+  @Transactional(readOnly = true)
+  public List<ModuleStats> forAllModules() {
+    Map<String, long[]> histograms = new LinkedHashMap<>();
+    jdbcTemplate.query(HISTOGRAM + "GROUP BY module_code, " + BUCKET,
+        (RowCallbackHandler) rs -> addBucket(histograms, rs));
+    return new ArrayList<>(jdbcTemplate.query(
+        AGGREGATES + "GROUP BY m.code ORDER BY m.code",
+        (rs, i) -> toStats(rs, histograms)));
+  }
+
+  private static void addBucket(Map<String, long[]> histograms, ResultSet rs)
+      throws SQLException {
+    histograms.computeIfAbsent(rs.getString("module_code"), c -> new long[BUCKETS])
+        [rs.getInt("bucket")] = rs.getLong("grade_count");
+  }
+
+  private static ModuleStats toStats(ResultSet rs, Map<String, long[]> histograms)
+      throws SQLException {
+    String code = rs.getString("module_code");
+    long count = rs.getLong("grade_count");
+    long[] buckets = histograms.getOrDefault(code, new long[BUCKETS]);
+    return new ModuleStats(
+        code,
+        count,
+        rs.getObject("mean", Double.class),
+        rs.getObject("median", Double.class),
+        rs.getObject("min_score", Integer.class),
+        rs.getObject("max_score", Integer.class),
+        rs.getObject("stddev", Double.class),
+        count == 0 ? null : rs.getLong("passed") / (double) count,
+        Arrays.stream(buckets).boxed().toList());
+  }
+}
@@ -0,0 +1,273 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import uk.ac.ucl.comp0010.dto.RegistrationIndexStats;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+
+/**
+ * In-memory index of which students are registered on which modules.
+ *
+ * <p>Holds one compressed bitmap of student ids per module, loaded when the application
+ * starts and updated after each registration insert or delete commits (see
+ * {@link RegistrationIndexListener}). A lookup that is not in the index falls back to
+ * the database, so registrations written outside JPA are still found, and are then
+ * added to the index.
+ *
+ * <p>With {@code app.indexes.load-on-startup=false} nothing is loaded at startup;
+ * instead each module's bitmap is loaded the first time it is looked up, so startup
+ * time does not depend on how many registrations there are.
+ */
+@Service
+public class RegistrationIndex {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final RegistrationRepository registrationRepo;
+  private final boolean loadOnStartup;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  /** The loaded modules; once fully loaded, a module that is absent has no registrations. */
+  private Map<String, RoaringBitmap> byModule = new HashMap<>();
+  private volatile boolean loaded;
+
+  /**
+   * Constructor for RegistrationIndex.
+   *
+   * @param jdbcTemplate the JDBC template used to load the index
+   * @param registrationRepo the registration repository used on a miss
+   * @param loadOnStartup whether to load every module once the application is ready,
+   *     rather than each module on first use
+   */
+  public RegistrationIndex(JdbcTemplate jdbcTemplate, RegistrationRepository registrationRepo,
+      @Value("${app.indexes.load-on-startup:true}") boolean loadOnStartup) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.registrationRepo = registrationRepo;
+    this.loadOnStartup = loadOnStartup;
+  }
+
+  /**
+   * Loads the whole index once the application is ready, unless modules are loaded on
+   * first use.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (loadOnStartup) {
+      load();
+    }
+  }
+
+  /**
+   * Loads every registration into the index, replacing its contents. The query runs under
+   * the write lock, so no commit applied while it runs can be lost.
+   */
+  public void load() {
+    lock.writeLock().lock();
+    try {
+      Map<String, RoaringBitmap> loading = new HashMap<>();
+      jdbcTemplate.query("SELECT module_code, student_id FROM registration",
+          (RowCallbackHandler) rs -> loading
+              .computeIfAbsent(rs.getString(1), c -> new RoaringBitmap())
+              .add(rs.getInt(2)));
+      loading.values().forEach(RoaringBitmap::runOptimize);
+      byModule = loading;
+      loaded = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the contents after registrations were written without {@link #added}:
+   * reloads every module if the index is loaded at startup, or else forgets the loaded
+   * modules so each is read again on first use.
+   */
+  public void resync() {
+    if (loadOnStartup) {
+      load();
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      byModule = new HashMap<>();
+      loaded = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Checks whether a student is registered on a module.
+   *
+   * @param studentId the student id
+   * @param moduleCode the module code
+   * @return true if the registration exists
+   */
+  public boolean isRegistered(Integer studentId, String moduleCode) {
+    if (contains(studentId, moduleCode)) {
+      hits.increment();
+      return true;
+    }
+    misses.increment();
+    return readThrough(studentId, moduleCode);
+  }
+
+  /**
+   * Records a new registration once the current transaction commits.
+   *
+   * @param studentId the student id
+   * @param moduleCode the module code
+   */
+  public void added(Integer studentId, String moduleCode) {
+    AfterCommit.run(() -> apply(studentId, moduleCode, true));
+  }
+
+  /**
+   * Records many new registrations once the current transaction commits, taking the lock
+   * once for all of them.
+   *
+   * @param studentsByModule the ids of the newly registered students of each module
+   */
+  public void addedAll(Map<String, ? extends Collection<Integer>> studentsByModule) {
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        studentsByModule.forEach((moduleCode, studentIds) ->
+            studentIds.forEach(studentId -> apply(studentId, moduleCode, true)));
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Records a deleted registration once the current transaction commits.
+   *
+   * @param studentId the student id
+   * @param moduleCode the module code
+   */
+  public void removed(Integer studentId, String moduleCode) {
+    AfterCommit.run(() -> apply(studentId, moduleCode, false));
+  }
+
+  /**
+   * Reports the size and hit rate of the index.
+   *
+   * @return the current statistics
+   */
+  public RegistrationIndexStats stats() {
+    int modules;
+    long registrations = 0;
+    long bytes = 0;
+    lock.readLock().lock();
+    try {
+      modules = byModule.size();
+      for (RoaringBitmap students : byModule.values()) {
+        registrations += students.getLongCardinality();
+        bytes += students.serializedSizeInBytes();
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    long h = hits.sum();
+    long m = misses.sum();
+    return new RegistrationIndexStats(loaded, modules, registrations, bytes, h, m,
+        h + m == 0 ? 0 : h / (double) (h + m));
+  }
+
+  private boolean contains(Integer studentId, String moduleCode) {
+    lock.readLock().lock();
+    try {
+      RoaringBitmap students = byModule.get(moduleCode);
+      if (students != null || loaded) {
+        return students != null && students.contains(studentId);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (loadOnStartup) {
+      // Not loaded yet; the caller falls back to the database
+      return false;
+    }
+    return loadModule(moduleCode).contains(studentId);
+  }
+
+  /**
+   * Loads one module's registrations. The query runs under the write lock, so no commit
+   * applied while it runs can be lost: anything committed before it is in the result,
+   * and anything after is applied to the loaded bitmap.
+   */
+  private RoaringBitmap loadModule(String moduleCode) {
+    lock.writeLock().lock();
+    try {
+      RoaringBitmap students = byModule.get(moduleCode);
+      if (students == null) {
+        RoaringBitmap loading = new RoaringBitmap();
+        jdbcTemplate.query("SELECT student_id FROM registration WHERE module_code = ?",
+            (RowCallbackHandler) rs -> loading.add(rs.getInt(1)), moduleCode);
+        loading.runOptimize();
+        byModule.put(moduleCode, loading);
+        students = loading;
+      }
+      return students;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Reads one registration from the database, adding it to the index if it exists. Like
+   * {@link #loadModule}, the read runs under the write lock, so a delete committed after
+   * it is applied after the registration is added, rather than before and then undone.
+   */
+  private boolean readThrough(Integer studentId, String moduleCode) {
+    lock.writeLock().lock();
+    try {
+      boolean registered = registrationRepo.existsByStudentIdAndModuleCode(studentId, moduleCode);
+      if (registered) {
+        apply(studentId, moduleCode, true);
+      }
+      return registered;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void apply(Integer studentId, String moduleCode, boolean registered) {
+    lock.writeLock().lock();
+    try {
+      if (registered) {
+        // A module not loaded yet reads the registration from the database when it is
+        if (loaded) {
+          byModule.computeIfAbsent(moduleCode, c -> new RoaringBitmap()).add(studentId);
+        } else if (byModule.containsKey(moduleCode)) {
+          byModule.get(moduleCode).add(studentId);
+        }
+      } else {
+        RoaringBitmap students = byModule.get(moduleCode);
+        if (students != null) {
+          students.remove(studentId);
+          if (students.isEmpty()) {
+            byModule.remove(moduleCode);
+          }
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package uk.ac.ucl.comp0010.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import uk.ac.ucl.comp0010.model.Registration;
+
+/**
+ * JPA entity listener that keeps the {@link RegistrationIndex} in step with every
+ * registration persisted or removed through the entity manager, including cascades
+ * from deleting a student.
+ *
+ * <p>Instantiated by Hibernate through Spring's bean container. The index is looked up
+ * lazily because test slices run without it.
+ */
+public class RegistrationIndexListener {
+
+  private final ObjectProvider<RegistrationIndex> index;
+
+  /**
+   * Constructor for RegistrationIndexListener.
+   *
+   * @param index the registration index, if present in the context
+   */
+  public RegistrationIndexListener(ObjectProvider<RegistrationIndex> index) {
+    this.index = index;
+  }
+
+  @PostPersist
+  void persisted(Registration registration) {
+    index.ifAvailable(i -> i.added(
+        registration.getStudent().getId(), registration.getModule().getCode()));
+  }
+
+  @PostRemove
+  void removed(Registration registration) {
+    index.ifAvailable(i -> i.removed(
+        registration.getStudent().getId(), registration.getModule().getCode()));
+  }
+}
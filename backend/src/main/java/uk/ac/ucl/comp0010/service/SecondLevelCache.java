@@ -0,0 +1,65 @@
+package uk.ac.ucl.comp0010.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import uk.ac.ucl.comp0010.dto.CacheRegionStats;
+
+/**
+ * Reports on and clears Hibernate's second-level and query caches.
+ *
+ * <p>Hibernate keeps the caches consistent with writes made through JPA. Anything that
+ * writes the student or module tables directly must call {@link #evictAll()} afterwards.
+ */
+@Service
+public class SecondLevelCache {
+
+  private final SessionFactory sessionFactory;
+
+  /**
+   * Constructor for SecondLevelCache.
+   *
+   * @param entityManagerFactory the JPA entity manager factory
+   */
+  public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+    this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+  }
+
+  /**
+   * Reports the hit rate and size of every cache region.
+   *
+   * @return the statistics, ordered by region name
+   */
+  public List<CacheRegionStats> stats() {
+    Statistics statistics = sessionFactory.getStatistics();
+    String[] regions = statistics.getSecondLevelCacheRegionNames();
+    Arrays.sort(regions);
+    List<CacheRegionStats> result = new ArrayList<>(regions.length);
+    for (String region : regions) {
+      CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+      if (regionStats == null) {
+        continue;
+      }
+      long hits = regionStats.getHitCount();
+      long misses = regionStats.getMissCount();
+      result.add(new CacheRegionStats(region, hits, misses, regionStats.getPutCount(),
+          regionStats.getElementCountInMemory(),
+          hits + misses == 0 ? 0 : hits / (double) (hits + misses)));
+    }
+    return result;
+  }
+
+  /**
+   * Drops every cached entity and query result.
+   */
+  public void evictAll() {
+    sessionFactory.getCache().evictAllRegions();
+  }
+}
@@ -0,0 +1,398 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import uk.ac.ucl.comp0010.model.Student;
+
+/**
+ * In-memory search index over students' first names, last names, usernames and emails.
+ *
+ * <p>Each field is lower-cased, stripped of accents and split into tokens at anything
+ * other than a letter or digit, so "Zoë O'Brien" is indexed as zoe, o and brien, and
+ * "alice.smith@ucl.ac.uk" as alice, smith, ucl, ac and uk. A sorted map from each token
+ * to a bitmap of the students having it answers exact and prefix lookups.
+ *
+ * <p>A query is split the same way and each of its terms must match one of a student's
+ * tokens: exactly, as a prefix, or, for terms of at least {@link #FUZZY_MIN_LENGTH}
+ * characters, after one edit (a character missing, added, changed or swapped with its
+ * neighbour). Students score three points per exact term, two per prefix and one per
+ * fuzzy match, and are ranked by score, then by id.
+ *
+ * <p>Writes through JPA reach the index via {@link StudentSearchIndexListener} once they
+ * commit; bulk writes call {@link #savedAll} or {@link #resync} themselves. The index is
+ * loaded once the application is ready, or on the first search if
+ * {@code app.indexes.load-on-startup} is false.
+ */
+@Service
+public class StudentSearchIndex {
+
+  /** The shortest term also matched with one edit. */
+  static final int FUZZY_MIN_LENGTH = 4;
+
+  /** The most tokens a prefix reads for one term, so a one-letter prefix stays cheap. */
+  private static final int MAX_PREFIX_TOKENS = 1_000;
+
+  /** The most tokens read for each one-edit variant of a term used as a prefix. */
+  private static final int MAX_FUZZY_PREFIX_TOKENS = 16;
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+  private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score)
+      .reversed().thenComparing((a, b) -> Integer.compareUnsigned(a.id(), b.id()));
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean loadOnStartup;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<String, RoaringBitmap> students = new TreeMap<>();
+  private final Map<Integer, String[]> tokensByStudent = new HashMap<>();
+  private volatile boolean loaded;
+
+  /**
+   * Constructor for StudentSearchIndex.
+   *
+   * @param jdbcTemplate the JDBC template used to load the index
+   * @param loadOnStartup whether to load the index once the application is ready,
+   *     rather than on the first search
+   */
+  public StudentSearchIndex(JdbcTemplate jdbcTemplate,
+      @Value("${app.indexes.load-on-startup:true}") boolean loadOnStartup) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.loadOnStartup = loadOnStartup;
+  }
+
+  /**
+   * Loads the index once the application is ready, unless it is loaded on first search.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (loadOnStartup) {
+      load();
+    }
+  }
+
+  /**
+   * Loads every student into the index, replacing its contents. The query runs under
+   * the write lock, so no commit applied while it runs can be lost.
+   */
+  public void load() {
+    lock.writeLock().lock();
+    try {
+      students.clear();
+      tokensByStudent.clear();
+      jdbcTemplate.query("SELECT id, first_name, last_name, username, email FROM student",
+          (RowCallbackHandler) rs -> put(rs.getInt(1),
+              tokens(rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5))));
+      students.values().forEach(RoaringBitmap::runOptimize);
+      loaded = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the contents after students were written without {@link #saved}: reloads
+   * the index if it is loaded at startup, or else empties it until the next search.
+   */
+  public void resync() {
+    if (loadOnStartup) {
+      load();
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      students.clear();
+      tokensByStudent.clear();
+      loaded = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Records a created or updated student once the current transaction commits.
+   *
+   * @param student the student, as saved
+   */
+  public void saved(Student student) {
+    savedAll(List.of(student));
+  }
+
+  /**
+   * Records created or updated students once the current transaction commits, taking
+   * the lock once for all of them.
+   *
+   * @param saved the students, as saved
+   */
+  public void savedAll(Collection<Student> saved) {
+    Map<Integer, String[]> tokensById = new HashMap<>();
+    for (Student student : saved) {
+      tokensById.put(student.getId(), tokens(student.getFirstName(), student.getLastName(),
+          student.getUsername(), student.getEmail()));
+    }
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        // Not loaded yet; the load reads these from the database
+        if (loaded) {
+          tokensById.forEach(this::put);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Records a deleted student once the current transaction commits.
+   *
+   * @param studentId the student id
+   */
+  public void removed(Integer studentId) {
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        remove(studentId);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Finds the students best matching a query.
+   *
+   * @param query words to look for in students' names, usernames and emails
+   * @param limit the most students to return
+   * @return the ids of the matching students, best match first; empty if the query has
+   *     no letters or digits
+   */
+  public List<Integer> search(String query, int limit) {
+    Set<String> terms = new LinkedHashSet<>();
+    tokenize(query, terms);
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+    if (!loaded) {
+      loadOnFirstSearch();
+    }
+    lock.readLock().lock();
+    try {
+      List<TermMatch> matches = new ArrayList<>(terms.size());
+      for (String term : terms) {
+        matches.add(match(term));
+      }
+      return matches.size() == 1 ? rank(matches.get(0), limit) : rank(matches, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Splits text into index tokens.
+   *
+   * @param fields the text; null fields are skipped
+   * @return the distinct tokens
+   */
+  static String[] tokens(String... fields) {
+    Set<String> tokens = new LinkedHashSet<>();
+    for (String field : fields) {
+      tokenize(field, tokens);
+    }
+    return tokens.toArray(new String[0]);
+  }
+
+  private static void tokenize(String text, Set<String> tokens) {
+    if (text == null) {
+      return;
+    }
+    String normalized = text;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) >= 0x80) {
+        normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+            .replaceAll("");
+        break;
+      }
+    }
+    normalized = normalized.toLowerCase(Locale.ROOT);
+    int start = -1;
+    for (int i = 0; i <= normalized.length(); i++) {
+      boolean part = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+      if (part && start < 0) {
+        start = i;
+      } else if (!part && start >= 0) {
+        tokens.add(normalized.substring(start, i));
+        start = -1;
+      }
+    }
+  }
+
+  private void loadOnFirstSearch() {
+    lock.writeLock().lock();
+    try {
+      if (!loaded) {
+        load();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void put(Integer studentId, String[] tokens) {
+    remove(studentId);
+    for (String token : tokens) {
+      students.computeIfAbsent(token, t -> new RoaringBitmap()).add(studentId);
+    }
+    tokensByStudent.put(studentId, tokens);
+  }
+
+  private void remove(Integer studentId) {
+    String[] tokens = tokensByStudent.remove(studentId);
+    if (tokens == null) {
+      return;
+    }
+    for (String token : tokens) {
+      RoaringBitmap ids = students.get(token);
+      ids.remove(studentId);
+      if (ids.isEmpty()) {
+        students.remove(token);
+      }
+    }
+  }
+
+  /**
+   * Finds the students matching one term; the caller holds the read lock.
+   */
+  private TermMatch match(String term) {
+    RoaringBitmap exact = students.getOrDefault(term, new RoaringBitmap());
+    RoaringBitmap prefix = exact.clone();
+    addPrefixed(term, MAX_PREFIX_TOKENS, prefix);
+    RoaringBitmap any = prefix.clone();
+    if (term.length() >= FUZZY_MIN_LENGTH) {
+      for (String variant : oneEditVariants(term)) {
+        RoaringBitmap ids = students.get(variant);
+        if (ids != null) {
+          any.or(ids);
+        }
+        addPrefixed(variant, MAX_FUZZY_PREFIX_TOKENS, any);
+      }
+    }
+    return new TermMatch(exact, prefix, any);
+  }
+
+  private void addPrefixed(String prefix, int maxTokens, RoaringBitmap into) {
+    int read = 0;
+    for (Map.Entry<String, RoaringBitmap> entry : students.tailMap(prefix, false).entrySet()) {
+      if (!entry.getKey().startsWith(prefix) || ++read > maxTokens) {
+        return;
+      }
+      into.or(entry.getValue());
+    }
+  }
+
+  private static Set<String> oneEditVariants(String term) {
+    Set<String> variants = new HashSet<>();
+    for (int i = 0; i <= term.length(); i++) {
+      String head = term.substring(0, i);
+      String rest = term.substring(i);
+      for (int c = 0; c < ALPHABET.length(); c++) {
+        variants.add(head + ALPHABET.charAt(c) + rest);
+      }
+      if (i < term.length()) {
+        String after = term.substring(i + 1);
+        variants.add(head + after);
+        for (int c = 0; c < ALPHABET.length(); c++) {
+          variants.add(head + ALPHABET.charAt(c) + after);
+        }
+        if (!after.isEmpty()) {
+          variants.add(head + after.charAt(0) + term.charAt(i) + after.substring(1));
+        }
+      }
+    }
+    variants.remove(term);
+    return variants;
+  }
+
+  /**
+   * Ranks a one-term query a score tier at a time, reading only as many ids as needed.
+   */
+  private static List<Integer> rank(TermMatch match, int limit) {
+    List<Integer> ids = new ArrayList<>(limit);
+    take(match.exact(), ids, limit);
+    take(RoaringBitmap.andNot(match.prefix(), match.exact()), ids, limit);
+    take(RoaringBitmap.andNot(match.any(), match.prefix()), ids, limit);
+    return ids;
+  }
+
+  private static void take(RoaringBitmap tier, List<Integer> ids, int limit) {
+    IntIterator it = tier.getIntIterator();
+    while (ids.size() < limit && it.hasNext()) {
+      ids.add(it.next());
+    }
+  }
+
+  /**
+   * Ranks the students matching every term of a query by their total score.
+   */
+  private static List<Integer> rank(List<TermMatch> matches, int limit) {
+    RoaringBitmap candidates = matches.get(0).any();
+    for (int i = 1; i < matches.size(); i++) {
+      candidates = RoaringBitmap.and(candidates, matches.get(i).any());
+    }
+    int best = 3 * matches.size();
+    PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+    IntIterator it = candidates.getIntIterator();
+    while (it.hasNext()) {
+      int id = it.next();
+      int score = 0;
+      for (TermMatch match : matches) {
+        score += match.score(id);
+      }
+      top.add(new Hit(id, score));
+      if (top.size() > limit) {
+        top.poll();
+      }
+      // Ids come in order, so a later student can no longer displace any of these
+      if (top.size() == limit && top.peek().score() == best) {
+        break;
+      }
+    }
+    List<Hit> hits = new ArrayList<>(top);
+    hits.sort(RANKING);
+    return hits.stream().map(Hit::id).toList();
+  }
+
+  private record TermMatch(RoaringBitmap exact, RoaringBitmap prefix, RoaringBitmap any) {
+
+    int score(int id) {
+      return exact.contains(id) ? 3 : prefix.contains(id) ? 2 : 1;
+    }
+  }
+
+  private record Hit(int id, int score) {}
+}
@@ -0,0 +1,42 @@
+package uk.ac.ucl.comp0010.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import uk.ac.ucl.comp0010.model.Student;
+
+/**
+ * JPA entity listener that keeps the {@link StudentSearchIndex} in step with every
+ * student created, updated or deleted through the entity manager, whether by
+ * {@code StudentController} or {@code StudentService}.
+ *
+ * <p>Instantiated by Hibernate through Spring's bean container. The index is looked up
+ * lazily because test slices run without it.
+ */
+public class StudentSearchIndexListener {
+
+  private final ObjectProvider<StudentSearchIndex> index;
+
+  /**
+   * Constructor for StudentSearchIndexListener.
+   *
+   * @param index the student search index, if present in the context
+   */
+  public StudentSearchIndexListener(ObjectProvider<StudentSearchIndex> index) {
+    this.index = index;
+  }
+
+  @PostPersist
+  @PostUpdate
+  void saved(Student student) {
+    index.ifAvailable(i -> i.saved(student));
+  }
+
+  @PostRemove
+  void removed(Student student) {
+    index.ifAvailable(i -> i.removed(student.getId()));
+  }
+}
@@ -1,16 +1,23 @@
 package uk.ac.ucl.comp0010.service;
 
+import io.micrometer.core.annotation.Timed;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import uk.ac.ucl.comp0010.controllers.ConflictExceptionHandler;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Entity;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
 import uk.ac.ucl.comp0010.model.Grade;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Registration;
 import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.model.StudentGradeSummary;
 import uk.ac.ucl.comp0010.repository.GradeRepository;
 import uk.ac.ucl.comp0010.repository.ModuleRepository;
 import uk.ac.ucl.comp0010.repository.RegistrationRepository;
@@ -26,6 +33,9 @@ public class StudentService {
   private final ModuleRepository moduleRepo;
   private final GradeRepository gradeRepo;
   private final RegistrationRepository registrationRepo;
+  private final GradeSummaryService gradeSummaryService;
+  private final RegistrationIndex registrationIndex;
+  private final DomainMetrics domainMetrics;
 
   /**
    * Constructor for StudentService.
@@ -34,16 +44,25 @@ public class StudentService {
    * @param moduleRepo the module repository
    * @param gradeRepo the grade repository
    * @param registrationRepo the registration repository
+   * @param gradeSummaryService the per-student grade summary service
+   * @param registrationIndex the in-memory registration index
+   * @param domainMetrics the rejected-write counters
    */
   @Autowired
   public StudentService(StudentRepository studentRepo,
       ModuleRepository moduleRepo,
       GradeRepository gradeRepo,
-      RegistrationRepository registrationRepo) {
+      RegistrationRepository registrationRepo,
+      GradeSummaryService gradeSummaryService,
+      RegistrationIndex registrationIndex,
+      DomainMetrics domainMetrics) {
     this.studentRepo = studentRepo;
     this.moduleRepo = moduleRepo;
     this.gradeRepo = gradeRepo;
     this.registrationRepo = registrationRepo;
+    this.gradeSummaryService = gradeSummaryService;
+    this.registrationIndex = registrationIndex;
+    this.domainMetrics = domainMetrics;
   }
 
   /**
@@ -115,6 +134,7 @@ public class StudentService {
       throw new IllegalArgumentException("Student not found: " + id);
     }
     studentRepo.deleteById(id);
+    gradeSummaryService.studentRemoved(id);
   }
 
   /**
@@ -125,20 +145,24 @@ public class StudentService {
    * @return the registration
    */
   @Transactional
+  @Timed(value = "app.registration.writes", extraTags = {"path", "service"})
   public Registration registerModule(Integer studentId, String moduleCode) {
     Student student = findById(studentId);
     Module module = moduleRepo.findById(moduleCode)
         .orElseThrow(() -> new IllegalArgumentException("Module not found: " + moduleCode));
 
-    boolean already = registrationRepo.existsByStudentAndModule(student, module);
-    if (already) {
-      throw new IllegalArgumentException("Student already registered for module: " + moduleCode);
-    }
-
     Registration reg = new Registration();
     reg.setStudent(student);
     reg.setModule(module);
-    return registrationRepo.save(reg);
+    try {
+      return registrationRepo.saveAndFlush(reg);
+    } catch (DataIntegrityViolationException e) {
+      if (!ConflictExceptionHandler.isUniqueViolation(e)) {
+        throw e;
+      }
+      domainMetrics.rejected(Entity.REGISTRATION, Reason.DUPLICATE);
+      throw new IllegalArgumentException("Student already registered for module: " + moduleCode);
+    }
   }
 
   /**
@@ -146,17 +170,22 @@ public class StudentService {
    *
    * @param studentId the student ID
    * @param moduleCode the module code
-   * @param score the grade score
+   * @param score the grade score, between 0 and 100
    * @return the created grade
    */
   @Transactional
+  @Timed(value = "app.grade.writes", extraTags = {"path", "service"})
   public Grade addGrade(Integer studentId, String moduleCode, int score) {
+    if (score < 0 || score > 100) {
+      domainMetrics.rejected(Entity.GRADE, Reason.INVALID);
+      throw new IllegalArgumentException("Score must be between 0 and 100");
+    }
     Student student = findById(studentId);
     Module module = moduleRepo.findById(moduleCode)
         .orElseThrow(() -> new IllegalArgumentException("Module not found: " + moduleCode));
 
-    boolean registered = registrationRepo.existsByStudentAndModule(student, module);
-    if (!registered) {
+    if (!registrationIndex.isRegistered(studentId, moduleCode)) {
+      domainMetrics.rejected(Entity.GRADE, Reason.NOT_REGISTERED);
       throw new IllegalArgumentException("Student is not registered for module: " + moduleCode);
     }
 
@@ -164,7 +193,18 @@ public class StudentService {
     grade.setStudent(student);
     grade.setModule(module);
     grade.setScore(score);
-    return gradeRepo.save(grade);
+    Grade saved;
+    try {
+      saved = gradeRepo.saveAndFlush(grade);
+    } catch (DataIntegrityViolationException e) {
+      if (!ConflictExceptionHandler.isUniqueViolation(e)) {
+        throw e;
+      }
+      domainMetrics.rejected(Entity.GRADE, Reason.DUPLICATE);
+      throw new IllegalArgumentException("Student already has a grade for module: " + moduleCode);
+    }
+    gradeSummaryService.gradeAdded(studentId, score);
+    return saved;
   }
 
   /**
@@ -182,17 +222,20 @@ public class StudentService {
   }
 
   /**
-   * Computes the average grade for a student.
+   * Computes the average grade for a student from their running grade summary.
    *
    * @param studentId the student ID
    * @return the average grade, or -1 if no grades
    */
+  @Timed("app.grade.average")
   public double computeAverage(Integer studentId) {
-    Student student = findById(studentId);
-    List<Grade> grades = gradeRepo.findByStudent(student);
-    if (grades == null || grades.isEmpty()) {
-      return -1;
+    StudentGradeSummary summary = gradeSummaryService.find(studentId);
+    if (summary != null) {
+      return summary.average();
+    }
+    if (!studentRepo.existsById(studentId)) {
+      throw new IllegalArgumentException("Student not found: " + studentId);
     }
-    return grades.stream().mapToInt(Grade::getScore).average().orElse(-1);
+    return -1;
   }
 }
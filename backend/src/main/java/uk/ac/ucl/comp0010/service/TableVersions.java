@@ -0,0 +1,70 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.stereotype.Service;
+
+/**
+ * Counts committed writes per table, so list responses can be validated without
+ * reading the table.
+ *
+ * <p>A table's version goes up by one once each transaction that wrote to it commits,
+ * never before, so a version read before a query is never newer than the rows the
+ * query returns. Versions restart when the application does; the start time is part
+ * of every tag so a tag from an earlier run never matches.
+ */
+@Service
+public class TableVersions {
+
+  /** The tables whose versions are tracked. */
+  public enum Table { MODULE, STUDENT, GRADE }
+
+  /**
+   * The combined version of one or more tables.
+   *
+   * @param tag an opaque tag that changes whenever any of the tables does
+   * @param lastModified when any of the tables last changed, in epoch milliseconds
+   */
+  public record Version(String tag, long lastModified) {}
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+  private final AtomicLongArray versions = new AtomicLongArray(Table.values().length);
+  private final AtomicLongArray modified = new AtomicLongArray(Table.values().length);
+
+  /**
+   * Constructor for TableVersions.
+   */
+  public TableVersions() {
+    long now = System.currentTimeMillis();
+    for (Table table : Table.values()) {
+      modified.set(table.ordinal(), now);
+    }
+  }
+
+  /**
+   * Records a write to a table, taking effect when the current transaction commits.
+   *
+   * @param table the table written to
+   */
+  public void changed(Table table) {
+    AfterCommit.run(() -> {
+      versions.incrementAndGet(table.ordinal());
+      modified.accumulateAndGet(table.ordinal(), System.currentTimeMillis(), Math::max);
+    });
+  }
+
+  /**
+   * Gets the current version of one or more tables; read it before querying them.
+   *
+   * @param tables the tables a response is built from
+   * @return their combined version
+   */
+  public Version current(Table... tables) {
+    StringBuilder tag = new StringBuilder(epoch);
+    long lastModified = 0;
+    for (Table table : tables) {
+      tag.append('-').append(versions.get(table.ordinal()));
+      lastModified = Math.max(lastModified, modified.get(table.ordinal()));
+    }
+    return new Version(tag.toString(), lastModified);
+  }
+}
@@ -0,0 +1,51 @@
+package uk.ac.ucl.comp0010.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.service.TableVersions.Table;
+
+/**
+ * JPA entity listener that bumps {@link TableVersions} for every module, student or
+ * grade written through the entity manager, including cascades from deleting a
+ * student.
+ *
+ * <p>Instantiated by Hibernate through Spring's bean container. The versions are
+ * looked up lazily because test slices run without them.
+ */
+public class TableVersionsListener {
+
+  private final ObjectProvider<TableVersions> versions;
+
+  /**
+   * Constructor for TableVersionsListener.
+   *
+   * @param versions the table versions, if present in the context
+   */
+  public TableVersionsListener(ObjectProvider<TableVersions> versions) {
+    this.versions = versions;
+  }
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  void written(Object entity) {
+    Table table;
+    if (entity instanceof Grade) {
+      table = Table.GRADE;
+    } else if (entity instanceof Student) {
+      table = Table.STUDENT;
+    } else if (entity instanceof Module) {
+      table = Table.MODULE;
+    } else {
+      return;
+    }
+    versions.ifAvailable(v -> v.changed(table));
+  }
+}
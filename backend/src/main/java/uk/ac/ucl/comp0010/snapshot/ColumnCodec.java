@@ -0,0 +1,225 @@
+package uk.ac.ucl.comp0010.snapshot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How one column of a snapshot table is encoded.
+ *
+ * <p>A block holds each column's values for all of its rows together, so similar values
+ * sit next to each other. Every codec writes null as a zero byte.
+ */
+enum ColumnCodec {
+
+  /**
+   * Integers as a varint of the zigzagged difference from the previous value, plus one.
+   * Suits ids, which are written in ascending order, and foreign keys that follow them.
+   */
+  DELTA {
+    @Override
+    Object get(ResultSet rs, int column) throws SQLException {
+      return rs.getObject(column, Long.class);
+    }
+
+    @Override
+    void write(SnapshotOutput out, Object[] values, int rows, Map<String, Integer> modules)
+        throws IOException {
+      long previous = 0;
+      for (int i = 0; i < rows; i++) {
+        Long value = (Long) values[i];
+        if (value == null) {
+          out.writeVarLong(0);
+        } else {
+          out.writeVarLong(zigzag(value - previous) + 1);
+          previous = value;
+        }
+      }
+    }
+
+    @Override
+    Object[] read(SnapshotInput in, int rows, List<String> modules) throws IOException {
+      Object[] values = new Object[rows];
+      long previous = 0;
+      for (int i = 0; i < rows; i++) {
+        long encoded = in.readVarLong();
+        if (encoded != 0) {
+          previous += unzigzag(encoded - 1);
+          values[i] = previous;
+        }
+      }
+      return values;
+    }
+  },
+
+  /** Integers as a varint of the zigzagged value, plus one. */
+  INTEGER {
+    @Override
+    Object get(ResultSet rs, int column) throws SQLException {
+      return rs.getObject(column, Long.class);
+    }
+
+    @Override
+    void write(SnapshotOutput out, Object[] values, int rows, Map<String, Integer> modules)
+        throws IOException {
+      for (int i = 0; i < rows; i++) {
+        Long value = (Long) values[i];
+        out.writeVarLong(value == null ? 0 : zigzag(value) + 1);
+      }
+    }
+
+    @Override
+    Object[] read(SnapshotInput in, int rows, List<String> modules) throws IOException {
+      Object[] values = new Object[rows];
+      for (int i = 0; i < rows; i++) {
+        long encoded = in.readVarLong();
+        values[i] = encoded == 0 ? null : unzigzag(encoded - 1);
+      }
+      return values;
+    }
+  },
+
+  /** Text as a varint of its UTF-8 length plus one, then the UTF-8 bytes. */
+  TEXT {
+    @Override
+    Object get(ResultSet rs, int column) throws SQLException {
+      return rs.getString(column);
+    }
+
+    @Override
+    void write(SnapshotOutput out, Object[] values, int rows, Map<String, Integer> modules)
+        throws IOException {
+      for (int i = 0; i < rows; i++) {
+        if (values[i] == null) {
+          out.writeVarLong(0);
+        } else {
+          byte[] bytes = ((String) values[i]).getBytes(StandardCharsets.UTF_8);
+          out.writeVarLong(bytes.length + 1L);
+          out.writeBytes(bytes);
+        }
+      }
+    }
+
+    @Override
+    Object[] read(SnapshotInput in, int rows, List<String> modules) throws IOException {
+      Object[] values = new Object[rows];
+      for (int i = 0; i < rows; i++) {
+        long length = in.readVarLong();
+        if (length != 0) {
+          values[i] = new String(in.readBytes(toInt(length - 1)), StandardCharsets.UTF_8);
+        }
+      }
+      return values;
+    }
+  },
+
+  /** Booleans as one byte: 1 for false and 2 for true. */
+  BOOLEAN {
+    @Override
+    Object get(ResultSet rs, int column) throws SQLException {
+      return rs.getObject(column, Boolean.class);
+    }
+
+    @Override
+    void write(SnapshotOutput out, Object[] values, int rows, Map<String, Integer> modules)
+        throws IOException {
+      for (int i = 0; i < rows; i++) {
+        Boolean value = (Boolean) values[i];
+        out.writeByte(value == null ? 0 : value ? 2 : 1);
+      }
+    }
+
+    @Override
+    Object[] read(SnapshotInput in, int rows, List<String> modules) throws IOException {
+      Object[] values = new Object[rows];
+      for (int i = 0; i < rows; i++) {
+        int encoded = in.readByte();
+        if (encoded > 2) {
+          throw new CorruptSnapshotException("The snapshot has a malformed boolean");
+        }
+        values[i] = encoded == 0 ? null : encoded == 2;
+      }
+      return values;
+    }
+  },
+
+  /**
+   * Module codes as a varint of their position in the snapshot's module table, plus
+   * one, so each code is stored once however many rows refer to it.
+   */
+  MODULE_CODE {
+    @Override
+    Object get(ResultSet rs, int column) throws SQLException {
+      return rs.getString(column);
+    }
+
+    @Override
+    void write(SnapshotOutput out, Object[] values, int rows, Map<String, Integer> modules)
+        throws IOException {
+      for (int i = 0; i < rows; i++) {
+        if (values[i] == null) {
+          out.writeVarLong(0);
+        } else {
+          Integer index = modules.get((String) values[i]);
+          if (index == null) {
+            throw new IllegalStateException("Module " + values[i] + " is not in the snapshot");
+          }
+          out.writeVarLong(index + 1L);
+        }
+      }
+    }
+
+    @Override
+    Object[] read(SnapshotInput in, int rows, List<String> modules) throws IOException {
+      Object[] values = new Object[rows];
+      for (int i = 0; i < rows; i++) {
+        long encoded = in.readVarLong();
+        if (encoded < 0 || encoded > modules.size()) {
+          throw new CorruptSnapshotException("The snapshot refers to a module it does not hold");
+        }
+        values[i] = encoded == 0 ? null : modules.get((int) encoded - 1);
+      }
+      return values;
+    }
+  };
+
+  /**
+   * Reads this column's value from the current row.
+   */
+  abstract Object get(ResultSet rs, int column) throws SQLException;
+
+  /**
+   * Writes the first {@code rows} values of a block.
+   *
+   * @param modules the position of each module code in the snapshot's module table
+   */
+  abstract void write(SnapshotOutput out, Object[] values, int rows,
+      Map<String, Integer> modules) throws IOException;
+
+  /**
+   * Reads the values of a block.
+   *
+   * @param modules the module codes, in the order of the snapshot's module table
+   */
+  abstract Object[] read(SnapshotInput in, int rows, List<String> modules)
+      throws IOException;
+
+  /** Maps signed values to unsigned ones, small magnitudes to small numbers. */
+  static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  static int toInt(long value) throws CorruptSnapshotException {
+    if (value < 0 || value > Integer.MAX_VALUE) {
+      throw new CorruptSnapshotException("The snapshot has an impossible length");
+    }
+    return (int) value;
+  }
+}
@@ -0,0 +1,20 @@
+package uk.ac.ucl.comp0010.snapshot;
+
+import java.io.IOException;
+
+/**
+ * A snapshot file is damaged, truncated or not a snapshot at all.
+ */
+public class CorruptSnapshotException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructor for CorruptSnapshotException.
+   *
+   * @param message what is wrong with the file
+   */
+  public CorruptSnapshotException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,135 @@
+package uk.ac.ucl.comp0010.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads one region of a snapshot file through a direct buffer.
+ *
+ * <p>Reads are positional, so several inputs may read different regions of the same
+ * channel at once. Running past the end of the region means the file is damaged.
+ */
+final class SnapshotInput {
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final long end;
+  private long position;
+
+  /**
+   * Constructor for SnapshotInput.
+   *
+   * @param channel the file; not closed by this
+   * @param offset where the region starts
+   * @param length the length of the region
+   */
+  SnapshotInput(FileChannel channel, long offset, long length) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect((int) Math.min(SnapshotOutput.BUFFER_SIZE,
+        Math.max(length, Long.BYTES)));
+    this.buffer.limit(0);
+    this.position = offset;
+    this.end = offset + length;
+  }
+
+  /**
+   * Checks the CRC-32C that ends a snapshot file against the rest of it.
+   *
+   * @param channel the file
+   * @throws CorruptSnapshotException if the checksum does not match
+   * @throws IOException if the file cannot be read
+   */
+  static void verifyChecksum(FileChannel channel) throws IOException {
+    long size = channel.size();
+    if (size < Integer.BYTES) {
+      throw new CorruptSnapshotException("The snapshot is truncated");
+    }
+    CRC32C checksum = new CRC32C();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(SnapshotOutput.BUFFER_SIZE);
+    long position = 0;
+    long end = size - Integer.BYTES;
+    while (position < end) {
+      buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+      position += read(channel, buffer, position);
+      buffer.flip();
+      checksum.update(buffer);
+    }
+    if (new SnapshotInput(channel, end, Integer.BYTES).readInt() != (int) checksum.getValue()) {
+      throw new CorruptSnapshotException("The snapshot checksum does not match its contents");
+    }
+  }
+
+  int readByte() throws IOException {
+    require(1);
+    return buffer.get() & 0xFF;
+  }
+
+  int readInt() throws IOException {
+    require(Integer.BYTES);
+    return buffer.getInt();
+  }
+
+  long readLong() throws IOException {
+    require(Long.BYTES);
+    return buffer.getLong();
+  }
+
+  /**
+   * Reads an unsigned varint, as written by {@link SnapshotOutput#writeVarLong}.
+   */
+  long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new CorruptSnapshotException("The snapshot has a malformed number");
+  }
+
+  byte[] readBytes(int length) throws IOException {
+    if (length > buffer.capacity()) {
+      throw new CorruptSnapshotException("The snapshot has a value longer than any column");
+    }
+    require(length);
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Checks that the whole region has been read.
+   */
+  boolean atEnd() {
+    return !buffer.hasRemaining() && position == end;
+  }
+
+  private void require(int bytes) throws IOException {
+    if (buffer.remaining() >= bytes) {
+      return;
+    }
+    buffer.compact();
+    while (buffer.position() < bytes) {
+      long available = end - position;
+      if (available <= 0) {
+        throw new CorruptSnapshotException("The snapshot is truncated");
+      }
+      buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + available));
+      position += read(channel, buffer, position);
+    }
+    buffer.flip();
+  }
+
+  private static int read(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    int read = channel.read(buffer, position);
+    if (read < 0) {
+      throw new CorruptSnapshotException("The snapshot is truncated");
+    }
+    return read;
+  }
+}
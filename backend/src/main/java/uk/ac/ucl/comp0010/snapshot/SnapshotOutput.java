@@ -0,0 +1,100 @@
+package uk.ac.ucl.comp0010.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes a snapshot file through a direct buffer, keeping a CRC-32C of every byte
+ * written until {@link #finish()} appends it.
+ */
+final class SnapshotOutput {
+
+  static final int BUFFER_SIZE = 1 << 20;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private final CRC32C checksum = new CRC32C();
+  private long flushed;
+
+  /**
+   * Constructor for SnapshotOutput.
+   *
+   * @param channel the file, written from its current position; not closed by this
+   */
+  SnapshotOutput(FileChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Gets the number of bytes written so far.
+   *
+   * @return the offset in the file of the next byte
+   */
+  long position() {
+    return flushed + buffer.position();
+  }
+
+  void writeByte(int value) throws IOException {
+    ensure(1);
+    buffer.put((byte) value);
+  }
+
+  void writeInt(int value) throws IOException {
+    ensure(Integer.BYTES);
+    buffer.putInt(value);
+  }
+
+  void writeLong(long value) throws IOException {
+    ensure(Long.BYTES);
+    buffer.putLong(value);
+  }
+
+  /**
+   * Writes an unsigned varint: seven bits per byte, low bits first, with the top bit set
+   * on every byte but the last.
+   */
+  void writeVarLong(long value) throws IOException {
+    ensure(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  void writeBytes(byte[] bytes) throws IOException {
+    ensure(bytes.length);
+    buffer.put(bytes);
+  }
+
+  /**
+   * Appends the checksum of everything written and forces the file to disk.
+   */
+  void finish() throws IOException {
+    flush();
+    buffer.putInt((int) checksum.getValue());
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    channel.force(false);
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    checksum.update(buffer);
+    buffer.rewind();
+    while (buffer.hasRemaining()) {
+      flushed += channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,493 @@
+package uk.ac.ucl.comp0010.snapshot;
+
+import static uk.ac.ucl.comp0010.snapshot.ColumnCodec.BOOLEAN;
+import static uk.ac.ucl.comp0010.snapshot.ColumnCodec.DELTA;
+import static uk.ac.ucl.comp0010.snapshot.ColumnCodec.INTEGER;
+import static uk.ac.ucl.comp0010.snapshot.ColumnCodec.MODULE_CODE;
+import static uk.ac.ucl.comp0010.snapshot.ColumnCodec.TEXT;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import uk.ac.ucl.comp0010.dto.SnapshotReport;
+import uk.ac.ucl.comp0010.events.DomainEventPipeline;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+import uk.ac.ucl.comp0010.service.SecondLevelCache;
+import uk.ac.ucl.comp0010.service.StudentSearchIndex;
+import uk.ac.ucl.comp0010.service.TableVersions;
+
+/**
+ * Writes the module, student, registration and grade tables to a compact binary
+ * snapshot file, and restores them from one.
+ *
+ * <p>A snapshot starts with a magic number and format version. Each table follows as
+ * blocks of up to {@link #BLOCK_ROWS} rows, every block holding each column's values
+ * together, encoded as described by {@link ColumnCodec}; a zero row count ends the table.
+ * A directory of where each table starts, how long it is and how many rows it holds
+ * comes next, then the directory's offset and a CRC-32C of everything before it.
+ *
+ * <p>A snapshot is read in one repeatable-read transaction, so it is consistent. Restore
+ * checks the checksum before touching the database, then loads the tables in parallel,
+ * modules alongside students and then registrations alongside grades, each block as one
+ * JDBC batch and one transaction. It only restores into an empty database, and suits a
+ * freshly started instance: ids keep their snapshot values, and the id sequences are
+ * moved past them. Grade summaries are rebuilt and the in-memory indexes reloaded after.
+ */
+@Service
+public class SnapshotService {
+
+  /** Identifies a snapshot file: "CW2S". */
+  static final int MAGIC = 0x43573253;
+
+  static final int VERSION = 1;
+
+  static final int BLOCK_ROWS = 16_384;
+
+  /** Ids Hibernate's pooled optimizer hands out for each sequence value. */
+  private static final int ID_BLOCK = 50;
+
+  private static final Pattern NAME = Pattern.compile("[\\w-]+\\.snap");
+
+  private static final DateTimeFormatter TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+  private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+  /**
+   * The snapshot tables, in the order they are written and restored.
+   */
+  enum Table {
+    MODULE("module", "code", "code, name, mnc", TEXT, TEXT, BOOLEAN),
+    STUDENT("student", "id", "id, first_name, last_name, username, email",
+        DELTA, TEXT, TEXT, TEXT, TEXT),
+    REGISTRATION("registration", "id", "id, student_id, module_code",
+        DELTA, DELTA, MODULE_CODE),
+    GRADE("grade", "id", "id, score, student_id, module_code",
+        DELTA, INTEGER, DELTA, MODULE_CODE);
+
+    private final String select;
+    private final String insert;
+    private final ColumnCodec[] codecs;
+
+    Table(String name, String key, String columns, ColumnCodec... codecs) {
+      this.select = "SELECT " + columns + " FROM " + name + " ORDER BY " + key;
+      this.insert = "INSERT INTO " + name + " (" + columns + ") VALUES ("
+          + String.join(", ", Collections.nCopies(codecs.length, "?")) + ")";
+      this.codecs = codecs;
+    }
+  }
+
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate snapshotTemplate;
+  private final JdbcTemplate jdbcTemplate;
+  private final GradeSummaryService gradeSummaryService;
+  private final RegistrationIndex registrationIndex;
+  private final DomainEventPipeline eventPipeline;
+  private final SecondLevelCache secondLevelCache;
+  private final StudentSearchIndex studentSearchIndex;
+  private final TableVersions tableVersions;
+  private final Path directory;
+
+  /**
+   * Constructor for SnapshotService.
+   *
+   * @param transactionManager the transaction manager
+   * @param jdbcTemplate the JDBC template
+   * @param gradeSummaryService the per-student grade summary service
+   * @param registrationIndex the in-memory registration index
+   * @param eventPipeline the domain event pipeline, whose consumers are reloaded
+   * @param secondLevelCache the Hibernate second-level cache
+   * @param studentSearchIndex the in-memory student search index
+   * @param tableVersions the per-table write versions
+   * @param directory where snapshot files are kept
+   */
+  public SnapshotService(PlatformTransactionManager transactionManager,
+      JdbcTemplate jdbcTemplate,
+      GradeSummaryService gradeSummaryService,
+      RegistrationIndex registrationIndex,
+      DomainEventPipeline eventPipeline,
+      SecondLevelCache secondLevelCache,
+      StudentSearchIndex studentSearchIndex,
+      TableVersions tableVersions,
+      @Value("${app.snapshot.dir:snapshots}") String directory) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.snapshotTemplate = new TransactionTemplate(transactionManager);
+    this.snapshotTemplate.setReadOnly(true);
+    this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.jdbcTemplate = jdbcTemplate;
+    this.gradeSummaryService = gradeSummaryService;
+    this.registrationIndex = registrationIndex;
+    this.eventPipeline = eventPipeline;
+    this.secondLevelCache = secondLevelCache;
+    this.studentSearchIndex = studentSearchIndex;
+    this.tableVersions = tableVersions;
+    this.directory = Path.of(directory);
+  }
+
+  /**
+   * Writes a new snapshot, named after the current time, to the snapshot directory.
+   *
+   * @return the snapshot's name and size and the rows it holds
+   * @throws IOException if the file cannot be written
+   */
+  public SnapshotReport snapshot() throws IOException {
+    Files.createDirectories(directory);
+    return snapshot(directory.resolve("snapshot-" + TIMESTAMP.format(Instant.now()) + ".snap"));
+  }
+
+  /**
+   * Restores a snapshot from the snapshot directory into an empty database.
+   *
+   * @param name the snapshot file name
+   * @return the snapshot's name and size and the rows restored
+   * @throws IllegalArgumentException if the name is not that of a snapshot file
+   * @throws NoSuchFileException if there is no such snapshot
+   * @throws CorruptSnapshotException if the file is damaged; nothing is restored if its
+   *     checksum does not match, and otherwise the blocks before the damage are kept
+   * @throws IllegalStateException if the database already holds data
+   * @throws IOException if the file cannot be read
+   */
+  public SnapshotReport restore(String name) throws IOException {
+    if (!NAME.matcher(name).matches()) {
+      throw new IllegalArgumentException("Invalid snapshot name: " + name);
+    }
+    return restore(directory.resolve(name));
+  }
+
+  SnapshotReport snapshot(Path file) throws IOException {
+    long started = System.nanoTime();
+    Path partial = file.resolveSibling(file.getFileName() + ".partial");
+    long[] rows = new long[Table.values().length];
+    try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      SnapshotOutput out = new SnapshotOutput(channel);
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      long[] offsets = new long[rows.length];
+      long[] lengths = new long[rows.length];
+      try {
+        snapshotTemplate.executeWithoutResult(status -> {
+          Map<String, Integer> modules = new HashMap<>();
+          for (Table table : Table.values()) {
+            offsets[table.ordinal()] = out.position();
+            rows[table.ordinal()] = writeTable(out, table, modules);
+            lengths[table.ordinal()] = out.position() - offsets[table.ordinal()];
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      long directoryOffset = out.position();
+      out.writeByte(rows.length);
+      for (Table table : Table.values()) {
+        out.writeByte(table.ordinal());
+        out.writeLong(offsets[table.ordinal()]);
+        out.writeLong(lengths[table.ordinal()]);
+        out.writeLong(rows[table.ordinal()]);
+      }
+      out.writeLong(directoryOffset);
+      out.finish();
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(partial);
+      throw e;
+    }
+    Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+    SnapshotReport report = report(file, rows, started);
+    log.info("Wrote snapshot {}: {} bytes in {} ms", report.name(), report.sizeBytes(),
+        report.elapsedMillis());
+    return report;
+  }
+
+  SnapshotReport restore(Path file) throws IOException {
+    long started = System.nanoTime();
+    long[] rows = new long[Table.values().length];
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      SnapshotInput.verifyChecksum(channel);
+      Section[] sections = readDirectory(channel);
+      if (!isEmpty()) {
+        throw new IllegalStateException("Snapshots can only be restored into an empty database");
+      }
+      // Filled in by the module table's load and read by the tables that refer to it
+      List<String> modules = new ArrayList<>();
+      ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-restore");
+        thread.setDaemon(true);
+        return thread;
+      });
+      try {
+        inParallel(executor,
+            () -> rows[0] = load(channel, sections[0], modules),
+            () -> rows[1] = load(channel, sections[1], modules));
+        inParallel(executor,
+            () -> rows[2] = load(channel, sections[2], modules),
+            () -> rows[3] = load(channel, sections[3], modules));
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    restartSequence("registration_seq", "registration");
+    restartSequence("grade_seq", "grade");
+    gradeSummaryService.rebuild();
+    registrationIndex.resync();
+    studentSearchIndex.resync();
+    for (TableVersions.Table table : TableVersions.Table.values()) {
+      tableVersions.changed(table);
+    }
+    eventPipeline.requestResync();
+    secondLevelCache.evictAll();
+    SnapshotReport report = report(file, rows, started);
+    log.info("Restored snapshot {}: {} registrations and {} grades in {} ms", report.name(),
+        report.registrations(), report.grades(), report.elapsedMillis());
+    return report;
+  }
+
+  private long writeTable(SnapshotOutput out, Table table, Map<String, Integer> modules) {
+    BlockWriter writer = new BlockWriter(out, table, modules);
+    jdbcTemplate.query(table.select, writer);
+    try {
+      writer.writeBlock();
+      out.writeVarLong(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return writer.rows;
+  }
+
+  /**
+   * Reads the table directory at the end of a snapshot whose checksum has been checked.
+   */
+  private static Section[] readDirectory(FileChannel channel) throws IOException {
+    long size = channel.size();
+    SnapshotInput header = new SnapshotInput(channel, 0, Integer.BYTES + 1);
+    if (header.readInt() != MAGIC) {
+      throw new CorruptSnapshotException("The file is not a snapshot");
+    }
+    int version = header.readByte();
+    if (version != VERSION) {
+      throw new CorruptSnapshotException("Unsupported snapshot version " + version);
+    }
+    long directoryEnd = size - Long.BYTES - Integer.BYTES;
+    long directoryOffset = new SnapshotInput(channel, directoryEnd, Long.BYTES).readLong();
+    if (directoryOffset < Integer.BYTES + 1 || directoryOffset >= directoryEnd) {
+      throw new CorruptSnapshotException("The snapshot directory is out of place");
+    }
+    SnapshotInput in = new SnapshotInput(channel, directoryOffset,
+        directoryEnd - directoryOffset);
+    Table[] tables = Table.values();
+    if (in.readByte() != tables.length) {
+      throw new CorruptSnapshotException("The snapshot does not hold every table");
+    }
+    Section[] sections = new Section[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      int tag = in.readByte();
+      long offset = in.readLong();
+      long length = in.readLong();
+      long rows = in.readLong();
+      if (tag >= tables.length || sections[tag] != null || offset < Integer.BYTES + 1
+          || length < 1 || offset + length > directoryOffset || rows < 0) {
+        throw new CorruptSnapshotException("The snapshot directory is malformed");
+      }
+      sections[tag] = new Section(tables[tag], offset, length, rows);
+    }
+    return sections;
+  }
+
+  private boolean isEmpty() {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT NOT EXISTS "
+        + "(SELECT 1 FROM module UNION ALL SELECT 1 FROM student "
+        + "UNION ALL SELECT 1 FROM registration UNION ALL SELECT 1 FROM grade)",
+        Boolean.class));
+  }
+
+  /**
+   * Decodes one table and inserts it block by block.
+   */
+  private long load(FileChannel channel, Section section, List<String> modules)
+      throws IOException {
+    Table table = section.table();
+    SnapshotInput in = new SnapshotInput(channel, section.offset(), section.length());
+    long total = 0;
+    int rows;
+    while ((rows = ColumnCodec.toInt(in.readVarLong())) != 0) {
+      if (rows > BLOCK_ROWS) {
+        throw new CorruptSnapshotException("The snapshot has an oversized block");
+      }
+      Object[][] columns = new Object[table.codecs.length][];
+      for (int c = 0; c < columns.length; c++) {
+        columns[c] = table.codecs[c].read(in, rows, modules);
+      }
+      if (table == Table.MODULE) {
+        for (Object code : columns[0]) {
+          modules.add((String) code);
+        }
+      }
+      insert(table, columns, rows);
+      total += rows;
+    }
+    if (total != section.rows() || !in.atEnd()) {
+      throw new CorruptSnapshotException(
+          "The " + table.name().toLowerCase(Locale.ROOT) + " table does not match the directory");
+    }
+    return total;
+  }
+
+  private void insert(Table table, Object[][] columns, int rows) {
+    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(table.insert,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            for (int c = 0; c < columns.length; c++) {
+              ps.setObject(c + 1, columns[c][i]);
+            }
+          }
+
+          @Override
+          public int getBatchSize() {
+            return rows;
+          }
+        }));
+  }
+
+  /**
+   * Moves a sequence past the restored ids, so the ids Hibernate draws from it are new.
+   */
+  private void restartSequence(String sequence, String table) {
+    Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+    Long next = jdbcTemplate.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+        + "WHERE SEQUENCE_NAME = ?", Long.class, sequence.toUpperCase(Locale.ROOT));
+    if (maxId != null && next != null && maxId + ID_BLOCK > next) {
+      jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ID_BLOCK));
+    }
+  }
+
+  private static void inParallel(ExecutorService executor, Callable<?> first,
+      Callable<?> second) throws IOException {
+    Future<?> a = executor.submit(first);
+    Future<?> b = executor.submit(second);
+    try {
+      a.get();
+      b.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while restoring a snapshot", e);
+    } catch (ExecutionException e) {
+      // Wait for the other table so nothing is still writing once this returns
+      a.cancel(true);
+      b.cancel(true);
+      awaitQuietly(executor);
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static void awaitQuietly(ExecutorService executor) {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static SnapshotReport report(Path file, long[] rows, long started) throws IOException {
+    return new SnapshotReport(file.getFileName().toString(), Files.size(file),
+        rows[0], rows[1], rows[2], rows[3],
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+  }
+
+  /**
+   * Where one table is in a snapshot file.
+   */
+  private record Section(Table table, long offset, long length, long rows) {}
+
+  /**
+   * Collects rows into blocks as a table is read and writes each block once full.
+   */
+  private static final class BlockWriter implements RowCallbackHandler {
+
+    private final SnapshotOutput out;
+    private final Table table;
+    private final Map<String, Integer> modules;
+    private final Object[][] columns;
+    private int filled;
+    private long rows;
+
+    BlockWriter(SnapshotOutput out, Table table, Map<String, Integer> modules) {
+      this.out = out;
+      this.table = table;
+      this.modules = modules;
+      this.columns = new Object[table.codecs.length][BLOCK_ROWS];
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+      for (int c = 0; c < columns.length; c++) {
+        columns[c][filled] = table.codecs[c].get(rs, c + 1);
+      }
+      if (table == Table.MODULE) {
+        modules.put((String) columns[0][filled], modules.size());
+      }
+      rows++;
+      if (++filled == BLOCK_ROWS) {
+        try {
+          writeBlock();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+
+    void writeBlock() throws IOException {
+      if (filled == 0) {
+        return;
+      }
+      out.writeVarLong(filled);
+      for (int c = 0; c < columns.length; c++) {
+        table.codecs[c].write(out, columns[c], filled, modules);
+      }
+      filled = 0;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+-- Baseline schema. Applied once per database by Flyway; later changes go in new
+-- V<n>__<description>.sql files and never edit an applied one.
+
+CREATE TABLE student(
+  id INT PRIMARY KEY,
+  first_name VARCHAR(30),
+  last_name VARCHAR(30),
+  username VARCHAR(30),
+  email VARCHAR(50)
+);
+
+CREATE TABLE module(
+  code VARCHAR(10) PRIMARY KEY,
+  name VARCHAR(100),
+  mnc BOOLEAN
+);
+
+CREATE SEQUENCE grade_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE grade(
+  id BIGINT PRIMARY KEY,
+  score INT,
+  student_id INT NOT NULL,
+  module_code VARCHAR(10) NOT NULL,
+  FOREIGN KEY (student_id) REFERENCES student (id),
+  FOREIGN KEY (module_code) REFERENCES module (code),
+  CONSTRAINT uk_grade_student_module UNIQUE (student_id, module_code)
+);
+
+CREATE INDEX idx_grade_module_score ON grade (module_code, score);
+
+CREATE SEQUENCE registration_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE registration(
+  id INT PRIMARY KEY,
+  student_id INT,
+  module_code VARCHAR(10),
+  FOREIGN KEY (student_id) REFERENCES student (id),
+  FOREIGN KEY (module_code) REFERENCES module (code),
+  CONSTRAINT uk_registration_student_module UNIQUE (student_id, module_code)
+);
+
+CREATE INDEX idx_registration_student ON registration (student_id, id);
+CREATE INDEX idx_registration_module ON registration (module_code, id);
+
+CREATE TABLE student_grade_summary(
+  student_id INT PRIMARY KEY,
+  grade_sum BIGINT NOT NULL,
+  grade_count INT NOT NULL
+);
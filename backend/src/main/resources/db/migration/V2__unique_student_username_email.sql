@@ -0,0 +1,5 @@
+-- Usernames and emails identify a student, so each may belong to only one. Students
+-- without either are still allowed.
+
+ALTER TABLE student ADD CONSTRAINT uk_student_username UNIQUE (username);
+ALTER TABLE student ADD CONSTRAINT uk_student_email UNIQUE (email);
@@ -0,0 +1,135 @@
+package uk.ac.ucl.comp0010.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for ResponseCompressionFilter against mock requests. */
+class ResponseCompressionFilterTest {
+
+    private static final int MIN_SIZE = 100;
+
+    private final ResponseCompressionFilter filter =
+            new ResponseCompressionFilter(MIN_SIZE, List.of(MediaType.APPLICATION_JSON, MediaType.parseMediaType("text/*")));
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/students");
+        request.addHeader("Accept-Encoding", "gzip");
+        return request;
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'a');
+        return body;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void acceptsGzip_honoursQualityZero() {
+        for (String accepted : new String[] {"gzip", "deflate, GZIP;q=0.5", "br, *", "x-gzip"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Accept-Encoding", accepted);
+            assertTrue(ResponseCompressionFilter.acceptsGzip(request), accepted);
+        }
+        for (String refused : new String[] {"identity", "gzip;q=0", "*, gzip; q=0.0", "*;q=0"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Accept-Encoding", refused);
+            assertFalse(ResponseCompressionFilter.acceptsGzip(request), refused);
+        }
+        assertFalse(ResponseCompressionFilter.acceptsGzip(new MockHttpServletRequest()));
+    }
+
+    @Test
+    void compressibleBody_atThreshold_isGzippedWithWeakTag() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(gzipRequest(), response, (req, res) -> {
+            res.setContentType("application/json");
+            res.setContentLength(MIN_SIZE);
+            ((HttpServletResponse) res).setHeader("ETag", "\"v1\"");
+            res.getOutputStream().write(body(MIN_SIZE));
+        });
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("W/\"v1\"", response.getHeader("ETag"));
+        assertNull(response.getHeader("Content-Length"));
+        assertArrayEquals(body(MIN_SIZE), gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void bodyBelowThresholdOrOfOtherType_isSentAsIs() throws Exception {
+        MockHttpServletResponse small = new MockHttpServletResponse();
+        filter.doFilter(gzipRequest(), small, (req, res) -> {
+            res.setContentType("text/csv");
+            res.getWriter().write("id,name\r\n");
+        });
+        assertNull(small.getHeader("Content-Encoding"));
+        assertEquals(9, small.getContentLength());
+        assertEquals("id,name\r\n", small.getContentAsString());
+        assertEquals("Accept-Encoding", small.getHeader("Vary"));
+
+        MockHttpServletResponse image = new MockHttpServletResponse();
+        filter.doFilter(gzipRequest(), image, (req, res) -> {
+            res.setContentType("image/png");
+            res.getOutputStream().write(body(MIN_SIZE * 3));
+        });
+        assertNull(image.getHeader("Content-Encoding"));
+        assertArrayEquals(body(MIN_SIZE * 3), image.getContentAsByteArray());
+    }
+
+    @Test
+    void flushes_areHeldUntilTheThresholdThenPassedOn() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType("text/plain");
+            OutputStream out = res.getOutputStream();
+            out.write(body(MIN_SIZE / 2));
+            out.flush();
+            assertFalse(response.isCommitted(), "nothing is sent before the threshold");
+            out.write(body(MIN_SIZE));
+            out.flush();
+            assertTrue(response.isCommitted());
+            assertTrue(response.getContentAsByteArray().length > 0, "flushed output reaches the client");
+        };
+        filter.doFilter(gzipRequest(), response, chain);
+
+        assertArrayEquals(body(MIN_SIZE / 2 + MIN_SIZE), gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void requestWithoutGzip_orError_isNotWrapped() throws Exception {
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/students"), plain, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(body(MIN_SIZE * 2));
+        });
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", plain.getHeader("Vary"));
+
+        MockHttpServletResponse error = new MockHttpServletResponse();
+        filter.doFilter(gzipRequest(), error, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(body(10));
+            ((HttpServletResponse) res).sendError(404);
+        });
+        assertEquals(404, error.getStatus());
+        assertNull(error.getHeader("Content-Encoding"));
+        assertEquals(0, error.getContentAsByteArray().length);
+    }
+}
@@ -0,0 +1,70 @@
+package uk.ac.ucl.comp0010.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Tests that only an admin, and no cross-origin caller, reaches {@code /admin/**}. */
+@SpringBootTest(properties = "spring.security.user.password=secret")
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+
+    private static final String ORIGIN = "https://elsewhere.example";
+
+    @Autowired MockMvc mvc;
+
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder()
+                .encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void admin_withoutCredentials_isUnauthorized() throws Exception {
+        mvc.perform(get("/admin/registration-index"))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(post("/admin/import/students"))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(post("/admin/snapshots/latest/restore"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void admin_withWrongPassword_isUnauthorized() throws Exception {
+        mvc.perform(get("/admin/registration-index")
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void admin_withAdminCredentials_isAllowed() throws Exception {
+        mvc.perform(get("/admin/registration-index")
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "secret")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void admin_fromAnotherOrigin_isForbidden() throws Exception {
+        mvc.perform(get("/admin/registration-index")
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "secret"))
+                        .header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void api_fromAnotherOrigin_isOpen() throws Exception {
+        mvc.perform(get("/modules").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN));
+    }
+}
@@ -0,0 +1,248 @@
+package uk.ac.ucl.comp0010.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import uk.ac.ucl.comp0010.events.DomainEventPipeline;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.ModuleLeaderboard;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+import uk.ac.ucl.comp0010.service.SecondLevelCache;
+import uk.ac.ucl.comp0010.support.QueryCounter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Guards every controller endpoint against N+1 query regressions.
+ *
+ * <p>Each endpoint is called against data sets of several sizes and must stay within a
+ * fixed statement budget that does not grow with the data. Student 1 is registered on,
+ * and graded in, every module, and every student is registered on module M000, so the
+ * per-student and per-module endpoints see the full data size too.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointQueryCountTest {
+
+    private static final String FIRST_MODULE = "M000";
+
+    @Autowired MockMvc mvc;
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired RegistrationRepository registrationRepository;
+    @Autowired GradeRepository gradeRepository;
+    @Autowired GradeSummaryService gradeSummaryService;
+    @Autowired RegistrationIndex registrationIndex;
+    @Autowired ModuleLeaderboard moduleLeaderboard;
+    @Autowired DomainEventPipeline domainEventPipeline;
+    @Autowired SecondLevelCache secondLevelCache;
+
+    private static QueryCounter counter;
+
+    private final List<Long> gradeIds = new ArrayList<>();
+
+    @BeforeEach
+    void attachCounter() {
+        if (counter == null) {
+            counter = QueryCounter.attach(dataSource);
+        }
+    }
+
+    @AfterEach
+    void clearData() throws InterruptedException {
+        assertTrue(domainEventPipeline.awaitIdle(Duration.ofSeconds(5)));
+        jdbcTemplate.update("DELETE FROM grade");
+        jdbcTemplate.update("DELETE FROM registration");
+        jdbcTemplate.update("DELETE FROM student_grade_summary");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("DELETE FROM module");
+        registrationIndex.load();
+        moduleLeaderboard.load();
+        secondLevelCache.evictAll();
+        gradeIds.clear();
+    }
+
+    private static String moduleCode(int i) {
+        return String.format("M%03d", i);
+    }
+
+    private void seed(int size) throws InterruptedException {
+        List<Student> students = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            students.add(new Student(i, "First" + i, "Last" + i, "user" + i, "user" + i + "@example.com"));
+        }
+        studentRepository.saveAll(students);
+        List<Module> modules = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            modules.add(new Module(moduleCode(i), "Module " + i, i % 2 == 0));
+        }
+        moduleRepository.saveAll(modules);
+
+        List<Registration> registrations = new ArrayList<>();
+        List<Grade> grades = new ArrayList<>();
+        for (Student student : students) {
+            for (Module module : modules) {
+                if (student.getId() == 1 || module.getCode().equals(FIRST_MODULE)) {
+                    Registration registration = new Registration();
+                    registration.setStudent(student);
+                    registration.setModule(module);
+                    registrations.add(registration);
+                    grades.add(new Grade((student.getId() * 7 + grades.size()) % 101, student, module));
+                }
+            }
+        }
+        registrationRepository.saveAll(registrations);
+        gradeRepository.saveAll(grades).forEach(g -> gradeIds.add(g.getId()));
+        gradeSummaryService.rebuild();
+        registrationIndex.load();
+        assertTrue(domainEventPipeline.awaitIdle(Duration.ofSeconds(5)));
+    }
+
+    private void assertStatements(int max, String description, RequestBuilder request) throws Exception {
+        counter.reset();
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        int status = result.getResponse().getStatus();
+        assertTrue(status < 400, () -> description + " returned " + status);
+        counter.assertAtMost(max, description);
+    }
+
+    /** Fetches a URL, then builds a request for it that revalidates the ETag it got. */
+    private MockHttpServletRequestBuilder revalidate(String url) throws Exception {
+        String etag = mvc.perform(get(url)).andReturn().getResponse().getHeader("ETag");
+        return get(url).header("If-None-Match", etag);
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void gradeEndpoints(int size) throws Exception {
+        seed(size);
+        // Every student is registered on, but not yet graded in, the extra module
+        Module extra = moduleRepository.save(new Module(moduleCode(size), "Extra", false));
+        List<Registration> registrations = new ArrayList<>();
+        for (Student student : studentRepository.findAll()) {
+            Registration registration = new Registration();
+            registration.setStudent(student);
+            registration.setModule(extra);
+            registrations.add(registration);
+        }
+        registrationRepository.saveAll(registrations);
+        registrationIndex.load();
+
+        assertStatements(2, "GET /grades", get("/grades").param("limit", "1000"));
+        assertStatements(0, "GET /grades unchanged", revalidate("/grades"));
+        assertStatements(3, "GET /grades/student/{id}",
+                get("/grades/student/1").param("limit", "1000"));
+        assertStatements(3, "GET /grades/module/{code}",
+                get("/grades/module/" + FIRST_MODULE).param("limit", "1000"));
+        assertStatements(2, "GET /grades/export", get("/grades/export"));
+        assertStatements(2, "GET /grades/export csv", get("/grades/export").param("format", "csv"));
+        assertStatements(6, "POST /grades/addGrade", json(post("/grades/addGrade"),
+                "{\"student_id\":\"1\",\"module_code\":\"" + extra.getCode() + "\",\"score\":\"70\"}"));
+        assertStatements(4, "PUT /grades/{id}", json(put("/grades/" + gradeIds.get(0)), "{\"score\":\"55\"}"));
+        assertStatements(4, "DELETE /grades/{id}", delete("/grades/" + gradeIds.get(0)));
+
+        String batch = IntStream.rangeClosed(2, size)
+                .mapToObj(i -> "{\"student_id\":\"" + i + "\",\"module_code\":\"" + extra.getCode()
+                        + "\",\"score\":\"" + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        if (size > 1) {
+            assertStatements(8, "POST /grades/batch", json(post("/grades/batch"), batch));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void registrationEndpoints(int size) throws Exception {
+        seed(size);
+        String newModule = moduleCode(size);
+        moduleRepository.save(new Module(newModule, "Extra", false));
+
+        assertStatements(2, "GET /registrations", get("/registrations").param("limit", "1000"));
+        assertStatements(2, "GET /registrations/export", get("/registrations/export"));
+        assertStatements(3, "GET /registrations/student/{id}",
+                get("/registrations/student/1").param("limit", "1000"));
+        assertStatements(3, "GET /registrations/module/{code}",
+                get("/registrations/module/" + FIRST_MODULE).param("limit", "1000"));
+        assertStatements(4, "POST /registrations", json(post("/registrations"),
+                "{\"student_id\":\"1\",\"module_code\":\"" + newModule + "\"}"));
+
+        String studentIds = IntStream.rangeClosed(1, size).mapToObj(Integer::toString)
+                .collect(Collectors.joining(","));
+        assertStatements(8, "POST /registrations/bulk", json(post("/registrations/bulk"),
+                "{\"module_code\":\"" + newModule + "\",\"student_ids\":[" + studentIds + "]}"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void studentEndpoints(int size) throws Exception {
+        seed(size);
+
+        assertStatements(2, "GET /students", get("/students").param("limit", "1000"));
+        assertStatements(0, "GET /students unchanged", revalidate("/students"));
+        assertStatements(2, "GET /students/export", get("/students/export"));
+        assertStatements(2, "GET /students/{id}", get("/students/1"));
+        assertStatements(2, "GET /students/{id}/average", get("/students/1/average"));
+        assertStatements(3, "POST /students", json(post("/students"),
+                "{\"id\":" + (size + 1) + ",\"firstName\":\"New\",\"lastName\":\"Student\"}"));
+        assertStatements(3, "PUT /students/{id}", json(put("/students/" + (size + 1)),
+                "{\"firstName\":\"Renamed\",\"lastName\":\"Student\"}"));
+        String etag = mvc.perform(get("/students/" + (size + 1))).andReturn().getResponse().getHeader("ETag");
+        assertStatements(2, "PUT /students/{id} If-Match", json(put("/students/" + (size + 1)),
+                "{\"firstName\":\"Again\",\"lastName\":\"Student\"}").header("If-Match", etag));
+        assertStatements(8, "DELETE /students/{id}", delete("/students/1"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void moduleEndpoints(int size) throws Exception {
+        seed(size);
+
+        assertStatements(2, "GET /modules", get("/modules").param("limit", "1000"));
+        assertStatements(0, "GET /modules unchanged", revalidate("/modules"));
+        assertStatements(3, "GET /modules/stats", get("/modules/stats"));
+        assertStatements(3, "GET /modules/{code}/stats", get("/modules/" + FIRST_MODULE + "/stats"));
+        assertStatements(1, "GET /modules/{code}/top", get("/modules/" + FIRST_MODULE + "/top").param("n", "100"));
+        assertStatements(0, "GET /modules/{code}/rank/{id}", get("/modules/" + FIRST_MODULE + "/rank/1"));
+        assertStatements(3, "POST /modules/add", json(post("/modules/add"),
+                "{\"code\":\"NEW0001\",\"name\":\"New module\",\"mnc\":\"false\"}"));
+    }
+}
@@ -2,26 +2,43 @@ package uk.ac.ucl.comp0010.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
 import uk.ac.ucl.comp0010.model.Grade;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Student;
 import uk.ac.ucl.comp0010.repository.GradeRepository;
 import uk.ac.ucl.comp0010.repository.ModuleRepository;
 import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.dto.BatchRowResult;
+import uk.ac.ucl.comp0010.dto.GradeView;
+import uk.ac.ucl.comp0010.service.ExportService;
+import uk.ac.ucl.comp0010.service.GradeBatchService;
+import uk.ac.ucl.comp0010.service.GradeRejectedException;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.GradeWriteCoalescer;
+import uk.ac.ucl.comp0010.service.TableVersions;
 
-import java.util.Optional;
+import java.sql.SQLException;
+import java.util.List;
 
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,6 +46,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Tests for GradeController.addGrade endpoint.
  */
 @WebMvcTest(controllers = GradeController.class)
+@Import(TableVersions.class)
 @AutoConfigureMockMvc(addFilters = false) // bypass Spring Security filters in tests
 class GradeControllerTest {
 
@@ -37,8 +55,14 @@ class GradeControllerTest {
     @MockBean GradeRepository gradeRepository;
     @MockBean StudentRepository studentRepository;
     @MockBean ModuleRepository moduleRepository;
+    @MockBean GradeWriteCoalescer gradeWriteCoalescer;
+    @MockBean GradeBatchService gradeBatchService;
+    @MockBean ExportService exportService;
+    @MockBean GradeSummaryService gradeSummaryService;
+    @MockBean DomainMetrics domainMetrics;
 
     @Autowired ObjectMapper objectMapper;
+    @Autowired TableVersions tableVersions;
 
     @Test
     void addGrade_returnsSavedGrade_ok() throws Exception {
@@ -52,13 +76,10 @@ class GradeControllerTest {
         saved.setStudent(s);
         saved.setModule(m);
 
-        // If your StudentRepository uses Integer IDs, change 1L -> 1 below.
-        when(studentRepository.findById(1)).thenReturn(Optional.of(s));
-        when(moduleRepository.findById("COMP0010")).thenReturn(Optional.of(m));
-        when(gradeRepository.save(any(Grade.class))).thenReturn(saved);
+        when(gradeWriteCoalescer.addGrade(1, "COMP0010", 85)).thenReturn(saved);
 
         String body = """
-      {"studentId":"1","moduleCode":"COMP0010","score":"85"}
+      {"student_id":"1","module_code":"COMP0010","score":"85"}
       """;
 
         // Act + Assert response
@@ -71,21 +92,39 @@ class GradeControllerTest {
                 .andExpect(jsonPath("$.student.id").value(1))
                 .andExpect(jsonPath("$.module.code").value("COMP0010"));
 
-        // Assert the Grade passed to save(..) had the right fields
-        ArgumentCaptor<Grade> cap = ArgumentCaptor.forClass(Grade.class);
-        verify(gradeRepository).save(cap.capture());
-        Grade toSave = cap.getValue();
-        assertEquals(85, toSave.getScore());
-        assertEquals(1, toSave.getStudent().getId());
-        assertEquals("COMP0010", toSave.getModule().getCode());
+        verify(gradeWriteCoalescer).addGrade(1, "COMP0010", 85);
+    }
+
+    @Test
+    void addGrade_duplicate_returns409() throws Exception {
+        when(gradeWriteCoalescer.addGrade(1, "COMP0010", 85)).thenThrow(
+                new GradeRejectedException(Reason.DUPLICATE, "Student already has a grade for this module"));
+
+        mvc.perform(post("/grades/addGrade")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"student_id\":\"1\",\"module_code\":\"COMP0010\",\"score\":\"85\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void addGrade_duplicateRacingTheCheck_returns409() throws Exception {
+        when(gradeWriteCoalescer.addGrade(1, "COMP0010", 85))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Unique index violation: UK_GRADE_STUDENT_MODULE", "23505")));
+
+        mvc.perform(post("/grades/addGrade")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"student_id\":\"1\",\"module_code\":\"COMP0010\",\"score\":\"85\"}"))
+                .andExpect(status().isConflict());
     }
 
     @Test
     void addGrade_studentNotFound_returns5xx() throws Exception {
-        when(studentRepository.findById(123)).thenReturn(Optional.empty());
+        when(gradeWriteCoalescer.addGrade(123, "COMP0010", 70))
+                .thenThrow(new GradeRejectedException(Reason.NOT_FOUND, "Student not found"));
 
         String body = """
-      {"studentId":"123","moduleCode":"COMP0010","score":"70"}
+      {"student_id":"123","module_code":"COMP0010","score":"70"}
       """;
 
         mvc.perform(post("/grades/addGrade")
@@ -96,12 +135,11 @@ class GradeControllerTest {
 
     @Test
     void addGrade_moduleNotFound_returns5xx() throws Exception {
-        Student s = new Student(1, "Alice", "Smith", "alice01", "alice@example.com");
-        when(studentRepository.findById(1)).thenReturn(Optional.of(s));
-        when(moduleRepository.findById("NOPE")).thenReturn(Optional.empty());
+        when(gradeWriteCoalescer.addGrade(1, "NOPE", 70))
+                .thenThrow(new GradeRejectedException(Reason.NOT_FOUND, "Module not found"));
 
         String body = """
-      {"studentId":"1","moduleCode":"NOPE","score":"70"}
+      {"student_id":"1","module_code":"NOPE","score":"70"}
       """;
 
         mvc.perform(post("/grades/addGrade")
@@ -109,4 +147,122 @@ class GradeControllerTest {
                         .content(body))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void addGrade_notRegistered_returns400() throws Exception {
+        when(gradeWriteCoalescer.addGrade(1, "COMP0010", 70)).thenThrow(new GradeRejectedException(
+                Reason.NOT_REGISTERED, "Student must be registered for this module before receiving a grade"));
+
+        mvc.perform(post("/grades/addGrade")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"student_id\":\"1\",\"module_code\":\"COMP0010\",\"score\":\"70\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void addGrades_returnsOutcomePerRow() throws Exception {
+        when(gradeBatchService.addGrades(anyList())).thenReturn(List.of(
+                BatchRowResult.created(0, 7L),
+                BatchRowResult.rejected(1, "Student not found")));
+
+        String body = """
+      [{"student_id":"1","module_code":"COMP0010","score":"85"},
+       {"student_id":"2","module_code":"COMP0010","score":"60"}]
+      """;
+
+        mvc.perform(post("/grades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].message").value("Student not found"));
+    }
+
+    @Test
+    void addGrades_emptyBody_returns400() throws Exception {
+        mvc.perform(post("/grades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(gradeBatchService, never()).addGrades(anyList());
+    }
+
+    @Test
+    void exportGrades_unknownFormat_returns400() throws Exception {
+        mvc.perform(get("/grades/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllGrades_returnsFlatViews_withNextCursor() throws Exception {
+        when(gradeRepository.findPageAfter(5L, Limit.of(1))).thenReturn(List.of(
+                new GradeView(6L, 72, 1, "Alice", "Smith", "COMP0010", "Software Engineering")));
+
+        mvc.perform(get("/grades").param("after", "5").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(6))
+                .andExpect(jsonPath("$[0].student_id").value(1))
+                .andExpect(jsonPath("$[0].first_name").value("Alice"))
+                .andExpect(jsonPath("$[0].module_code").value("COMP0010"))
+                .andExpect(jsonPath("$[0].module_name").value("Software Engineering"))
+                .andExpect(jsonPath("$[0].score").value(72))
+                .andExpect(jsonPath("$[0].student").doesNotExist())
+                .andExpect(header().string("X-Next-Cursor", "6"));
+    }
+
+    @Test
+    void getAllGrades_unchanged_returns304WithoutQuerying() throws Exception {
+        when(gradeRepository.findPageAfter(Long.MIN_VALUE, Limit.of(100))).thenReturn(List.of());
+        String etag = mvc.perform(get("/grades"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/grades").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        verify(gradeRepository, times(1)).findPageAfter(Long.MIN_VALUE, Limit.of(100));
+
+        // Grades carry student names, so a student write changes the tag too
+        tableVersions.changed(TableVersions.Table.STUDENT);
+        mvc.perform(get("/grades").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void getStudentGrades_returnsThatStudentsPage() throws Exception {
+        when(studentRepository.existsById(1)).thenReturn(true);
+        when(gradeRepository.findByStudentAfter(1, Long.MIN_VALUE, Limit.of(1))).thenReturn(List.of(
+                new GradeView(6L, 72, 1, "Alice", "Smith", "COMP0010", "Software Engineering")));
+
+        mvc.perform(get("/grades/student/1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(6))
+                .andExpect(jsonPath("$[0].student_id").value(1))
+                .andExpect(header().string("X-Next-Cursor", "6"));
+
+        mvc.perform(get("/grades/student/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getModuleGrades_returnsThatModulesPage() throws Exception {
+        when(moduleRepository.existsById("COMP0010")).thenReturn(true);
+        when(gradeRepository.findByModuleAfter("COMP0010", 6L, Limit.of(100))).thenReturn(List.of(
+                new GradeView(7L, 64, 2, "Bob", "Jones", "COMP0010", "Software Engineering")));
+
+        mvc.perform(get("/grades/module/COMP0010").param("after", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].module_code").value("COMP0010"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mvc.perform(get("/grades/module/NOPE"))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -6,25 +6,42 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.data.domain.Limit;
+import uk.ac.ucl.comp0010.dto.LeaderboardEntry;
+import uk.ac.ucl.comp0010.dto.ModuleStats;
+import uk.ac.ucl.comp0010.dto.StudentRank;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.service.ModuleLeaderboard;
+import uk.ac.ucl.comp0010.service.ModuleStatsService;
+import uk.ac.ucl.comp0010.service.TableVersions;
+
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /** Tests for ModuleController.addModule endpoint. */
 @WebMvcTest(controllers = ModuleController.class)
+@Import(TableVersions.class)
 @AutoConfigureMockMvc(addFilters = false) // bypass security filters in tests
 class ModuleControllerTest {
 
     @Autowired MockMvc mvc;
 
     @MockBean ModuleRepository moduleRepository;
+    @MockBean ModuleStatsService moduleStatsService;
+    @MockBean ModuleLeaderboard moduleLeaderboard;
+    @MockBean DomainMetrics domainMetrics;
 
     @Test
     void addModule_creates_andReturns201() throws Exception {
@@ -85,4 +102,87 @@ class ModuleControllerTest {
         verify(moduleRepository, never()).existsById(any());
         verify(moduleRepository, never()).save(any());
     }
+
+    @Test
+    void getAllModules_fullPage_setsNextCursor() throws Exception {
+        when(moduleRepository.findByCodeGreaterThanOrderByCodeAsc("COMP0001", Limit.of(2))).thenReturn(List.of(
+                new Module("COMP0002", "A", false),
+                new Module("COMP0003", "B", true)));
+
+        mvc.perform(get("/modules").param("after", "COMP0001").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("X-Next-Cursor", "COMP0003"));
+    }
+
+    @Test
+    void getAllModules_lastPage_hasNoCursor() throws Exception {
+        when(moduleRepository.findByCodeGreaterThanOrderByCodeAsc("", Limit.of(100)))
+                .thenReturn(List.of(new Module("COMP0002", "A", false)));
+
+        mvc.perform(get("/modules"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code").value("COMP0002"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getAllModules_nonPositiveLimit_returns400() throws Exception {
+        mvc.perform(get("/modules").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getModuleStats_returnsStats() throws Exception {
+        when(moduleStatsService.forModule("COMP0010")).thenReturn(new ModuleStats(
+                "COMP0010", 2, 55.0, 55.0, 30, 80, 25.0, 0.5,
+                List.of(0L, 0L, 0L, 1L, 0L, 0L, 0L, 0L, 1L, 0L)));
+
+        mvc.perform(get("/modules/COMP0010/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.module_code").value("COMP0010"))
+                .andExpect(jsonPath("$.pass_rate").value(0.5))
+                .andExpect(jsonPath("$.histogram.length()").value(10));
+    }
+
+    @Test
+    void getModuleStats_unknownModule_returns404() throws Exception {
+        mvc.perform(get("/modules/NOPE/stats"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getTopStudents_returnsLeaderboard() throws Exception {
+        when(moduleRepository.findById("COMP0010"))
+                .thenReturn(Optional.of(new Module("COMP0010", "Software Engineering", true)));
+        when(moduleLeaderboard.top("COMP0010", 2)).thenReturn(List.of(
+                new LeaderboardEntry(1, 7, 90), new LeaderboardEntry(1, 9, 90)));
+
+        mvc.perform(get("/modules/COMP0010/top").param("n", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].rank").value(1))
+                .andExpect(jsonPath("$[1].student_id").value(9));
+    }
+
+    @Test
+    void getTopStudents_rejectsBadSize_andUnknownModule() throws Exception {
+        mvc.perform(get("/modules/COMP0010/top").param("n", "0")).andExpect(status().isBadRequest());
+        mvc.perform(get("/modules/COMP0010/top").param("n", "1001")).andExpect(status().isBadRequest());
+
+        when(moduleRepository.findById("NOPE")).thenReturn(Optional.empty());
+        mvc.perform(get("/modules/NOPE/top")).andExpect(status().isNotFound());
+        verifyNoInteractions(moduleLeaderboard);
+    }
+
+    @Test
+    void getStudentRank_returnsRank_or404() throws Exception {
+        when(moduleLeaderboard.rank("COMP0010", 7)).thenReturn(new StudentRank("COMP0010", 7, 64, 3, 12));
+
+        mvc.perform(get("/modules/COMP0010/rank/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(3))
+                .andExpect(jsonPath("$.graded").value(12));
+        mvc.perform(get("/modules/COMP0010/rank/8")).andExpect(status().isNotFound());
+    }
 }
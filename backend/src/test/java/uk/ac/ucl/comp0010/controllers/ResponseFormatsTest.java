@@ -0,0 +1,139 @@
+package uk.ac.ucl.comp0010.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/** Tests for content negotiation of binary encodings and for response compression. */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ResponseFormatsTest {
+
+    private static final String CBOR = "application/cbor";
+    private static final String SMILE = "application/x-jackson-smile";
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired StudentRepository studentRepository;
+
+    @BeforeEach
+    void seed() {
+        studentRepository.saveAll(IntStream.rangeClosed(1, 100)
+                .mapToObj(i -> new Student(i, "First" + i, "Last" + i, "user" + i, "user" + i + "@example.com"))
+                .toList());
+    }
+
+    @AfterEach
+    void clean() {
+        studentRepository.deleteAll();
+    }
+
+    private MockHttpServletResponse fetch(RequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result.getResponse();
+    }
+
+    @Test
+    void list_inCborOrSmile_decodesToTheJsonDocument() throws Exception {
+        MockHttpServletResponse json = fetch(get("/students"));
+        MockHttpServletResponse cbor = fetch(get("/students").accept(CBOR));
+        MockHttpServletResponse smile = fetch(get("/students").accept(SMILE));
+
+        assertEquals(CBOR, cbor.getContentType());
+        assertEquals(SMILE, smile.getContentType());
+        JsonNode expected = objectMapper.readTree(json.getContentAsByteArray());
+        assertEquals(100, expected.size());
+        assertEquals(expected, new CBORMapper().readTree(cbor.getContentAsByteArray()));
+        assertEquals(expected, new SmileMapper().readTree(smile.getContentAsByteArray()));
+        assertTrue(cbor.getContentAsByteArray().length < json.getContentAsByteArray().length);
+        assertTrue(smile.getContentAsByteArray().length < cbor.getContentAsByteArray().length);
+    }
+
+    @Test
+    void list_withoutAcceptOrWithWildcard_isJson() throws Exception {
+        assertEquals("application/json", fetch(get("/students")).getContentType());
+        assertEquals("application/json", fetch(get("/students").accept("*/*")).getContentType());
+        assertEquals("application/json", fetch(get("/students").accept("application/json")).getContentType());
+    }
+
+    @Test
+    void list_tagsDifferByEncoding() throws Exception {
+        String jsonTag = fetch(get("/students")).getHeader("ETag");
+        String cborTag = fetch(get("/students").accept(CBOR)).getHeader("ETag");
+        assertNotEquals(jsonTag, cborTag);
+
+        assertEquals(304, fetch(get("/students").accept(CBOR).header("If-None-Match", cborTag)).getStatus());
+        assertEquals(200, fetch(get("/students").accept(CBOR).header("If-None-Match", jsonTag)).getStatus());
+    }
+
+    @Test
+    void largeResponses_areGzippedWithWeakTags() throws Exception {
+        MockHttpServletResponse plain = fetch(get("/students"));
+        MockHttpServletResponse gzipped = fetch(get("/students").header("Accept-Encoding", "gzip, deflate"));
+
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+        assertEquals("W/" + plain.getHeader("ETag"), gzipped.getHeader("ETag"));
+        assertTrue(gzipped.getHeaders("Vary").contains("Accept-Encoding"));
+        assertArrayEquals(plain.getContentAsByteArray(), gunzip(gzipped.getContentAsByteArray()));
+
+        assertEquals(304, fetch(get("/students").header("Accept-Encoding", "gzip")
+                .header("If-None-Match", gzipped.getHeader("ETag"))).getStatus());
+    }
+
+    @Test
+    void smallResponses_areNotGzipped() throws Exception {
+        MockHttpServletResponse response = fetch(get("/students/1").header("Accept-Encoding", "gzip"));
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+    }
+
+    @Test
+    void export_negotiatesCborAndIsGzipped() throws Exception {
+        MockHttpServletResponse ndjson = fetch(get("/students/export"));
+        MockHttpServletResponse gzipped = fetch(get("/students/export").header("Accept-Encoding", "gzip"));
+        MockHttpServletResponse cbor = fetch(get("/students/export").accept("application/cbor-seq"));
+
+        assertEquals("application/x-ndjson", ndjson.getContentType());
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+        assertArrayEquals(ndjson.getContentAsByteArray(), gunzip(gzipped.getContentAsByteArray()));
+        assertEquals("application/cbor-seq", cbor.getContentType());
+        List<JsonNode> rows = new CBORMapper().readerFor(JsonNode.class)
+                .<JsonNode>readValues(cbor.getContentAsByteArray()).readAll();
+        assertEquals(100, rows.size());
+        assertEquals("text/csv", fetch(get("/students/export").param("format", "csv")
+                .accept("application/cbor-seq")).getContentType(), "format wins over Accept");
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package uk.ac.ucl.comp0010.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.ExportService;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.StudentSearchIndex;
+import uk.ac.ucl.comp0010.service.TableVersions;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/** Tests for StudentController's conditional requests. */
+@WebMvcTest(controllers = StudentController.class)
+@Import(TableVersions.class)
+@AutoConfigureMockMvc(addFilters = false) // bypass security filters in tests
+class StudentControllerTest {
+
+    private static final String RENAME = """
+            {"firstName":"Alicia","lastName":"Smith","username":"asmith","email":"alice@example.com"}
+            """;
+
+    @Autowired MockMvc mvc;
+    @Autowired TableVersions tableVersions;
+
+    @MockBean StudentRepository studentRepository;
+    @MockBean ExportService exportService;
+    @MockBean GradeSummaryService gradeSummaryService;
+    @MockBean StudentSearchIndex studentSearchIndex;
+    @MockBean DomainMetrics domainMetrics;
+
+    private static Student alice() {
+        return new Student(1, "Alice", "Smith", "asmith", "alice@example.com");
+    }
+
+    @Test
+    void getAllStudents_unchanged_returns304WithoutQuerying() throws Exception {
+        when(studentRepository.findByIdGreaterThanOrderByIdAsc(Integer.MIN_VALUE, Limit.of(100)))
+                .thenReturn(List.of(alice()));
+        String etag = mvc.perform(get("/students"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/students").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(studentRepository, times(1)).findByIdGreaterThanOrderByIdAsc(Integer.MIN_VALUE, Limit.of(100));
+
+        tableVersions.changed(TableVersions.Table.STUDENT);
+        mvc.perform(get("/students").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void getStudentById_taggedByContent() throws Exception {
+        when(studentRepository.findById(1)).thenReturn(Optional.of(alice()));
+        String etag = mvc.perform(get("/students/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/students/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        Student renamed = alice();
+        renamed.setFirstName("Alicia");
+        when(studentRepository.findById(1)).thenReturn(Optional.of(renamed));
+        mvc.perform(get("/students/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Alicia"));
+    }
+
+    @Test
+    void updateStudent_staleIfMatch_returns412WithoutSaving() throws Exception {
+        String stale = ConditionalRequests.etag(new Student(1, "Al", "Smith", "asmith", "alice@example.com"));
+        when(studentRepository.findForUpdateById(1)).thenReturn(Optional.of(alice()));
+
+        mvc.perform(put("/students/1").header("If-Match", stale)
+                        .contentType(MediaType.APPLICATION_JSON).content(RENAME))
+                .andExpect(status().isPreconditionFailed());
+        verify(studentRepository, never()).save(any(Student.class));
+    }
+
+    @Test
+    void updateStudent_currentIfMatch_savesAndReturnsNewTag() throws Exception {
+        String current = ConditionalRequests.etag(alice());
+        when(studentRepository.findForUpdateById(1)).thenReturn(Optional.of(alice()));
+        when(studentRepository.save(any(Student.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        mvc.perform(put("/students/1").header("If-Match", current)
+                        .contentType(MediaType.APPLICATION_JSON).content(RENAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Alicia"))
+                .andExpect(header().string("ETag", not(current)));
+        verify(studentRepository, never()).findById(1);
+    }
+
+    @Test
+    void createStudent_overLengthField_returns400() throws Exception {
+        String tooLong = "a".repeat(31);
+        when(studentRepository.save(any(Student.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("Value too long for column USERNAME", "22001")));
+
+        mvc.perform(post("/students").contentType(MediaType.APPLICATION_JSON)
+                        .content(RENAME.replace("asmith", tooLong)))
+                .andExpect(status().isBadRequest());
+        verify(domainMetrics, never()).rejected(any(), any());
+    }
+
+    @Test
+    void createStudent_takenUsername_returns409() throws Exception {
+        when(studentRepository.save(any(Student.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("Unique index violation: UK_STUDENT_USERNAME", "23505")));
+
+        mvc.perform(post("/students").contentType(MediaType.APPLICATION_JSON).content(RENAME))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void etag_distinguishesNullFromText() {
+        assertNotEquals(ConditionalRequests.etag(new Student(1, "a", "bc", null, null)),
+                ConditionalRequests.etag(new Student(1, "ab", "c", null, null)));
+        assertNotEquals(ConditionalRequests.etag(new Student(1, "a", null, null, null)),
+                ConditionalRequests.etag(new Student(1, "a", "null", null, null)));
+    }
+}
@@ -0,0 +1,143 @@
+package uk.ac.ucl.comp0010.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Unit tests for DomainEventPipeline. */
+class DomainEventPipelineTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RecordingConsumer consumer = new RecordingConsumer();
+    private DomainEventPipeline pipeline;
+
+    @AfterEach
+    void stop() {
+        consumer.release.countDown();
+        pipeline.stop();
+    }
+
+    private DomainEventPipeline start(int capacity, int batchSize) {
+        pipeline = new DomainEventPipeline(List.of(consumer), registry, capacity, batchSize,
+                Duration.ofMillis(20));
+        pipeline.start();
+        return pipeline;
+    }
+
+    private static GradeRecorded graded(int studentId) {
+        return new GradeRecorded((long) studentId, studentId, "COMP0010", 70);
+    }
+
+    @Test
+    void enqueue_deliversInOrder_inBoundedBatches() throws Exception {
+        consumer.release.countDown();
+        start(100, 4);
+        for (int i = 1; i <= 10; i++) {
+            pipeline.enqueue(graded(i));
+        }
+
+        assertTrue(pipeline.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(10, consumer.events.size());
+        assertEquals(1, consumer.events.get(0).studentId());
+        assertEquals(10, consumer.events.get(9).studentId());
+        assertTrue(consumer.largestBatch.get() <= 4);
+        assertEquals(10.0, registry.get("app.events.published").tag("type", "GradeRecorded")
+                .counter().count());
+        assertEquals(10, registry.get("app.events.lag").timer().count());
+    }
+
+    @Test
+    void fullQueue_dropsEvents_andResyncsConsumers() throws Exception {
+        start(2, 10);
+        pipeline.enqueue(graded(1));
+        assertTrue(consumer.busy.await(5, TimeUnit.SECONDS));
+        pipeline.enqueue(graded(2));
+        pipeline.enqueue(graded(3));
+        pipeline.enqueue(graded(4));
+
+        assertEquals(2.0, registry.get("app.events.queue.depth").gauge().value());
+        assertEquals(1.0, registry.get("app.events.dropped").counter().count());
+
+        consumer.release.countDown();
+        assertTrue(pipeline.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(1, consumer.resyncs.get());
+        assertEquals(List.of(1), consumer.events.stream().map(DomainEvent::studentId).toList());
+    }
+
+    @Test
+    void failingConsumer_isResynced() throws Exception {
+        consumer.release.countDown();
+        consumer.failNext = true;
+        start(10, 10);
+        pipeline.enqueue(graded(1));
+
+        assertTrue(pipeline.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(1, consumer.resyncs.get());
+        assertEquals(1.0, registry.get("app.events.failed").counter().count());
+    }
+
+    @Test
+    void requestResync_resyncsConsumersOnWorker() throws Exception {
+        consumer.release.countDown();
+        start(10, 10);
+        pipeline.requestResync();
+
+        assertTrue(pipeline.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(1, consumer.resyncs.get());
+    }
+
+    @Test
+    void stop_drainsQueuedEvents() throws Exception {
+        start(100, 2);
+        pipeline.enqueue(graded(1));
+        assertTrue(consumer.busy.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            pipeline.enqueue(graded(i));
+        }
+
+        consumer.release.countDown();
+        pipeline.stop();
+        assertFalse(pipeline.isRunning());
+        assertEquals(5, consumer.events.size());
+    }
+
+    /** Records what it receives; holds the worker in its first batch until released. */
+    private static final class RecordingConsumer implements DomainEventConsumer {
+        final List<DomainEvent> events = new CopyOnWriteArrayList<>();
+        final AtomicInteger largestBatch = new AtomicInteger();
+        final AtomicInteger resyncs = new AtomicInteger();
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean failNext;
+
+        @Override
+        public void consume(List<DomainEvent> batch) {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("boom");
+            }
+            events.addAll(batch);
+            largestBatch.accumulateAndGet(batch.size(), Math::max);
+        }
+
+        @Override
+        public void resync() {
+            resyncs.incrementAndGet();
+        }
+    }
+}
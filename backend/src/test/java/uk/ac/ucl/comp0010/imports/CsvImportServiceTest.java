@@ -0,0 +1,145 @@
+package uk.ac.ucl.comp0010.imports;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.ImportLineError;
+import uk.ac.ucl.comp0010.dto.ImportReport;
+import uk.ac.ucl.comp0010.imports.CsvImportService.Kind;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+import uk.ac.ucl.comp0010.service.SecondLevelCache;
+import uk.ac.ucl.comp0010.service.StudentSearchIndex;
+import uk.ac.ucl.comp0010.service.TableVersions;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for CsvImportService, with each chunk committing on its own. */
+@DataJpaTest
+@Import({CsvImportService.class, GradeSummaryService.class, RegistrationIndex.class,
+        SecondLevelCache.class, StudentSearchIndex.class, TableVersions.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CsvImportServiceTest {
+
+    @Autowired CsvImportService importService;
+    @Autowired GradeSummaryService gradeSummaryService;
+    @Autowired RegistrationIndex registrationIndex;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired GradeRepository gradeRepository;
+    @Autowired SecondLevelCache secondLevelCache;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM grade");
+        jdbcTemplate.update("DELETE FROM registration");
+        jdbcTemplate.update("DELETE FROM student_grade_summary");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("DELETE FROM module");
+        // The cache outlives this test's context, so drop what it read of the rows above
+        secondLevelCache.evictAll();
+    }
+
+    private ImportReport importCsv(Kind kind, String csv) throws IOException {
+        return importService.importCsv(kind,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void importAll_writesRowsAndReportsRejectedLines() throws IOException {
+        ImportReport modules = importCsv(Kind.MODULES,
+                "code,name,mnc\nCOMP0010,Software Engineering,true\nCOMP0020,Databases,\n"
+                        + "COMP0010,Duplicate,false\nCOMP0030,Bad,maybe\n");
+        assertEquals(2, modules.imported());
+        assertEquals(List.of(
+                new ImportLineError(4, "Module already exists"),
+                new ImportLineError(5, "mnc must be true or false")), modules.errors());
+
+        ImportReport students = importCsv(Kind.STUDENTS,
+                "id,first_name,last_name,username,email\n1,Alice,Smith,alice01,alice@example.com\n"
+                        + "2,Bob,\"Jones, Jr\",bobj,bob@example.com\nx,Bad,Id,,\n");
+        assertEquals(2, students.imported());
+        assertEquals("Jones, Jr", studentRepository.findById(2).orElseThrow().getLastName());
+        assertEquals(List.of(new ImportLineError(4, "id must be an integer")), students.errors());
+
+        ImportReport registrations = importCsv(Kind.REGISTRATIONS,
+                "id,student_id,module_code\n,1,COMP0010\n,2,COMP0010\n,1,COMP0020\n"
+                        + ",1,COMP0010\n,3,COMP0010\n,1,COMP9999\n");
+        assertEquals(3, registrations.imported());
+        assertEquals(List.of(
+                new ImportLineError(5, "Student is already registered for this module"),
+                new ImportLineError(6, "Student not found"),
+                new ImportLineError(7, "Module not found")), registrations.errors());
+        assertTrue(registrationIndex.isRegistered(1, "COMP0020"));
+
+        ImportReport grades = importCsv(Kind.GRADES,
+                "student_id,module_code,score\n1,COMP0010,70\n2,COMP0010,81\n1,COMP0020,40\n"
+                        + "1,COMP0010,50\n2,COMP0020,60\n1,COMP0020,101\n");
+        assertEquals(3, grades.imported());
+        assertEquals(6, grades.rows());
+        assertEquals(3, grades.rejected());
+        assertEquals(List.of(
+                new ImportLineError(5, "Student already has a grade for this module"),
+                new ImportLineError(6, "Student must be registered for this module before receiving a grade"),
+                new ImportLineError(7, "Score must be between 0 and 100")), grades.errors());
+        assertEquals(110L, jdbcTemplate.queryForObject(
+                "SELECT grade_sum FROM student_grade_summary WHERE student_id = 1", Long.class));
+        assertTrue(gradeSummaryService.check().isEmpty());
+    }
+
+    @Test
+    void importedIds_doNotCollideWithJpaIds() throws IOException {
+        importCsv(Kind.MODULES, "code,name\nCOMP0010,Software Engineering\n");
+        importCsv(Kind.STUDENTS, "id\n1\n2\n");
+        importCsv(Kind.REGISTRATIONS, "student_id,module_code\n1,COMP0010\n2,COMP0010\n");
+        importCsv(Kind.GRADES, "student_id,module_code,score\n1,COMP0010,70\n");
+
+        Student bob = studentRepository.findById(2).orElseThrow();
+        Module se = moduleRepository.findById("COMP0010").orElseThrow();
+        Grade saved = gradeRepository.save(new Grade(60, bob, se));
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM grade", Integer.class));
+        assertNotNull(saved.getId());
+    }
+
+    @Test
+    void importFile_readsFromDisk(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("modules.csv");
+        Files.writeString(file, "code,name\r\nCOMP0010,Software Engineering\r\n");
+
+        ImportReport report = importService.importCsv(Kind.MODULES, file);
+
+        assertEquals(1, report.imported());
+        assertTrue(moduleRepository.existsById("COMP0010"));
+    }
+
+    @Test
+    void missingColumn_isRejectedBeforeReading() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> importCsv(Kind.GRADES, "student_id,module_code\n1,COMP0010\n"));
+        assertEquals("The CSV has no score column", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> importCsv(Kind.GRADES, ""));
+    }
+}
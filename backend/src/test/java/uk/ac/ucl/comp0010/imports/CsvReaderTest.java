@@ -0,0 +1,57 @@
+package uk.ac.ucl.comp0010.imports;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for CsvReader. */
+class CsvReaderTest {
+
+    private static List<String[]> readAll(CsvReader csv) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        for (String[] record = csv.next(); record != null; record = csv.next()) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Test
+    void next_splitsQuotedAndEmptyFields() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "\uFEFFid,name\r\n1,\"Smith, \"\"Al\"\"\"\n\n2,\r3,"));
+
+        List<String[]> records = readAll(csv);
+
+        assertEquals(4, records.size());
+        assertArrayEquals(new String[] {"id", "name"}, records.get(0));
+        assertArrayEquals(new String[] {"1", "Smith, \"Al\""}, records.get(1));
+        assertArrayEquals(new String[] {"2", ""}, records.get(2));
+        assertArrayEquals(new String[] {"3", ""}, records.get(3));
+    }
+
+    @Test
+    void lineNumber_countsLineBreaksInsideQuotes() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,\"two\r\nlines\"\nb,c\n"));
+
+        assertArrayEquals(new String[] {"a", "two\nlines"}, csv.next());
+        assertEquals(1, csv.lineNumber());
+        assertArrayEquals(new String[] {"b", "c"}, csv.next());
+        assertEquals(3, csv.lineNumber());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void unclosedQuote_isMalformed() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\n\"open,c\n"));
+        csv.next();
+
+        CsvReader.MalformedCsvException e =
+                assertThrows(CsvReader.MalformedCsvException.class, csv::next);
+        assertEquals(2, e.line());
+    }
+}
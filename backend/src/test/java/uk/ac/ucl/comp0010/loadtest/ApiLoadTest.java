@@ -0,0 +1,109 @@
+package uk.ac.ucl.comp0010.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HTTP load test of the grade and registration API against the app on a random port.
+ *
+ * <p>Excluded from the normal build; run with {@code mvn test -Ploadtest}, tuning the
+ * workload through the {@code loadtest.*} properties described in {@link LoadTestConfig}.
+ * Prints throughput and p50/p99/p99.9 latency per endpoint and writes them as JSON to
+ * the report path.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=400", "logging.level.root=WARN"})
+class ApiLoadTest {
+
+    @LocalServerPort int port;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired RegistrationIndex registrationIndex;
+
+    @Test
+    void registrationWeek() throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LoadGenerator generator = new LoadGenerator(URI.create("http://localhost:" + port + "/"), config);
+        seed(config, generator);
+
+        Map<Endpoint, LoadGenerator.Stats> stats = generator.run();
+
+        Map<String, Object> report = report(config, stats);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(config.report()), report);
+        long total = stats.values().stream().mapToLong(s -> s.latencyMicros().getTotalCount()).sum();
+        assertTrue(total > 0, "No requests completed in the measured window");
+    }
+
+    /** Inserts students, modules and each student's first registrations over JDBC. */
+    private void seed(LoadTestConfig config, LoadGenerator generator) {
+        List<Object[]> modules = new ArrayList<>();
+        for (int m = 0; m < config.modules(); m++) {
+            modules.add(new Object[] {LoadGenerator.moduleCode(m), "Load test module " + m});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO module (code, name, mnc) VALUES (?, ?, false)", modules);
+
+        List<Object[]> students = new ArrayList<>();
+        List<Object[]> registrations = new ArrayList<>();
+        for (int s = 1; s <= config.students(); s++) {
+            students.add(new Object[] {s, "First" + s, "Last" + s, "user" + s, "user" + s + "@example.com"});
+            for (int k = 0; k < config.registrationsPerStudent(); k++) {
+                // Negative ids stay clear of the registration sequence
+                registrations.add(new Object[] {
+                        -registrations.size() - 1, s, LoadGenerator.moduleCode(generator.moduleIndex(s, k))});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO student (id, first_name, last_name, username, email) VALUES (?, ?, ?, ?, ?)",
+                students);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO registration (id, student_id, module_code) VALUES (?, ?, ?)", registrations);
+        registrationIndex.load();
+    }
+
+    private static Map<String, Object> report(LoadTestConfig config, Map<Endpoint, LoadGenerator.Stats> stats) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-36s %9s %9s %7s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Endpoint, LoadGenerator.Stats> entry : stats.entrySet()) {
+            Histogram h = entry.getValue().latencyMicros();
+            if (h.getTotalCount() == 0) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", h.getTotalCount());
+            row.put("throughput_per_second", h.getTotalCount() / (double) config.durationSeconds());
+            row.put("errors", entry.getValue().errors());
+            row.put("statuses", entry.getValue().statuses());
+            row.put("p50_ms", h.getValueAtPercentile(50) / 1000.0);
+            row.put("p99_ms", h.getValueAtPercentile(99) / 1000.0);
+            row.put("p999_ms", h.getValueAtPercentile(99.9) / 1000.0);
+            row.put("max_ms", h.getMaxValue() / 1000.0);
+            endpoints.put(entry.getKey().label(), row);
+            System.out.printf("%-36s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().label(), row.get("requests"), row.get("throughput_per_second"),
+                    row.get("errors"), row.get("p50_ms"), row.get("p99_ms"), row.get("p999_ms"), row.get("max_ms"));
+        }
+        report.put("endpoints", endpoints);
+        return report;
+    }
+}
@@ -0,0 +1,36 @@
+package uk.ac.ucl.comp0010.loadtest;
+
+/**
+ * The endpoints the load test drives.
+ */
+enum Endpoint {
+    ADD_GRADE("addGrade", "POST /grades/addGrade"),
+    REGISTER("register", "POST /registrations"),
+    GET_STUDENT("getStudent", "GET /students/{id}"),
+    STUDENT_REGISTRATIONS("studentRegistrations", "GET /registrations/student/{id}");
+
+    private final String key;
+    private final String label;
+
+    Endpoint(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    String key() {
+        return key;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static Endpoint fromKey(String key) {
+        for (Endpoint e : values()) {
+            if (e.key.equals(key)) {
+                return e;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + key);
+    }
+}
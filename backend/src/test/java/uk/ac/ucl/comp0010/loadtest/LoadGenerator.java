@@ -0,0 +1,210 @@
+package uk.ac.ucl.comp0010.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Drives a weighted mix of API calls from many concurrent clients and records the
+ * latency of each call in a per-endpoint HDR histogram.
+ *
+ * <p>Each client is a chain of asynchronous {@link HttpClient} calls that issues its
+ * next request as soon as the previous one completes, so the number of requests in
+ * flight equals the configured concurrency without a thread per client.
+ *
+ * <p>Writes only target pairs that should succeed: grades go to seeded or newly
+ * created registrations that have no grade yet, and registrations go to modules the
+ * student is not yet on.
+ */
+final class LoadGenerator {
+
+    /** Longest latency the histograms can record, in microseconds. */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final URI base;
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Endpoint[] weighted;
+    private final Queue<int[]> ungraded = new ConcurrentLinkedQueue<>();
+    private final AtomicIntegerArray nextModuleOffset;
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+
+    private volatile long measureFrom;
+    private volatile long stopAt;
+
+    LoadGenerator(URI base, LoadTestConfig config) {
+        this.base = base;
+        this.config = config;
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        List<Endpoint> slots = new ArrayList<>();
+        config.mix().forEach((endpoint, weight) -> slots.addAll(Collections.nCopies(weight, endpoint)));
+        this.weighted = slots.toArray(new Endpoint[0]);
+        for (Endpoint e : Endpoint.values()) {
+            stats.put(e, new Stats());
+        }
+
+        nextModuleOffset = new AtomicIntegerArray(config.students() + 1);
+        List<int[]> seeded = new ArrayList<>();
+        for (int s = 1; s <= config.students(); s++) {
+            nextModuleOffset.set(s, config.registrationsPerStudent());
+            for (int k = 0; k < config.registrationsPerStudent(); k++) {
+                seeded.add(new int[] {s, moduleIndex(s, k)});
+            }
+        }
+        Collections.shuffle(seeded);
+        ungraded.addAll(seeded);
+    }
+
+    /**
+     * The module the k-th registration of a student goes to, as an index into the
+     * seeded modules. Offsetting by the student id spreads load across modules.
+     */
+    int moduleIndex(int student, int k) {
+        return (student + k) % config.modules();
+    }
+
+    static String moduleCode(int index) {
+        return String.format("LT%05d", index);
+    }
+
+    /**
+     * Runs the warmup and measured phases.
+     *
+     * @return the statistics of the measured phase, per endpoint
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    Map<Endpoint, Stats> run() throws InterruptedException {
+        long now = System.nanoTime();
+        measureFrom = now + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        stopAt = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        CountDownLatch done = new CountDownLatch(config.concurrency());
+        for (int i = 0; i < config.concurrency(); i++) {
+            next(done);
+        }
+        done.await();
+        executor.shutdown();
+        return stats;
+    }
+
+    private void next(CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= stopAt) {
+            done.countDown();
+            return;
+        }
+        Call call = pick();
+        client.sendAsync(call.request(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long end = System.nanoTime();
+                    boolean ok = error == null && response.statusCode() < 400;
+                    if (ok && call.onSuccess() != null) {
+                        call.onSuccess().run();
+                    }
+                    if (start >= measureFrom && end <= stopAt) {
+                        stats.get(call.endpoint()).record(
+                                TimeUnit.NANOSECONDS.toMicros(end - start),
+                                error == null ? response.statusCode() : -1);
+                    }
+                    next(done);
+                });
+    }
+
+    private Call pick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Endpoint endpoint = weighted[random.nextInt(weighted.length)];
+        int student = 1 + random.nextInt(config.students());
+        if (endpoint == Endpoint.ADD_GRADE) {
+            int[] pair = ungraded.poll();
+            if (pair != null) {
+                return new Call(endpoint, post("/grades/addGrade", String.format(
+                        "{\"student_id\":\"%d\",\"module_code\":\"%s\",\"score\":\"%d\"}",
+                        pair[0], moduleCode(pair[1]), random.nextInt(101))), null);
+            }
+            // Every registration is graded; register someone instead
+            endpoint = Endpoint.REGISTER;
+        }
+        if (endpoint == Endpoint.REGISTER) {
+            int k = nextModuleOffset.getAndIncrement(student);
+            if (k < config.modules()) {
+                int[] pair = {student, moduleIndex(student, k)};
+                return new Call(endpoint, post("/registrations", String.format(
+                        "{\"student_id\":\"%d\",\"module_code\":\"%s\"}",
+                        pair[0], moduleCode(pair[1]))), () -> ungraded.add(pair));
+            }
+            // The student is on every module; read their registrations instead
+            endpoint = Endpoint.STUDENT_REGISTRATIONS;
+        }
+        String path = endpoint == Endpoint.GET_STUDENT
+                ? "/students/" + student
+                : "/registrations/student/" + student;
+        return new Call(endpoint, HttpRequest.newBuilder(base.resolve(path)).GET().build(), null);
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private record Call(Endpoint endpoint, HttpRequest request, Runnable onSuccess) {}
+
+    /**
+     * Latencies and outcomes for one endpoint.
+     */
+    static final class Stats {
+        private final Histogram latencyMicros = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(long micros, int status) {
+            latencyMicros.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            if (status < 200 || status >= 400) {
+                errors.increment();
+            }
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        Histogram latencyMicros() {
+            return latencyMicros;
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+
+        Map<Integer, Long> statuses() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+}
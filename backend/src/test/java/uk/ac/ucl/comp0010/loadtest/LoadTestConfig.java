@@ -0,0 +1,69 @@
+package uk.ac.ucl.comp0010.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties.
+ *
+ * <p>The defaults approximate registration week: mostly new registrations and grade
+ * entry, with students checking their own records.
+ *
+ * @param students number of students seeded (loadtest.students, default 5000)
+ * @param modules number of modules seeded (loadtest.modules, default 200)
+ * @param registrationsPerStudent registrations seeded per student
+ *     (loadtest.registrationsPerStudent, default 4)
+ * @param concurrency number of concurrent clients, each with one request in flight
+ *     (loadtest.concurrency, default 1000)
+ * @param warmupSeconds run time before measurement starts (loadtest.warmup, default 10)
+ * @param durationSeconds measured run time (loadtest.duration, default 30)
+ * @param mix relative weight of each endpoint (loadtest.mix, default
+ *     "addGrade=30,register=40,getStudent=15,studentRegistrations=15")
+ * @param report path of the JSON report (loadtest.report, default
+ *     target/loadtest-report.json)
+ */
+record LoadTestConfig(
+        int students,
+        int modules,
+        int registrationsPerStudent,
+        int concurrency,
+        int warmupSeconds,
+        int durationSeconds,
+        Map<Endpoint, Integer> mix,
+        String report) {
+
+    static LoadTestConfig fromSystemProperties() {
+        LoadTestConfig config = new LoadTestConfig(
+                Integer.getInteger("loadtest.students", 5000),
+                Integer.getInteger("loadtest.modules", 200),
+                Integer.getInteger("loadtest.registrationsPerStudent", 4),
+                Integer.getInteger("loadtest.concurrency", 1000),
+                Integer.getInteger("loadtest.warmup", 10),
+                Integer.getInteger("loadtest.duration", 30),
+                parseMix(System.getProperty("loadtest.mix",
+                        "addGrade=30,register=40,getStudent=15,studentRegistrations=15")),
+                System.getProperty("loadtest.report", "target/loadtest-report.json"));
+        if (config.registrationsPerStudent() > config.modules()) {
+            throw new IllegalArgumentException("registrationsPerStudent must not exceed modules");
+        }
+        return config;
+    }
+
+    static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad loadtest.mix entry: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(Endpoint.fromKey(kv[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no positive weights");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,120 @@
+package uk.ac.ucl.comp0010.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.ac.ucl.comp0010.Team31Application;
+import uk.ac.ucl.comp0010.service.ModuleLeaderboard;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restarts the app under the durable profile against a small and a large database and
+ * checks that restart time does not grow with the data.
+ *
+ * <p>Excluded from the normal build; run with {@code mvn test -Ploadtest}. Startup time is
+ * read from the {@code application.ready.time} metric, the same one served by
+ * {@code /actuator/metrics} in production. Each database is restarted
+ * {@code restarttest.restarts} times (default 5) and the fastest restart of each is
+ * compared, after one restart of each to warm up the JVM. The large database holds
+ * {@code restarttest.rows} registrations and as many grades (default 1,000,000), the
+ * small one a thousandth of that.
+ */
+@Tag("loadtest")
+class RestartTimeTest {
+
+    private static final int MODULES = 100;
+
+    /** Allowance for noise between restarts that are otherwise the same. */
+    private static final double TOLERANCE = 1.5;
+    private static final long SLACK_MILLIS = 500;
+
+    @TempDir Path dataDir;
+
+    @Test
+    void restartTime_doesNotGrowWithDataVolume() {
+        int rows = Integer.getInteger("restarttest.rows", 1_000_000);
+        int restarts = Integer.getInteger("restarttest.restarts", 5);
+        int smallRows = Math.max(MODULES, rows / 1000);
+        Path small = dataDir.resolve("small");
+        Path large = dataDir.resolve("large");
+        seed(small, smallRows);
+        seed(large, rows);
+
+        restart(small, smallRows);
+        restart(large, rows);
+        long smallMillis = Long.MAX_VALUE;
+        long largeMillis = Long.MAX_VALUE;
+        for (int i = 0; i < restarts; i++) {
+            smallMillis = Math.min(smallMillis, restart(small, smallRows));
+            largeMillis = Math.min(largeMillis, restart(large, rows));
+        }
+
+        System.out.printf("Restart with %,d rows: %d ms; with %,d rows: %d ms%n",
+                smallRows, smallMillis, rows, largeMillis);
+        long limit = (long) (smallMillis * TOLERANCE) + SLACK_MILLIS;
+        assertTrue(largeMillis <= limit, String.format(
+                "Restart with %,d rows took %d ms, over the %d ms allowed", rows, largeMillis, limit));
+    }
+
+    private static ConfigurableApplicationContext start(Path dir) {
+        return new SpringApplicationBuilder(Team31Application.class)
+                .profiles("durable")
+                .run("--app.data-dir=" + dir.toAbsolutePath(),
+                        "--server.port=0",
+                        "--spring.jmx.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * Creates a database with the given number of registrations and grades, spread over
+     * {@link #MODULES} modules with every student on every module.
+     */
+    private static void seed(Path dir, int rows) {
+        try (ConfigurableApplicationContext context = start(dir)) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            jdbc.update("INSERT INTO module (code, name, mnc) "
+                    + "SELECT 'M' || LPAD(x, 3, '0'), 'Module ' || x, false "
+                    + "FROM SYSTEM_RANGE(0, ?)", MODULES - 1);
+            jdbc.update("INSERT INTO student (id, first_name, last_name, username, email) "
+                    + "SELECT x, 'First' || x, 'Last' || x, 'user' || x, 'user' || x || '@example.com' "
+                    + "FROM SYSTEM_RANGE(1, ?)", rows / MODULES);
+            // Negative ids stay clear of the sequences
+            jdbc.update("INSERT INTO registration (id, student_id, module_code) "
+                    + "SELECT -x, (x - 1) / ? + 1, 'M' || LPAD(MOD(x - 1, ?), 3, '0') "
+                    + "FROM SYSTEM_RANGE(1, ?)", MODULES, MODULES, rows);
+            jdbc.update("INSERT INTO grade (id, score, student_id, module_code) "
+                    + "SELECT -x, MOD(x * 7, 101), (x - 1) / ? + 1, 'M' || LPAD(MOD(x - 1, ?), 3, '0') "
+                    + "FROM SYSTEM_RANGE(1, ?)", MODULES, MODULES, rows);
+        }
+    }
+
+    /**
+     * Restarts against an existing database, checks its data is all there and still
+     * served, and returns how long the restart took.
+     */
+    private static long restart(Path dir, int rows) {
+        try (ConfigurableApplicationContext context = start(dir)) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertEquals(rows, jdbc.queryForObject("SELECT COUNT(*) FROM grade", Integer.class));
+            // The baseline migration ran once, when the database was created
+            assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM \"flyway_schema_history\" "
+                    + "WHERE \"script\" = 'V1__baseline.sql'", Integer.class));
+            assertFalse(context.getBean(ModuleLeaderboard.class).top("M000", 10).isEmpty());
+            assertTrue(context.getBean(RegistrationIndex.class).isRegistered(1, "M000"));
+
+            return (long) context.getBean(MeterRegistry.class).get("application.ready.time")
+                    .timeGauge().value(TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package uk.ac.ucl.comp0010.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Entity;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Unit tests for DomainMetrics. */
+class DomainMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private DomainMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new DomainMetrics(registry);
+    }
+
+    private double count(String entity, String reason) {
+        return registry.get(DomainMetrics.REJECTED_WRITES)
+                .tag("entity", entity)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+
+    @Test
+    void registersEveryCounterUpFront() {
+        assertEquals(Entity.values().length * Reason.values().length,
+                registry.find(DomainMetrics.REJECTED_WRITES).counters().size());
+        assertEquals(0.0, count("grade", "not_registered"));
+    }
+
+    @Test
+    void rejected_incrementsOnlyTheMatchingCounter() {
+        metrics.rejected(Entity.GRADE, Reason.NOT_REGISTERED);
+        metrics.rejected(Entity.REGISTRATION, Reason.DUPLICATE, 3);
+
+        assertEquals(1.0, count("grade", "not_registered"));
+        assertEquals(3.0, count("registration", "duplicate"));
+        assertEquals(0.0, count("grade", "duplicate"));
+    }
+
+    @Test
+    void rejected_ignoresEmptyCounts() {
+        metrics.rejected(Entity.GRADE, Reason.INVALID, 0);
+
+        assertEquals(0.0, count("grade", "invalid"));
+    }
+}
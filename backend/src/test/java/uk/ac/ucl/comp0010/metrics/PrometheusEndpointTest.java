@@ -0,0 +1,51 @@
+package uk.ac.ucl.comp0010.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests that a scrape of {@code /actuator/prometheus} carries the per-endpoint database
+ * usage, Hibernate and connection pool series, with the data source behind the
+ * statement-counting proxy.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointTest {
+
+    @Autowired MockMvc mvc;
+
+    private static void assertSeries(String scrape, String regex) {
+        assertTrue(Pattern.compile(regex, Pattern.MULTILINE).matcher(scrape).find(),
+                () -> "No series matching " + regex + " in the scrape");
+    }
+
+    @Test
+    void scrape_includesDbUsageHibernateAndPoolSeries() throws Exception {
+        mvc.perform(get("/grades")).andExpect(status().isOk());
+
+        String scrape = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // DbUsageInterceptor, tagged with the URI template
+        assertSeries(scrape, "^http_server_db_statements_count\\{[^}]*uri=\"/grades\"[^}]*} [1-9]");
+        assertSeries(scrape, "^http_server_db_time_seconds_count\\{[^}]*uri=\"/grades\"[^}]*} [1-9]");
+        // Hibernate statistics, enabled by hibernate.generate_statistics
+        assertSeries(scrape, "^hibernate_statements_total\\{[^}]*} [1-9]");
+        assertSeries(scrape, "^hibernate_query_executions_total\\{");
+        // Hikari pool metrics, still bound through the datasource-proxy wrapper
+        assertSeries(scrape, "^hikaricp_connections_max\\{[^}]*} [1-9]");
+        assertSeries(scrape, "^hikaricp_connections_acquire_seconds_count\\{");
+    }
+}
@@ -28,4 +28,16 @@ class ModuleTest {
         assertEquals("Intro", m.getName());
         assertTrue(m.getMnc());
     }
+
+    @Test
+    void equalsAndHashCode_useCode() {
+        Module a = new Module("COMP0010", "Software Engineering", false);
+        Module b = new Module("COMP0010", "Renamed", true);
+        Module c = new Module("COMP0011", "Software Engineering", false);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+        assertNotEquals(new Module(), new Module());
+    }
 }
@@ -31,4 +31,45 @@ class StudentTest {
         assertEquals("bobj", s.getUsername());
         assertEquals("bob@example.com", s.getEmail());
     }
+
+    @Test
+    void addGrade_thenGetGrade_findsItByModuleCode() {
+        Student s = new Student(3, "Cara", "Lee", "caral", "cara@example.com");
+        s.registerModule(new Module("COMP0010", "Software Engineering", false));
+        s.addGrade(new Module("COMP0010", "Software Engineering", false), 72);
+
+        Grade grade = s.getGrade(new Module("COMP0010", null, null));
+        assertNotNull(grade);
+        assertEquals(72, grade.getScore());
+        assertNull(s.getGrade(new Module("COMP0011", null, null)));
+        assertEquals(72.0, s.computeAverage());
+    }
+
+    @Test
+    void addGrade_rejectsUnregisteredModule() {
+        Student s = new Student(3, "Cara", "Lee", "caral", "cara@example.com");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> s.addGrade(new Module("COMP0010", "Software Engineering", false), 72));
+    }
+
+    @Test
+    void addGrade_rejectsSecondGradeForModule() {
+        Student s = new Student(3, "Cara", "Lee", "caral", "cara@example.com");
+        Module m = new Module("COMP0010", "Software Engineering", false);
+        s.registerModule(m);
+        s.addGrade(m, 72);
+
+        assertThrows(IllegalArgumentException.class, () -> s.addGrade(m, 40));
+        assertEquals(72, s.getGrade(m).getScore());
+    }
+
+    @Test
+    void registerModule_rejectsDuplicateByModuleCode() {
+        Student s = new Student(3, "Cara", "Lee", "caral", "cara@example.com");
+        s.registerModule(new Module("COMP0010", "Software Engineering", false));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> s.registerModule(new Module("COMP0010", "Renamed", true)));
+    }
 }
@@ -0,0 +1,82 @@
+package uk.ac.ucl.comp0010.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import uk.ac.ucl.comp0010.dto.RegistrationView;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for the keyset queries and constraints on RegistrationRepository. */
+@DataJpaTest
+class RegistrationRepositoryTest {
+
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired RegistrationRepository registrationRepository;
+
+    @BeforeEach
+    void seed() {
+        Student alice = studentRepository.save(new Student(1, "Alice", "Smith", "alice01", "alice@example.com"));
+        Student bob = studentRepository.save(new Student(2, "Bob", "Jones", "bobj", "bob@example.com"));
+        for (int i = 0; i < 5; i++) {
+            Module m = moduleRepository.save(new Module("COMP00" + i, "Module " + i, false));
+            registrationRepository.save(new Registration(alice, m));
+            if (i % 2 == 0) {
+                registrationRepository.save(new Registration(bob, m));
+            }
+        }
+    }
+
+    @Test
+    void findByStudentAfter_walksAllPagesInIdOrder() {
+        List<RegistrationView> seen = new ArrayList<>();
+        int after = Integer.MIN_VALUE;
+        List<RegistrationView> page;
+        do {
+            page = registrationRepository.findByStudentAfter(1, after, Limit.of(2));
+            assertTrue(page.size() <= 2);
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).id();
+            }
+        } while (!page.isEmpty());
+
+        assertEquals(5, seen.size());
+        assertTrue(seen.stream().allMatch(r -> r.studentId() == 1 && "Alice".equals(r.firstName())));
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1).id() < seen.get(i).id());
+        }
+    }
+
+    @Test
+    void findByModuleAfter_returnsRoster() {
+        List<RegistrationView> roster = registrationRepository.findByModuleAfter("COMP000", Integer.MIN_VALUE, Limit.of(10));
+
+        assertEquals(2, roster.size());
+        assertEquals("COMP000", roster.get(0).moduleCode());
+        assertEquals("Module 0", roster.get(0).moduleName());
+
+        List<RegistrationView> rest = registrationRepository.findByModuleAfter(
+                "COMP000", roster.get(0).id(), Limit.of(10));
+        assertEquals(1, rest.size());
+    }
+
+    @Test
+    void duplicateRegistration_violatesUniqueConstraint() {
+        Student alice = studentRepository.findById(1).orElseThrow();
+        Module m = moduleRepository.findById("COMP000").orElseThrow();
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> registrationRepository.saveAndFlush(new Registration(alice, m)));
+    }
+}
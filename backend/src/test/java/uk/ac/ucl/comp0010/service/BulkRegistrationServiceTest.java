@@ -0,0 +1,82 @@
+package uk.ac.ucl.comp0010.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import uk.ac.ucl.comp0010.dto.BatchRowResult.Status;
+import uk.ac.ucl.comp0010.dto.RegistrationRowResult;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for BulkRegistrationService against an embedded database. */
+@DataJpaTest
+@Import({BulkRegistrationService.class, DomainMetrics.class, SimpleMeterRegistry.class})
+class BulkRegistrationServiceTest {
+
+    @Autowired BulkRegistrationService service;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired RegistrationRepository registrationRepository;
+    @Autowired MeterRegistry registry;
+
+    @BeforeEach
+    void seed() {
+        for (int id = 1; id <= 120; id++) {
+            studentRepository.save(new Student(id, "First" + id, "Last" + id, "user" + id, id + "@example.com"));
+        }
+        Module se = moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+        moduleRepository.save(new Module("COMP0020", "Algorithms", true));
+        registrationRepository.save(new Registration(studentRepository.findById(1).orElseThrow(), se));
+    }
+
+    @Test
+    void register_createsSkipsAndRejects() {
+        double duplicates = rejected("duplicate");
+        double notFound = rejected("not_found");
+        List<RegistrationRowResult> results =
+                service.register(List.of(1, 2, 2, 999), List.of("COMP0010", "NOPE"));
+
+        assertEquals(8, results.size());
+        assertEquals(Status.SKIPPED, results.get(0).status());
+        assertEquals(Status.CREATED, results.get(1).status());
+        assertNotNull(results.get(1).id());
+        assertEquals(Status.SKIPPED, results.get(2).status());
+        assertEquals("Student not found", results.get(3).message());
+        assertTrue(results.subList(4, 8).stream().allMatch(r -> "Module not found".equals(r.message())));
+        assertEquals(2, registrationRepository.count());
+        assertEquals(duplicates, rejected("duplicate"), "skipped rows are not rejections");
+        assertEquals(notFound + 5, rejected("not_found"));
+    }
+
+    private double rejected(String reason) {
+        return registry.get(DomainMetrics.REJECTED_WRITES)
+                .tags("entity", "registration", "reason", reason).counter().count();
+    }
+
+    @Test
+    void register_enrolsCohortOnSeveralModules() {
+        List<Integer> cohort = new ArrayList<>();
+        for (int id = 2; id <= 120; id++) {
+            cohort.add(id);
+        }
+
+        List<RegistrationRowResult> results = service.register(cohort, List.of("COMP0010", "COMP0020"));
+
+        assertTrue(results.stream().allMatch(r -> r.status() == Status.CREATED));
+        assertEquals(1 + cohort.size() * 2, registrationRepository.count());
+    }
+}
@@ -0,0 +1,106 @@
+package uk.ac.ucl.comp0010.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.ExportService.Format;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for ExportService against an embedded database. */
+@DataJpaTest
+@Import({ExportService.class, JacksonAutoConfiguration.class})
+class ExportServiceTest {
+
+    @Autowired ExportService service;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired RegistrationRepository registrationRepository;
+    @Autowired GradeRepository gradeRepository;
+
+    static final int STUDENTS = ExportService.CLEAR_INTERVAL + 3;
+
+    @BeforeEach
+    void seed() {
+        Module se = moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+        for (int id = 1; id <= STUDENTS; id++) {
+            Student s = studentRepository.save(new Student(id, "First" + id, "Last, " + id, "user" + id, id + "@example.com"));
+            registrationRepository.save(new Registration(s, se));
+            gradeRepository.save(new Grade(id % 101, s, se));
+        }
+    }
+
+    @Test
+    void grades_ndjson_writesOneObjectPerLine() throws Exception {
+        String[] lines = export(service.grades(Format.NDJSON));
+
+        assertEquals(STUDENTS, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("COMP0010", first.get("module_code").asText());
+        assertTrue(first.has("student_id"));
+        assertTrue(first.has("score"));
+    }
+
+    @Test
+    void students_cbor_writesTheNdjsonFieldsAsASequence() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.students(Format.CBOR).writeTo(out);
+
+        List<JsonNode> rows;
+        try (MappingIterator<JsonNode> it = new CBORMapper().readerFor(JsonNode.class).readValues(out.toByteArray())) {
+            rows = it.readAll();
+        }
+        assertEquals(STUDENTS, rows.size());
+        assertEquals(objectMapper.readTree(export(service.students(Format.NDJSON))[0]), rows.get(0));
+    }
+
+    @Test
+    void students_csv_quotesFieldsWithCommas() throws Exception {
+        String[] lines = export(service.students(Format.CSV));
+
+        assertEquals(STUDENTS + 1, lines.length);
+        assertEquals("id,first_name,last_name,username,email", lines[0].trim());
+        assertTrue(lines[1].contains(",\"Last, "));
+    }
+
+    @Test
+    void registrations_csv_hasHeaderAndRows() throws Exception {
+        String[] lines = export(service.registrations(Format.CSV));
+
+        assertEquals(STUDENTS + 1, lines.length);
+        assertEquals("id,student_id,module_code", lines[0].trim());
+    }
+
+    @Test
+    void format_parsesCaseInsensitively() {
+        assertEquals(Format.CSV, Format.from("CsV"));
+        assertThrows(IllegalArgumentException.class, () -> Format.from("xml"));
+    }
+
+    private static String[] export(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8).split("\n");
+    }
+}
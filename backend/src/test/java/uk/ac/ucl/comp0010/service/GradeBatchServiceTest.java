@@ -0,0 +1,99 @@
+package uk.ac.ucl.comp0010.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import uk.ac.ucl.comp0010.dto.BatchRowResult;
+import uk.ac.ucl.comp0010.dto.BatchRowResult.Status;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for GradeBatchService against an embedded database. */
+@DataJpaTest
+@Import({GradeBatchService.class, GradeSummaryService.class, DomainMetrics.class, SimpleMeterRegistry.class})
+class GradeBatchServiceTest {
+
+    @Autowired GradeBatchService service;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired RegistrationRepository registrationRepository;
+    @Autowired GradeRepository gradeRepository;
+    @Autowired GradeSummaryService gradeSummaryService;
+
+    @BeforeEach
+    void seed() {
+        Student alice = studentRepository.save(new Student(1, "Alice", "Smith", "alice01", "alice@example.com"));
+        studentRepository.save(new Student(2, "Bob", "Jones", "bobj", "bob@example.com"));
+        Module se = moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+        registrationRepository.save(new Registration(alice, se));
+    }
+
+    @Test
+    void addGrades_reportsOutcomePerRow() {
+        List<BatchRowResult> results = service.addGrades(List.of(
+                row("1", "COMP0010", "85"),
+                row("999", "COMP0010", "70"),
+                row("1", "NOPE", "70"),
+                row("2", "COMP0010", "70"),
+                row("1", "COMP0010", "101"),
+                Map.of("student_id", "x", "module_code", "COMP0010", "score", "1")));
+
+        assertEquals(Status.CREATED, results.get(0).status());
+        assertNotNull(results.get(0).id());
+        assertEquals("Student not found", results.get(1).message());
+        assertEquals("Module not found", results.get(2).message());
+        assertEquals(Status.REJECTED, results.get(3).status());
+        assertEquals(Status.REJECTED, results.get(4).status());
+        assertEquals(Status.REJECTED, results.get(5).status());
+        assertEquals(1, gradeRepository.count());
+    }
+
+    @Test
+    void addGrades_insertsAcrossSeveralBatches() {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < BatchSupport.BATCH_SIZE * 3 + 7; i++) {
+            Module m = moduleRepository.save(new Module("M" + i, "Module " + i, false));
+            registrationRepository.save(new Registration(studentRepository.findById(1).orElseThrow(), m));
+            rows.add(row("1", m.getCode(), String.valueOf(i % 101)));
+        }
+
+        List<BatchRowResult> results = service.addGrades(rows);
+
+        assertTrue(results.stream().allMatch(r -> r.status() == Status.CREATED));
+        assertEquals(rows.size(), gradeRepository.count());
+        assertEquals(rows.size(), gradeSummaryService.find(1).getGradeCount());
+        assertTrue(gradeSummaryService.check().isEmpty());
+    }
+
+    @Test
+    void addGrades_rejectsSecondGradeForPair() {
+        service.addGrades(List.of(row("1", "COMP0010", "60")));
+
+        List<BatchRowResult> results = service.addGrades(List.of(
+                row("1", "COMP0010", "70"),
+                row("1", "COMP0010", "80")));
+
+        assertEquals("Student already has a grade for this module", results.get(0).message());
+        assertEquals(Status.REJECTED, results.get(1).status());
+        assertEquals(1, gradeRepository.count());
+    }
+
+    private static Map<String, String> row(String studentId, String moduleCode, String score) {
+        return Map.of("student_id", studentId, "module_code", moduleCode, "score", score);
+    }
+}
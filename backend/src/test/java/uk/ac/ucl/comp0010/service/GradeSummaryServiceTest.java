@@ -0,0 +1,81 @@
+package uk.ac.ucl.comp0010.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.ac.ucl.comp0010.dto.GradeSummaryMismatch;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for GradeSummaryService against an embedded database. */
+@DataJpaTest
+@Import(GradeSummaryService.class)
+class GradeSummaryServiceTest {
+
+    @Autowired GradeSummaryService service;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired GradeRepository gradeRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    Student alice;
+    Module se;
+
+    @BeforeEach
+    void seed() {
+        alice = studentRepository.save(new Student(1, "Alice", "Smith", "alice01", "alice@example.com"));
+        se = moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+    }
+
+    @Test
+    void deltas_keepRunningAverage() {
+        service.gradeAdded(1, 80);
+        service.gradeAdded(1, 60);
+        assertEquals(70.0, service.find(1).average());
+
+        service.gradeChanged(1, 60, 90);
+        assertEquals(85.0, service.find(1).average());
+
+        service.gradeRemoved(1, 80);
+        assertEquals(90.0, service.find(1).average());
+        assertEquals(1, service.find(1).getGradeCount());
+
+        service.gradesAdded(Map.of(1, new long[] {30, 2}));
+        assertEquals(40.0, service.find(1).average());
+
+        service.studentRemoved(1);
+        assertNull(service.find(1));
+    }
+
+    @Test
+    void check_reportsDriftAndRebuildRepairsIt() {
+        gradeRepository.save(new Grade(70, alice, se));
+        gradeRepository.save(new Grade(50, alice,
+                moduleRepository.save(new Module("COMP0020", "Databases", false))));
+        gradeRepository.flush();
+
+        List<GradeSummaryMismatch> missing = service.check();
+        assertEquals(1, missing.size());
+        assertNull(missing.get(0).storedCount());
+        assertEquals(120, missing.get(0).actualSum());
+
+        assertEquals(1, service.rebuild());
+        assertTrue(service.check().isEmpty());
+        assertEquals(60.0, service.find(1).average());
+
+        jdbcTemplate.update("UPDATE student_grade_summary SET grade_sum = 1");
+        assertEquals(1, service.check().size());
+    }
+}
@@ -0,0 +1,201 @@
+package uk.ac.ucl.comp0010.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.config.MetricsConfig;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics;
+import uk.ac.ucl.comp0010.metrics.DomainMetrics.Reason;
+import uk.ac.ucl.comp0010.metrics.RequestDbUsage;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+
+/** Tests for GradeWriteCoalescer, with a window wide enough for concurrent calls to merge. */
+@DataJpaTest
+@Import({GradeWriteCoalescer.class, GradeSummaryService.class, RegistrationIndex.class, DomainMetrics.class,
+        SimpleMeterRegistry.class, MetricsConfig.class})
+@TestPropertySource(properties = {
+        "app.grades.coalesce.window=200ms",
+        "app.grades.coalesce.max-batch=16"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GradeWriteCoalescerTest {
+
+    private static final int STUDENTS = 12;
+
+    @Autowired GradeWriteCoalescer coalescer;
+    @SpyBean GradeSummaryService gradeSummaryService;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired RegistrationRepository registrationRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired MeterRegistry registry;
+    @Autowired RegistrationIndex registrationIndex;
+
+    Module se;
+
+    @BeforeEach
+    void seed() {
+        se = moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+        moduleRepository.save(new Module("COMP0020", "Databases", false));
+        for (int i = 1; i <= STUDENTS; i++) {
+            Student student = studentRepository.save(new Student(i, "First" + i, "Last" + i,
+                    "user" + i, "user" + i + "@example.com"));
+            registrationRepository.save(new Registration(student, se));
+        }
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM grade");
+        jdbcTemplate.update("DELETE FROM student_grade_summary");
+        registrationRepository.deleteAll();
+        studentRepository.deleteAll();
+        moduleRepository.deleteAll();
+    }
+
+    /** Calls addGrade for each request on its own thread, all released at once. */
+    private List<CompletableFuture<Grade>> concurrently(List<Object[]> requests) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(requests.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Grade>> results = new ArrayList<>();
+        for (Object[] request : requests) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return coalescer.addGrade((Integer) request[0], (String) request[1], (Integer) request[2]);
+            }, pool));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        return results;
+    }
+
+    private static Reason rejection(CompletableFuture<Grade> result) {
+        Throwable cause = assertThrows(Exception.class, result::join).getCause();
+        return assertInstanceOf(GradeRejectedException.class, cause).getReason();
+    }
+
+    @Test
+    void concurrentCalls_shareTransactions_andEachGetsItsOwnGrade() throws Exception {
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 1; i <= STUDENTS; i++) {
+            requests.add(new Object[] {i, "COMP0010", 50 + i});
+        }
+
+        List<CompletableFuture<Grade>> results = concurrently(requests);
+
+        for (int i = 0; i < STUDENTS; i++) {
+            Grade grade = results.get(i).join();
+            assertNotNull(grade.getId());
+            assertEquals(i + 1, grade.getStudent().getId());
+            assertEquals(51 + i, grade.getScore());
+        }
+        assertEquals(STUDENTS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grade", Integer.class));
+        assertEquals(54.0, gradeSummaryService.find(4).average());
+        assertTrue(registry.get("app.grade.coalesce.batch.size").summary().max() > 1);
+        assertTrue(registry.get("app.grade.coalesce.batch.size").summary().count() < STUDENTS);
+    }
+
+    @Test
+    void rejectedCalls_failAlone() throws Exception {
+        List<CompletableFuture<Grade>> results = concurrently(List.of(
+                new Object[] {1, "COMP0010", 70},
+                new Object[] {1, "COMP0010", 80},
+                new Object[] {2, "COMP0020", 70},
+                new Object[] {99, "COMP0010", 70},
+                new Object[] {3, "NOPE", 70}));
+
+        // Exactly one of the two calls for the same pair wins
+        List<CompletableFuture<Grade>> pair = results.subList(0, 2);
+        assertEquals(1, pair.stream().filter(r -> !r.isCompletedExceptionally()).count());
+        assertEquals(Reason.DUPLICATE, rejection(pair.stream()
+                .filter(CompletableFuture::isCompletedExceptionally).findFirst().orElseThrow()));
+        assertEquals(Reason.NOT_REGISTERED, rejection(results.get(2)));
+        assertEquals(Reason.NOT_FOUND, rejection(results.get(3)));
+        assertEquals(Reason.NOT_FOUND, rejection(results.get(4)));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grade", Integer.class));
+    }
+
+    @Test
+    void existingGrade_isRejectedAsDuplicate() {
+        coalescer.addGrade(5, "COMP0010", 60);
+
+        GradeRejectedException e = assertThrows(GradeRejectedException.class,
+                () -> coalescer.addGrade(5, "COMP0010", 65));
+        assertEquals(Reason.DUPLICATE, e.getReason());
+        assertEquals(60.0, gradeSummaryService.find(5).average());
+    }
+
+    @Test
+    void scoreOutOfRange_isRejectedAsInvalid() {
+        for (int score : new int[] {-1, 101, -50}) {
+            GradeRejectedException e = assertThrows(GradeRejectedException.class,
+                    () -> coalescer.addGrade(7, "COMP0010", score));
+            assertEquals(Reason.INVALID, e.getReason());
+        }
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grade", Integer.class));
+        assertEquals(100, coalescer.addGrade(7, "COMP0010", 100).getScore());
+    }
+
+    @Test
+    void registration_isCheckedAgainstTheIndex() {
+        assertTrue(registrationIndex.isRegistered(6, "COMP0010"));
+        // Left in the index, so only a grade written through the index check succeeds
+        jdbcTemplate.update("DELETE FROM registration WHERE student_id = 6");
+
+        assertEquals(6, coalescer.addGrade(6, "COMP0010", 40).getStudent().getId());
+    }
+
+    @Test
+    void writerSurvivesAnError_andLaterCallsAreRecorded() {
+        GradeSummaryService spy = AopTestUtils.getTargetObject(gradeSummaryService);
+        doThrow(new AssertionError("boom")).doCallRealMethod().when(spy).gradesAdded(anyMap());
+
+        assertThrows(AssertionError.class, () -> coalescer.addGrade(7, "COMP0010", 60));
+        assertEquals(61, coalescer.addGrade(8, "COMP0010", 61).getScore());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grade", Integer.class));
+    }
+
+    @Test
+    void mergedWrite_isChargedToTheCallersDbUsage() {
+        RequestDbUsage.begin();
+        coalescer.addGrade(9, "COMP0010", 55);
+        RequestDbUsage.Usage usage = RequestDbUsage.end();
+
+        assertTrue(usage.statements() >= 2, "the pair check and the insert, run by the writer");
+        assertTrue(usage.nanos() > 0);
+    }
+}
@@ -0,0 +1,134 @@
+package uk.ac.ucl.comp0010.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.LeaderboardEntry;
+import uk.ac.ucl.comp0010.dto.StudentRank;
+import uk.ac.ucl.comp0010.events.DomainEventPipeline;
+import uk.ac.ucl.comp0010.events.GradeRecorded;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for ModuleLeaderboard, with each repository call committing and publishing its events. */
+@DataJpaTest
+@Import({ModuleLeaderboard.class, DomainEventPipeline.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ModuleLeaderboardTest {
+
+    @Autowired ModuleLeaderboard leaderboard;
+    @Autowired DomainEventPipeline pipeline;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired GradeRepository gradeRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    Module se;
+    List<Student> students = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        se = moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+        int[] scores = {70, 85, 70, 40};
+        for (int i = 0; i < scores.length; i++) {
+            Student student = studentRepository.save(new Student(i + 1, "First" + i, "Last" + i,
+                    "user" + i, "user" + i + "@example.com"));
+            students.add(student);
+            jdbcTemplate.update("INSERT INTO grade (id, score, student_id, module_code) VALUES (?, ?, ?, ?)",
+                    -(i + 1), scores[i], student.getId(), se.getCode());
+        }
+        leaderboard.load();
+    }
+
+    @AfterEach
+    void clean() throws InterruptedException {
+        gradeRepository.deleteAll();
+        studentRepository.deleteAll();
+        moduleRepository.deleteAll();
+        awaitEvents();
+    }
+
+    private void awaitEvents() throws InterruptedException {
+        assertTrue(pipeline.awaitIdle(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void top_ranksTiesTogether_andOrdersThemById() {
+        List<LeaderboardEntry> top = leaderboard.top("COMP0010", 10);
+
+        assertEquals(List.of(
+                new LeaderboardEntry(1, 2, 85),
+                new LeaderboardEntry(2, 1, 70),
+                new LeaderboardEntry(2, 3, 70),
+                new LeaderboardEntry(4, 4, 40)), top);
+        assertEquals(2, leaderboard.top("COMP0010", 2).size());
+        assertTrue(leaderboard.top("COMP0020", 10).isEmpty());
+    }
+
+    @Test
+    void rank_countsStudentsScoringHigher() {
+        assertEquals(new StudentRank("COMP0010", 3, 70, 2, 4), leaderboard.rank("COMP0010", 3));
+        assertNull(leaderboard.rank("COMP0010", 99));
+        assertNull(leaderboard.rank("COMP0020", 1));
+    }
+
+    @Test
+    void committedWrites_updateLeaderboard() throws InterruptedException {
+        Student fifth = studentRepository.save(new Student(5, "Eve", "Adams", "eve", "eve@example.com"));
+        Grade grade = gradeRepository.save(new Grade(90, fifth, se));
+        awaitEvents();
+        assertEquals(new LeaderboardEntry(1, 5, 90), leaderboard.top("COMP0010", 1).get(0));
+        assertEquals(3, leaderboard.rank("COMP0010", 1).rank());
+
+        grade.setScore(10);
+        gradeRepository.save(grade);
+        awaitEvents();
+        assertEquals(5, leaderboard.rank("COMP0010", 5).rank());
+        assertEquals(2, leaderboard.rank("COMP0010", 1).rank());
+
+        gradeRepository.delete(grade);
+        awaitEvents();
+        assertNull(leaderboard.rank("COMP0010", 5));
+        assertEquals(4, leaderboard.rank("COMP0010", 1).graded());
+    }
+
+    @Test
+    void lazyLoading_loadsEachModuleOnFirstUse() {
+        ModuleLeaderboard lazy = new ModuleLeaderboard(jdbcTemplate, false);
+        Student fifth = studentRepository.save(new Student(5, "Eve", "Adams", "eve", "eve@example.com"));
+        lazy.consume(List.of(new GradeRecorded(-5L, fifth.getId(), "COMP0010", 90)));
+
+        // The event arrived before the module was loaded, so it comes from the database
+        assertEquals(new StudentRank("COMP0010", 2, 85, 1, 4), lazy.rank("COMP0010", 2));
+
+        lazy.consume(List.of(new GradeRecorded(-5L, fifth.getId(), "COMP0010", 90)));
+        assertEquals(new LeaderboardEntry(1, 5, 90), lazy.top("COMP0010", 1).get(0));
+        assertTrue(lazy.top("COMP0020", 10).isEmpty());
+    }
+
+    @Test
+    void beforeStartupLoad_modulesAreReadOnFirstUse() {
+        ModuleLeaderboard starting = new ModuleLeaderboard(jdbcTemplate, true);
+
+        assertEquals(new StudentRank("COMP0010", 2, 85, 1, 4), starting.rank("COMP0010", 2));
+        assertEquals(4, starting.top("COMP0010", 10).size());
+        assertTrue(starting.top("COMP0020", 10).isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package uk.ac.ucl.comp0010.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import uk.ac.ucl.comp0010.dto.ModuleStats;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for ModuleStatsService against an embedded database. */
+@DataJpaTest
+@Import(ModuleStatsService.class)
+class ModuleStatsServiceTest {
+
+    @Autowired ModuleStatsService service;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired GradeRepository gradeRepository;
+
+    @BeforeEach
+    void seed() {
+        Module se = moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+        moduleRepository.save(new Module("COMP0020", "Empty", false));
+        int[] scores = {30, 50, 70, 100};
+        for (int i = 0; i < scores.length; i++) {
+            Student s = studentRepository.save(
+                    new Student(i + 1, "S" + i, "L" + i, "user" + i, "u" + i + "@example.com"));
+            gradeRepository.save(new Grade(scores[i], s, se));
+        }
+        gradeRepository.flush();
+    }
+
+    @Test
+    void forModule_computesAggregates() {
+        ModuleStats stats = service.forModule("COMP0010");
+
+        assertEquals(4, stats.gradeCount());
+        assertEquals(62.5, stats.mean(), 1e-9);
+        assertEquals(60.0, stats.median(), 1e-9);
+        assertEquals(30, stats.min());
+        assertEquals(100, stats.max());
+        assertEquals(Math.sqrt(668.75), stats.stddev(), 1e-9);
+        assertEquals(0.75, stats.passRate(), 1e-9);
+        assertEquals(List.of(0L, 0L, 0L, 1L, 0L, 1L, 0L, 1L, 0L, 1L), stats.histogram());
+    }
+
+    @Test
+    void forModule_outOfRangeScores_fallInTheEndBuckets() {
+        Module other = moduleRepository.save(new Module("COMP0030", "Out of range", false));
+        int[] scores = {-15, -10, 150};
+        for (int i = 0; i < scores.length; i++) {
+            Student s = studentRepository.save(
+                    new Student(i + 10, "T" + i, "M" + i, "other" + i, "o" + i + "@example.com"));
+            gradeRepository.save(new Grade(scores[i], s, other));
+        }
+        gradeRepository.flush();
+
+        ModuleStats stats = service.forModule("COMP0030");
+
+        assertEquals(3, stats.gradeCount());
+        assertEquals(List.of(2L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 1L), stats.histogram());
+        assertEquals(3, service.forAllModules().size());
+    }
+
+    @Test
+    void forModule_unknownModule_returnsNull() {
+        assertNull(service.forModule("NOPE"));
+    }
+
+    @Test
+    void forAllModules_includesUngradedModules() {
+        List<ModuleStats> all = service.forAllModules();
+
+        assertEquals(List.of("COMP0010", "COMP0020"), all.stream().map(ModuleStats::moduleCode).toList());
+        ModuleStats empty = all.get(1);
+        assertEquals(0, empty.gradeCount());
+        assertNull(empty.mean());
+        assertNull(empty.passRate());
+        assertEquals(10, empty.histogram().size());
+    }
+}
@@ -0,0 +1,102 @@
+package uk.ac.ucl.comp0010.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.RegistrationIndexStats;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for RegistrationIndex, with each repository call committing on its own. */
+@DataJpaTest
+@Import(RegistrationIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RegistrationIndexTest {
+
+    @Autowired RegistrationIndex index;
+    @Autowired StudentRepository studentRepository;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired RegistrationRepository registrationRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    Student alice;
+    Module se;
+
+    @BeforeEach
+    void seed() {
+        alice = studentRepository.save(new Student(1, "Alice", "Smith", "alice01", "alice@example.com"));
+        se = moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+        registrationRepository.save(new Registration(alice, se));
+        index.load();
+    }
+
+    @AfterEach
+    void clean() {
+        registrationRepository.deleteAll();
+        studentRepository.deleteAll();
+        moduleRepository.deleteAll();
+    }
+
+    @Test
+    void load_answersFromIndex() {
+        RegistrationIndexStats before = index.stats();
+        assertTrue(index.isRegistered(1, "COMP0010"));
+        assertFalse(index.isRegistered(2, "COMP0010"));
+
+        RegistrationIndexStats stats = index.stats();
+        assertTrue(stats.loaded());
+        assertEquals(1, stats.registrations());
+        assertTrue(stats.sizeInBytes() > 0);
+        assertEquals(before.hits() + 1, stats.hits());
+        assertEquals(before.misses() + 1, stats.misses());
+    }
+
+    @Test
+    void committedWrites_updateIndex() {
+        Module db = moduleRepository.save(new Module("COMP0020", "Databases", false));
+        Registration reg = registrationRepository.save(new Registration(alice, db));
+        assertEquals(2, index.stats().registrations());
+
+        registrationRepository.delete(reg);
+        assertEquals(1, index.stats().registrations());
+    }
+
+    @Test
+    void miss_fallsBackToDatabaseAndCaches() {
+        Student bob = studentRepository.save(new Student(2, "Bob", "Jones", "bobj", "bob@example.com"));
+        jdbcTemplate.update("INSERT INTO registration (id, student_id, module_code) VALUES (-1, ?, ?)",
+                bob.getId(), se.getCode());
+
+        RegistrationIndexStats before = index.stats();
+        assertTrue(index.isRegistered(2, "COMP0010"));
+        assertTrue(index.isRegistered(2, "COMP0010"));
+        assertEquals(before.misses() + 1, index.stats().misses());
+        assertEquals(before.hits() + 1, index.stats().hits());
+    }
+
+    @Test
+    void lazyLoading_loadsEachModuleOnFirstLookup() {
+        RegistrationIndex lazy = new RegistrationIndex(jdbcTemplate, registrationRepository, false);
+        assertEquals(0, lazy.stats().modules());
+
+        assertTrue(lazy.isRegistered(1, "COMP0010"));
+        assertTrue(lazy.isRegistered(1, "COMP0010"));
+        RegistrationIndexStats stats = lazy.stats();
+        assertFalse(stats.loaded());
+        assertEquals(1, stats.modules());
+        assertEquals(2, stats.hits());
+        assertEquals(0, stats.misses());
+    }
+}
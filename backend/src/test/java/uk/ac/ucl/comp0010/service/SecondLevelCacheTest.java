@@ -0,0 +1,109 @@
+package uk.ac.ucl.comp0010.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import uk.ac.ucl.comp0010.dto.CacheRegionStats;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.support.QueryCounter;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Tests that reference data is served from the second-level and query caches. */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecondLevelCacheTest {
+
+    private static final String MODULE_REGION = Module.class.getName();
+
+    @Autowired MockMvc mvc;
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired StudentRepository studentRepository;
+    @Autowired SecondLevelCache secondLevelCache;
+
+    private static QueryCounter counter;
+
+    @BeforeEach
+    void seed() {
+        if (counter == null) {
+            counter = QueryCounter.attach(dataSource);
+        }
+        moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+        studentRepository.save(new Student(1, "Alice", "Smith", "alice01", "alice@example.com"));
+        secondLevelCache.evictAll();
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("DELETE FROM module");
+        secondLevelCache.evictAll();
+    }
+
+    private CacheRegionStats region(String name) {
+        return secondLevelCache.stats().stream()
+                .filter(r -> r.region().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void findById_isServedFromCacheAfterFirstLoad() {
+        long hitsBefore = region(MODULE_REGION).hits();
+
+        counter.reset();
+        assertTrue(moduleRepository.findById("COMP0010").isPresent());
+        assertEquals(1, counter.selects());
+
+        counter.reset();
+        assertEquals("Software Engineering", moduleRepository.findById("COMP0010").orElseThrow().getName());
+        assertTrue(studentRepository.findById(1).isPresent());
+        assertTrue(studentRepository.findById(1).isPresent());
+        assertEquals(1, counter.selects());
+
+        assertTrue(region(MODULE_REGION).hits() > hitsBefore);
+    }
+
+    @Test
+    void update_isVisibleThroughCache() {
+        moduleRepository.findById("COMP0010").orElseThrow();
+        Module module = moduleRepository.findById("COMP0010").orElseThrow();
+        module.setName("Renamed");
+        moduleRepository.save(module);
+
+        assertEquals("Renamed", moduleRepository.findById("COMP0010").orElseThrow().getName());
+    }
+
+    @Test
+    void moduleList_isServedFromQueryCache_untilModulesChange() throws Exception {
+        mvc.perform(get("/modules")).andExpect(status().isOk());
+
+        counter.reset();
+        mvc.perform(get("/modules"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertEquals(0, counter.statements());
+
+        moduleRepository.save(new Module("COMP0011", "Algorithms", true));
+        counter.reset();
+        mvc.perform(get("/modules"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        assertTrue(counter.selects() > 0);
+    }
+}
@@ -0,0 +1,108 @@
+package uk.ac.ucl.comp0010.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for StudentSearchIndex, with each repository call committing on its own. */
+@DataJpaTest
+@Import(StudentSearchIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentSearchIndexTest {
+
+    @Autowired StudentSearchIndex index;
+    @Autowired StudentRepository studentRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        studentRepository.save(new Student(1, "Alice", "Smith", "asmith", "alice.smith@example.com"));
+        studentRepository.save(new Student(2, "Alicia", "Jones", "ajones", "alicia@example.com"));
+        studentRepository.save(new Student(3, "Bob", "Smithers", "bobs", "bob@example.com"));
+        studentRepository.save(new Student(4, "Zoë", "O'Brien", "zobrien", "zoe@example.com"));
+        index.load();
+    }
+
+    @AfterEach
+    void clean() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void tokens_areLowerCasedAndStrippedOfAccents() {
+        assertArrayEquals(new String[] {"zoe", "o", "brien", "zoe01", "ucl", "ac", "uk"},
+                StudentSearchIndex.tokens("Zoë", "O'Brien", "zoe01", "ZOE@ucl.ac.uk"));
+        assertArrayEquals(new String[0], StudentSearchIndex.tokens(null, " - "));
+    }
+
+    @Test
+    void search_ranksExactBeforePrefixBeforeFuzzy() {
+        assertEquals(List.of(1, 3), index.search("smith", 10));
+        assertEquals(List.of(1, 2), index.search("ali", 10));
+        assertEquals(List.of(1, 2), index.search("ALICE", 10), "alicia is one edit from alice");
+        assertEquals(List.of(1, 3), index.search("smiht", 10), "a swap is one edit");
+        assertEquals(List.of(), index.search("bbo", 10), "short terms are not fuzzy matched");
+        assertEquals(List.of(1), index.search("ali", 1));
+        assertEquals(List.of(), index.search(" ?! ", 10));
+    }
+
+    @Test
+    void search_needsEveryTermAndIgnoresAccents() {
+        assertEquals(List.of(4), index.search("zoe obrien", 10));
+        assertEquals(List.of(4), index.search("Zoé Bri", 10));
+        assertEquals(List.of(1), index.search("smith alice", 10));
+        assertEquals(List.of(1, 3), index.search("example smith", 10));
+        assertEquals(List.of(), index.search("alice smithers", 10));
+    }
+
+    @Test
+    void committedWrites_updateIndex() {
+        studentRepository.save(new Student(5, "Carol", "Smith", "csmith", "carol@example.com"));
+        assertEquals(List.of(1, 5, 3), index.search("smith", 10));
+
+        Student bob = studentRepository.findById(3).orElseThrow();
+        bob.setLastName("Baker");
+        studentRepository.save(bob);
+        assertEquals(List.of(1, 5), index.search("smith", 10));
+        assertEquals(List.of(3), index.search("baker", 10));
+
+        studentRepository.deleteById(1);
+        assertEquals(List.of(5), index.search("smith", 10));
+        assertEquals(List.of(2), index.search("ali", 10));
+    }
+
+    @Test
+    void duplicateUsernameOrEmail_isRejected() {
+        assertThrows(DataIntegrityViolationException.class, () -> studentRepository.save(
+                new Student(6, "Other", "Alice", "asmith", "other@example.com")));
+        assertThrows(DataIntegrityViolationException.class, () -> studentRepository.save(
+                new Student(7, "Other", "Alice", "other", "alice.smith@example.com")));
+        assertEquals(List.of(1, 2), index.search("alice", 10));
+    }
+
+    @Test
+    void lazyIndex_loadsOnFirstSearch() {
+        StudentSearchIndex lazy = new StudentSearchIndex(jdbcTemplate, false);
+        lazy.warmUp();
+        lazy.saved(new Student(9, "Not", "Saved", "notsaved", "not@example.com"));
+        assertEquals(List.of(3), lazy.search("bob", 10));
+        assertEquals(List.of(), lazy.search("notsaved", 10));
+
+        jdbcTemplate.update("UPDATE student SET first_name = 'Robert' WHERE id = 3");
+        lazy.resync();
+        assertEquals(List.of(3), lazy.search("robert", 10));
+    }
+}
@@ -0,0 +1,61 @@
+package uk.ac.ucl.comp0010.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.service.TableVersions.Table;
+import uk.ac.ucl.comp0010.service.TableVersions.Version;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for TableVersions, with each repository call committing on its own. */
+@DataJpaTest
+@Import(TableVersions.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TableVersionsTest {
+
+    @Autowired TableVersions versions;
+    @Autowired ModuleRepository moduleRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void clean() {
+        moduleRepository.deleteAll();
+    }
+
+    @Test
+    void committedWrites_bumpOnlyTheirTable() {
+        Version modules = versions.current(Table.MODULE);
+        Version students = versions.current(Table.STUDENT);
+
+        moduleRepository.save(new Module("COMP0010", "Software Engineering", false));
+
+        Version after = versions.current(Table.MODULE);
+        assertNotEquals(modules.tag(), after.tag());
+        assertTrue(after.lastModified() >= modules.lastModified());
+        assertEquals(students, versions.current(Table.STUDENT));
+        assertNotEquals(versions.current(Table.MODULE, Table.STUDENT).tag(),
+                versions.current(Table.STUDENT, Table.MODULE).tag());
+    }
+
+    @Test
+    void rolledBackWrites_leaveVersionsAlone() {
+        Version before = versions.current(Table.MODULE);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            moduleRepository.saveAndFlush(new Module("COMP0020", "Databases", false));
+            assertEquals(before, versions.current(Table.MODULE), "not bumped before commit");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(before, versions.current(Table.MODULE));
+    }
+}
@@ -0,0 +1,143 @@
+package uk.ac.ucl.comp0010.snapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.SnapshotReport;
+import uk.ac.ucl.comp0010.events.DomainEventPipeline;
+import uk.ac.ucl.comp0010.service.GradeSummaryService;
+import uk.ac.ucl.comp0010.service.RegistrationIndex;
+import uk.ac.ucl.comp0010.service.SecondLevelCache;
+import uk.ac.ucl.comp0010.service.StudentSearchIndex;
+import uk.ac.ucl.comp0010.service.TableVersions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for SnapshotService, with each block committing on its own. */
+@DataJpaTest
+@Import({SnapshotService.class, GradeSummaryService.class, RegistrationIndex.class,
+        DomainEventPipeline.class, SecondLevelCache.class, StudentSearchIndex.class,
+        TableVersions.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SnapshotServiceTest {
+
+    private static final String[] TABLES = {"module", "student", "registration", "grade"};
+
+    /** Enough registrations and grades to fill more than one block. */
+    private static final int STUDENTS = 200;
+    private static final int MODULES = 100;
+
+    @Autowired SnapshotService snapshotService;
+    @Autowired GradeSummaryService gradeSummaryService;
+    @Autowired RegistrationIndex registrationIndex;
+    @Autowired SecondLevelCache secondLevelCache;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @TempDir Path dir;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO module (code, name, mnc) "
+                + "SELECT 'M' || x, 'Module ' || x, MOD(x, 2) = 0 FROM SYSTEM_RANGE(1, ?)", MODULES - 1);
+        jdbcTemplate.update("INSERT INTO module (code, name, mnc) VALUES ('COMP0010', NULL, NULL)");
+        jdbcTemplate.update("INSERT INTO student (id, first_name, last_name, username, email) "
+                + "SELECT x * 3, 'First' || x, 'Last' || x, 'user' || x, 'user' || x || '@example.com' "
+                + "FROM SYSTEM_RANGE(1, ?)", STUDENTS - 1);
+        jdbcTemplate.update("INSERT INTO student (id, first_name, last_name, username, email) "
+                + "VALUES (-7, 'Zoë', 'Ørsted', NULL, NULL)");
+        jdbcTemplate.update("INSERT INTO registration (id, student_id, module_code) "
+                + "SELECT ROWNUM() * 2, s.id, m.code FROM student s CROSS JOIN module m");
+        jdbcTemplate.update("INSERT INTO grade (id, score, student_id, module_code) "
+                + "SELECT id + 5000000000, CASEWHEN(MOD(id, 7) = 0, NULL, MOD(id, 101)), "
+                + "student_id, module_code FROM registration");
+        gradeSummaryService.rebuild();
+    }
+
+    @AfterEach
+    void clean() {
+        wipe();
+        secondLevelCache.evictAll();
+    }
+
+    private void wipe() {
+        jdbcTemplate.update("DELETE FROM grade");
+        jdbcTemplate.update("DELETE FROM registration");
+        jdbcTemplate.update("DELETE FROM student_grade_summary");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("DELETE FROM module");
+    }
+
+    private List<List<Map<String, Object>>> contents() {
+        return List.of(TABLES).stream()
+                .map(table -> jdbcTemplate.queryForList("SELECT * FROM " + table + " ORDER BY 1"))
+                .toList();
+    }
+
+    @Test
+    void snapshotAndRestore_roundTripsEveryRow() throws IOException {
+        List<List<Map<String, Object>>> before = contents();
+        Path file = dir.resolve("all.snap");
+
+        SnapshotReport written = snapshotService.snapshot(file);
+        assertEquals(MODULES, written.modules());
+        assertEquals(STUDENTS, written.students());
+        assertEquals(STUDENTS * MODULES, written.registrations());
+        assertEquals(STUDENTS * MODULES, written.grades());
+        assertEquals(Files.size(file), written.sizeBytes());
+        assertTrue(written.sizeBytes() < 10L * STUDENTS * MODULES, "at most 5 bytes per row");
+
+        wipe();
+        SnapshotReport restored = snapshotService.restore(file);
+
+        assertEquals(before, contents());
+        assertEquals(STUDENTS * MODULES, restored.grades());
+        assertTrue(gradeSummaryService.check().isEmpty());
+        assertEquals(STUDENTS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM student_grade_summary", Integer.class));
+        assertTrue(registrationIndex.isRegistered(-7, "COMP0010"));
+        long maxGradeId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM grade", Long.class);
+        assertTrue(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR grade_seq", Long.class)
+                >= maxGradeId + 50);
+    }
+
+    @Test
+    void corruptSnapshot_isRejectedBeforeRestoring() throws IOException {
+        Path file = dir.resolve("corrupt.snap");
+        snapshotService.snapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+        wipe();
+
+        CorruptSnapshotException e = assertThrows(CorruptSnapshotException.class,
+                () -> snapshotService.restore(file));
+        assertEquals("The snapshot checksum does not match its contents", e.getMessage());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM module", Integer.class));
+
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(CorruptSnapshotException.class, () -> snapshotService.restore(file));
+    }
+
+    @Test
+    void restore_needsAnEmptyDatabase() throws IOException {
+        Path file = dir.resolve("full.snap");
+        snapshotService.snapshot(file);
+
+        assertThrows(IllegalStateException.class, () -> snapshotService.restore(file));
+        assertThrows(IllegalArgumentException.class, () -> snapshotService.restore("../full.snap"));
+    }
+}
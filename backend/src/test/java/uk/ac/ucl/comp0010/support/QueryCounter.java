@@ -0,0 +1,94 @@
+package uk.ac.ucl.comp0010.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements executed through the application's data source.
+ *
+ * <p>Attaches to the datasource-proxy that {@code MetricsConfig} wraps around the pool,
+ * so it sees everything Hibernate and JdbcTemplate run, on any thread. A JDBC batch
+ * counts as one statement, matching the number of round trips.
+ */
+public final class QueryCounter implements QueryExecutionListener {
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicInteger selects = new AtomicInteger();
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Attaches a new counter to a proxied data source.
+     *
+     * @param dataSource the application's data source
+     * @return the counter, already counting
+     */
+    public static QueryCounter attach(DataSource dataSource) {
+        if (!(dataSource instanceof ProxyDataSource proxy)) {
+            throw new IllegalStateException("Data source is not proxied: " + dataSource.getClass());
+        }
+        QueryCounter counter = new QueryCounter();
+        proxy.getProxyConfig().getQueryListener().addListener(counter);
+        return counter;
+    }
+
+    /** Zeroes the counts. */
+    public void reset() {
+        statements.set(0);
+        selects.set(0);
+        queries.clear();
+    }
+
+    /** @return the statements executed since the last reset */
+    public int statements() {
+        return statements.get();
+    }
+
+    /** @return the SELECT statements executed since the last reset */
+    public int selects() {
+        return selects.get();
+    }
+
+    /**
+     * Fails if more than {@code max} statements ran since the last reset.
+     *
+     * @param max the largest acceptable statement count
+     * @param description what was measured, for the failure message
+     */
+    public void assertAtMost(int max, String description) {
+        int actual = statements();
+        assertTrue(actual <= max, () -> description + " ran " + actual + " statements, expected at most "
+                + max + ":\n  " + String.join("\n  ", queries));
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        statements.incrementAndGet();
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        String query = queryInfoList.get(0).getQuery();
+        queries.add(execInfo.isBatch() ? "[batch of " + execInfo.getBatchSize() + "] " + query : query);
+        if (QueryUtils.getQueryType(query) == QueryType.SELECT) {
+            selects.incrementAndGet();
+        }
+    }
+}
@@ -1,25 +1,20 @@
 import React from "react";
-import axios from "axios";
 import { Box, Typography, Card, CardContent, Grid, CircularProgress, Avatar, Chip, Paper } from "@mui/material";
 import { TrendingUp, Person, School, Grade as GradeIcon, EmojiEvents } from "@mui/icons-material";
 import App from "./App";
 import { API_ENDPOINT } from "./config";
+import axios from "axios";
+import { usePagedList } from "./pagination";
+import LoadMore from "./LoadMore";
 
 interface Grade {
   id: number;
   score: number;
-  student: {
-    id: number;
-    firstName: string;
-    lastName: string;
-    username: string;
-    email: string;
-  };
-  module: {
-    code: string;
-    name: string;
-    mnc: boolean;
-  };
+  student_id: number;
+  first_name: string;
+  last_name: string;
+  module_code: string;
+  module_name: string;
 }
 
 interface Student {
@@ -30,50 +25,54 @@ interface Student {
   email: string;
 }
 
-interface Module {
-  code: string;
-  name: string;
-  mnc: boolean;
+interface ModuleStats {
+  module_code: string;
+  grade_count: number;
+  mean: number | null;
 }
 
 function Dashboard() {
-  const [grades, setGrades] = React.useState<Grade[]>([]);
-  const [students, setStudents] = React.useState<Student[]>([]);
-  const [modules, setModules] = React.useState<Module[]>([]);
+  const grades = usePagedList<Grade>(`${API_ENDPOINT}/grades`);
+  const students = usePagedList<Student>(`${API_ENDPOINT}/students`);
+  const [moduleStats, setModuleStats] = React.useState<ModuleStats[]>([]);
   const [loading, setLoading] = React.useState(true);
 
   React.useEffect(() => {
-    Promise.all([
-      axios.get(`${API_ENDPOINT}/grades`).catch(() => ({ data: [] })),
-      axios.get(`${API_ENDPOINT}/students`).catch(() => ({ data: [] })),
-      axios.get(`${API_ENDPOINT}/modules`).catch(() => ({ data: [] })),
-    ])
-      .then(([gradesRes, studentsRes, modulesRes]) => {
-        setGrades(Array.isArray(gradesRes.data) ? gradesRes.data : []);
-        setStudents(Array.isArray(studentsRes.data) ? studentsRes.data : []);
-        setModules(Array.isArray(modulesRes.data) ? modulesRes.data : []);
-        setLoading(false);
-      })
-      .catch((error) => {
-        console.error("Dashboard error:", error);
-        setLoading(false);
-      });
+    // One aggregate row per module, so the totals need no grade rows
+    axios
+      .get<ModuleStats[]>(`${API_ENDPOINT}/modules/stats`)
+      .then((response) => setModuleStats(Array.isArray(response.data) ? response.data : []))
+      .catch((error) => console.error("Dashboard error:", error))
+      .finally(() => setLoading(false));
   }, []);
 
+  const gradeCount = React.useMemo(
+    () => moduleStats.reduce((sum, m) => sum + m.grade_count, 0),
+    [moduleStats]
+  );
+
   const averageGPA = React.useMemo(() => {
-    if (grades.length === 0) return 0;
-    const total = grades.reduce((sum, g) => sum + g.score, 0);
-    return (total / grades.length).toFixed(1);
-  }, [grades]);
+    if (gradeCount === 0) return 0;
+    const total = moduleStats.reduce((sum, m) => sum + (m.mean ?? 0) * m.grade_count, 0);
+    return (total / gradeCount).toFixed(1);
+  }, [moduleStats, gradeCount]);
 
   const topPerformers = React.useMemo(() => {
+    const studentsById = new Map(students.items.map((s) => [s.id, s]));
     const studentScores = new Map<number, { student: Student; scores: number[] }>();
 
-    grades.forEach((g) => {
-      if (!studentScores.has(g.student.id)) {
-        studentScores.set(g.student.id, { student: g.student, scores: [] });
+    grades.items.forEach((g) => {
+      if (!studentScores.has(g.student_id)) {
+        const student = studentsById.get(g.student_id) ?? {
+          id: g.student_id,
+          firstName: g.first_name,
+          lastName: g.last_name,
+          username: "",
+          email: "",
+        };
+        studentScores.set(g.student_id, { student, scores: [] });
       }
-      studentScores.get(g.student.id)!.scores.push(g.score);
+      studentScores.get(g.student_id)!.scores.push(g.score);
     });
 
     const averages = Array.from(studentScores.values())
@@ -85,11 +84,11 @@ function Dashboard() {
       .slice(0, 3);
 
     return averages;
-  }, [grades]);
+  }, [grades.items, students.items]);
 
   const recentGrades = React.useMemo(() => {
-    return [...grades].slice(-5).reverse();
-  }, [grades]);
+    return [...grades.items].slice(-5).reverse();
+  }, [grades.items]);
 
   function getInitials(firstName?: string, lastName?: string): string {
     return `${firstName?.charAt(0) ?? ""}${lastName?.charAt(0) ?? ""}`.toUpperCase();
@@ -157,7 +156,8 @@ function Dashboard() {
                 <Person sx={{ fontSize: 40, opacity: 0.8 }} />
               </Box>
               <Typography variant="h3" sx={{ fontWeight: 800 }}>
-                {students.length}
+                {students.items.length}
+                {students.hasMore && "+"}
               </Typography>
             </CardContent>
           </Card>
@@ -181,7 +181,7 @@ function Dashboard() {
                 <School sx={{ fontSize: 40, opacity: 0.8 }} />
               </Box>
               <Typography variant="h3" sx={{ fontWeight: 800 }}>
-                {modules.length}
+                {moduleStats.length}
               </Typography>
             </CardContent>
           </Card>
@@ -205,7 +205,7 @@ function Dashboard() {
                 <GradeIcon sx={{ fontSize: 40, opacity: 0.8 }} />
               </Box>
               <Typography variant="h3" sx={{ fontWeight: 800 }}>
-                {grades.length}
+                {gradeCount}
               </Typography>
             </CardContent>
           </Card>
@@ -368,19 +368,19 @@ function Dashboard() {
                       sx={{
                         width: 45,
                         height: 45,
-                        bgcolor: getAvatarColor(grade.student.id),
+                        bgcolor: getAvatarColor(grade.student_id),
                         fontWeight: 700,
                         fontSize: 16,
                       }}
                     >
-                      {getInitials(grade.student.firstName, grade.student.lastName)}
+                      {getInitials(grade.first_name, grade.last_name)}
                     </Avatar>
                     <Box sx={{ flexGrow: 1 }}>
                       <Typography variant="body2" sx={{ color: "white", fontWeight: 600, mb: 0.5 }}>
-                        {grade.student.firstName} {grade.student.lastName}
+                        {grade.first_name} {grade.last_name}
                       </Typography>
                       <Chip
-                        label={grade.module.code}
+                        label={grade.module_code}
                         size="small"
                         sx={{
                           bgcolor: "rgba(52, 152, 219, 0.2)",
@@ -416,6 +416,7 @@ function Dashboard() {
                 ))}
               </Box>
             )}
+            <LoadMore list={grades} color="white" />
           </Paper>
         </Grid>
       </Grid>
@@ -0,0 +1,25 @@
+import { Box, Button, CircularProgress } from "@mui/material";
+import { PagedList } from "./pagination";
+
+/**
+ * A "Load more" button for a paged list, shown while further pages remain.
+ */
+function LoadMore(props: { list: PagedList<unknown>; color?: string }) {
+  const { list } = props;
+  if (!list.hasMore) return null;
+  return (
+    <Box sx={{ display: "flex", justifyContent: "center", mt: 2 }}>
+      <Button
+        variant="outlined"
+        onClick={list.loadMore}
+        disabled={list.loading}
+        startIcon={list.loading ? <CircularProgress size={16} /> : undefined}
+        sx={{ color: props.color, borderColor: props.color }}
+      >
+        Load more
+      </Button>
+    </Box>
+  );
+}
+
+export default LoadMore;
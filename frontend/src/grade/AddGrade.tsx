@@ -15,48 +15,42 @@ import {
 import { AddCircle } from "@mui/icons-material";
 import {
   AddGradeBody,
-  EntityModelStudent,
   EntityModelModule,
 } from "../api/index";
 import { API_ENDPOINT } from "../config";
+import { usePagedList } from "../pagination";
 
 interface Registration {
   id: number;
-  student: EntityModelStudent;
-  module: EntityModelModule;
+  student_id: number;
+  first_name: string;
+  last_name: string;
+  module_code: string;
+  module_name: string;
 }
 
 function AddGrade(props: { update: Function }) {
   const [grade, setGrade] = React.useState<AddGradeBody>({});
-  const [modules, setModules] = React.useState<EntityModelModule[]>([]);
-  const [registrations, setRegistrations] = React.useState<Registration[]>([]);
+  const modules = usePagedList<EntityModelModule>(`${API_ENDPOINT}/modules`);
+  // Only the selected module's roster is loaded
+  const roster = usePagedList<Registration>(
+    grade.module_code
+      ? `${API_ENDPOINT}/registrations/module/${encodeURIComponent(grade.module_code)}`
+      : undefined
+  );
   const [error, setError] = React.useState<string>();
   const [success, setSuccess] = React.useState(false);
 
-  React.useEffect(() => {
-    axios
-      .get(`${API_ENDPOINT}/modules`)
-      .then((response) => setModules(response.data))
-      .catch((err) => {
-        const errorMsg = err.response?.data?.message || err.message || "Failed to load modules";
-        setError(errorMsg);
-      });
-
-    axios
-      .get(`${API_ENDPOINT}/registrations`)
-      .then((response) => setRegistrations(response.data))
-      .catch((err) => {
-        const errorMsg = err.response?.data?.message || err.message || "Failed to load registrations";
-        setError(errorMsg);
-      });
-  }, []);
+  const loadError = modules.error ?? roster.error;
 
   const eligibleStudents = React.useMemo(() => {
     if (!grade.module_code) return [];
-    return registrations
-      .filter((reg) => reg.module.code === grade.module_code)
-      .map((reg) => reg.student);
-  }, [grade.module_code, registrations]);
+    return roster.items.map((reg) => ({
+      id: reg.student_id,
+      firstName: reg.first_name,
+      lastName: reg.last_name,
+    }));
+  }, [grade.module_code, roster.items]);
 
   function request() {
     setError(undefined);
@@ -117,11 +111,16 @@ function AddGrade(props: { update: Function }) {
             onChange={(e) => setGrade({ ...grade, module_code: e.target.value, student_id: "" })}
             label="Module"
           >
-            {modules.map((m) => (
+            {modules.items.map((m) => (
               <MenuItem key={m.code} value={m.code}>
                 {`${m.code} - ${m.name}`}
               </MenuItem>
             ))}
+            {modules.hasMore && (
+              <MenuItem value={grade.module_code ?? ""} onClick={modules.loadMore} disabled={modules.loading}>
+                Load more modules…
+              </MenuItem>
+            )}
           </Select>
         </FormControl>
 
@@ -132,7 +131,7 @@ function AddGrade(props: { update: Function }) {
             onChange={(e) => setGrade({ ...grade, student_id: e.target.value })}
             label="Student"
           >
-            {eligibleStudents.length === 0 && grade.module_code && (
+            {eligibleStudents.length === 0 && grade.module_code && !roster.loading && (
               <MenuItem disabled>No registered students for this module</MenuItem>
             )}
             {eligibleStudents.map((s) => (
@@ -140,6 +139,11 @@ function AddGrade(props: { update: Function }) {
                 {`${s.firstName} ${s.lastName} (${s.id})`}
               </MenuItem>
             ))}
+            {roster.hasMore && (
+              <MenuItem value={grade.student_id ?? ""} onClick={roster.loadMore} disabled={roster.loading}>
+                Load more students…
+              </MenuItem>
+            )}
           </Select>
         </FormControl>
 
@@ -177,9 +181,9 @@ function AddGrade(props: { update: Function }) {
           Grade added successfully!
         </Alert>
       )}
-      {error && (
+      {(error ?? loadError) && (
         <Alert severity="error" sx={{ mt: 2, borderRadius: 2 }}>
-          {error}
+          {error ?? loadError}
         </Alert>
       )}
     </Card>
@@ -24,23 +24,18 @@ import {
 import { Grade as GradeIcon, EmojiEvents, School, Person, Edit, Delete } from "@mui/icons-material";
 import App from "../App.tsx";
 import { API_ENDPOINT } from "../config";
+import { usePagedList } from "../pagination";
+import LoadMore from "../LoadMore";
 import AddGrade from "./AddGrade";
 
 interface Grade {
   id: number;
   score: number;
-  student: {
-    id: number;
-    firstName: string;
-    lastName: string;
-    username: string;
-    email: string;
-  };
-  module: {
-    code: string;
-    name: string;
-    mnc: boolean;
-  };
+  student_id: number;
+  first_name: string;
+  last_name: string;
+  module_code: string;
+  module_name: string;
 }
 
 interface Module {
@@ -50,41 +45,22 @@ interface Module {
 }
 
 function Grades() {
-  const [grades, setGrades] = React.useState<Grade[]>([]);
-  const [modules, setModules] = React.useState<Module[]>([]);
   const [selectedModule, setSelectedModule] = React.useState<string>("");
-  const [error, setError] = React.useState<string>();
+  const [actionError, setError] = React.useState<string>();
   const [editDialogOpen, setEditDialogOpen] = React.useState(false);
   const [deleteDialogOpen, setDeleteDialogOpen] = React.useState(false);
   const [selectedGrade, setSelectedGrade] = React.useState<Grade | null>(null);
   const [editScore, setEditScore] = React.useState<number>(0);
 
-  React.useEffect(() => {
-    updateGrades();
-    loadModules();
-  }, []);
-
-  function loadModules() {
-    axios
-      .get(`${API_ENDPOINT}/modules`)
-      .then((response) => {
-        setModules(response.data);
-      })
-      .catch((err) => {
-        console.error("Error loading modules:", err);
-      });
-  }
-
-  function updateGrades() {
-    axios
-      .get(`${API_ENDPOINT}/grades`)
-      .then((response) => {
-        setGrades(response.data);
-      })
-      .catch((error) => {
-        setError(error.message);
-      });
-  }
+  const modules = usePagedList<Module>(`${API_ENDPOINT}/modules`);
+  // A module's grades are paged by the server rather than filtered from loaded ones
+  const grades = usePagedList<Grade>(
+    selectedModule
+      ? `${API_ENDPOINT}/grades/module/${encodeURIComponent(selectedModule)}`
+      : `${API_ENDPOINT}/grades`
+  );
+  const error = actionError ?? grades.error;
+  const updateGrades = grades.reload;
 
   function getScoreColor(score: number): string {
     if (score >= 90) return "#4CAF50";
@@ -111,11 +87,6 @@ function Grades() {
     return colors[(id ?? 0) % colors.length];
   }
 
-  const filteredGrades = React.useMemo(() => {
-    if (!selectedModule) return grades;
-    return grades.filter((g) => g.module.code === selectedModule);
-  }, [selectedModule, grades]);
-
   function handleEditClick(grade: Grade) {
     setSelectedGrade(grade);
     setEditScore(grade.score);
@@ -183,20 +154,28 @@ function Grades() {
               <InputLabel>Filter by Module</InputLabel>
               <Select
                 value={selectedModule}
-                onChange={(e) => setSelectedModule(e.target.value)}
+                onChange={(e) => {
+                  setError(undefined);
+                  setSelectedModule(e.target.value);
+                }}
                 label="Filter by Module"
               >
                 <MenuItem value="">All Modules</MenuItem>
-                {modules.map((m) => (
+                {modules.items.map((m) => (
                   <MenuItem key={m.code} value={m.code}>
                     {`${m.code} - ${m.name}`}
                   </MenuItem>
                 ))}
+                {modules.hasMore && (
+                  <MenuItem value={selectedModule} onClick={modules.loadMore} disabled={modules.loading}>
+                    Load more modules…
+                  </MenuItem>
+                )}
               </Select>
             </FormControl>
           </Box>
 
-          {!error && filteredGrades.length < 1 && (
+          {!error && !grades.loading && grades.items.length < 1 && (
             <Card sx={{ borderRadius: 3, p: 4, textAlign: "center" }}>
               <GradeIcon sx={{ fontSize: 80, color: "#ccc", mb: 2 }} />
               <Typography variant="h6" color="text.secondary">No grades yet</Typography>
@@ -205,7 +184,7 @@ function Grades() {
           )}
 
           <Grid container spacing={2}>
-            {filteredGrades.map((g, index) => (
+            {grades.items.map((g, index) => (
               <Grid item xs={12} key={g.id}>
                 <Card
                   sx={{
@@ -229,22 +208,22 @@ function Grades() {
                           sx={{
                             width: 50,
                             height: 50,
-                            bgcolor: getAvatarColor(g.student.id),
+                            bgcolor: getAvatarColor(g.student_id),
                             fontSize: 18,
                             fontWeight: 700,
                           }}
                         >
-                          {getInitials(g.student.firstName, g.student.lastName)}
+                          {getInitials(g.first_name, g.last_name)}
                         </Avatar>
                         <Box>
                           <Box sx={{ display: "flex", alignItems: "center", gap: 1, mb: 0.5 }}>
                             <Person sx={{ fontSize: 18, color: "text.secondary" }} />
                             <Typography variant="body1" sx={{ fontWeight: 600 }}>
-                              {g.student.firstName} {g.student.lastName}
+                              {g.first_name} {g.last_name}
                             </Typography>
                           </Box>
                           <Typography variant="caption" color="text.secondary">
-                            ID: {g.student.id}
+                            ID: {g.student_id}
                           </Typography>
                         </Box>
                       </Box>
@@ -253,7 +232,7 @@ function Grades() {
                         <School sx={{ fontSize: 20, color: "text.secondary" }} />
                         <Box>
                           <Chip
-                            label={g.module.code}
+                            label={g.module_code}
                             size="small"
                             sx={{
                               fontWeight: 700,
@@ -263,7 +242,7 @@ function Grades() {
                             }}
                           />
                           <Typography variant="body2" color="text.secondary">
-                            {g.module.name}
+                            {g.module_name}
                           </Typography>
                         </Box>
                       </Box>
@@ -332,6 +311,7 @@ function Grades() {
               </Grid>
             ))}
           </Grid>
+          <LoadMore list={grades} color="white" />
         </Grid>
 
         <Grid item xs={12} lg={4}>
@@ -367,9 +347,9 @@ function Grades() {
           <Typography>
             Are you sure you want to delete this grade for{" "}
             <strong>
-              {selectedGrade?.student.firstName} {selectedGrade?.student.lastName}
+              {selectedGrade?.first_name} {selectedGrade?.last_name}
             </strong>{" "}
-            in <strong>{selectedGrade?.module.code}</strong>?
+            in <strong>{selectedGrade?.module_code}</strong>?
           </Typography>
         </DialogContent>
         <DialogActions>
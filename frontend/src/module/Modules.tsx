@@ -1,30 +1,16 @@
 import React from "react";
-import axios from "axios";
 import { Typography, Alert, Grid, Card, CardContent, Chip, Box } from "@mui/material";
 import { School, CheckCircle, Cancel } from "@mui/icons-material";
 import App from "../App.tsx";
 import { EntityModelModule } from "../api/entityModelModule.ts";
 import { API_ENDPOINT } from "../config";
+import { usePagedList } from "../pagination";
+import LoadMore from "../LoadMore";
 import AddModule from "./AddModule";
 
 function Modules() {
-  const [modules, setModules] = React.useState<EntityModelModule[]>([]);
-  const [error, setError] = React.useState<string>();
-
-  React.useEffect(() => {
-    updateModules();
-  }, []);
-
-  function updateModules() {
-    axios
-      .get(`${API_ENDPOINT}/modules`)
-      .then((response) => {
-        setModules(response.data);
-      })
-      .catch((error) => {
-        setError(error.message);
-      });
-  }
+  const modules = usePagedList<EntityModelModule>(`${API_ENDPOINT}/modules`);
+  const error = modules.error;
 
   return (
     <App>
@@ -41,7 +27,7 @@ function Modules() {
 
       <Grid container spacing={3}>
         <Grid item xs={12} lg={8}>
-          {!error && modules.length < 1 && (
+          {!error && !modules.loading && modules.items.length < 1 && (
             <Card sx={{ borderRadius: 3, p: 4, textAlign: "center" }}>
               <School sx={{ fontSize: 80, color: "#ccc", mb: 2 }} />
               <Typography variant="h6" color="text.secondary">No modules yet</Typography>
@@ -50,7 +36,7 @@ function Modules() {
           )}
 
           <Grid container spacing={2}>
-            {modules.map((m, index) => (
+            {modules.items.map((m, index) => (
               <Grid item xs={12} md={6} key={m.code}>
                 <Card
                   sx={{
@@ -121,10 +107,11 @@ function Modules() {
               </Grid>
             ))}
           </Grid>
+          <LoadMore list={modules} color="white" />
         </Grid>
 
         <Grid item xs={12} lg={4}>
-          <AddModule update={updateModules} />
+          <AddModule update={modules.reload} />
         </Grid>
       </Grid>
     </App>
@@ -0,0 +1,87 @@
+import React from "react";
+import axios from "axios";
+
+const PAGE_SIZE = 100;
+
+export interface Page<T> {
+  data: T[];
+  /** The cursor of the next page, from the X-Next-Cursor header, if there is one. */
+  next?: string;
+}
+
+/**
+ * Fetches one page of a keyset-paginated list endpoint.
+ */
+export async function getPage<T = any>(url: string, after?: string): Promise<Page<T>> {
+  const params: Record<string, string | number> = { limit: PAGE_SIZE };
+  if (after !== undefined) {
+    params.after = after;
+  }
+  const response = await axios.get<T[]>(url, { params });
+  return { data: response.data, next: response.headers["x-next-cursor"] };
+}
+
+export interface PagedList<T> {
+  items: T[];
+  hasMore: boolean;
+  loading: boolean;
+  error?: string;
+  /** Appends the next page. */
+  loadMore: () => void;
+  /** Starts again from the first page. */
+  reload: () => void;
+}
+
+/**
+ * Loads a keyset-paginated list a page at a time: the first page when the URL is set
+ * or changes, and each further page only when asked for, so a view never downloads
+ * more of a table than it shows. Pass no URL to load nothing.
+ */
+export function usePagedList<T = any>(url?: string): PagedList<T> {
+  const [items, setItems] = React.useState<T[]>([]);
+  const [next, setNext] = React.useState<string>();
+  const [loading, setLoading] = React.useState(false);
+  const [error, setError] = React.useState<string>();
+  // Responses to an earlier URL or reload are dropped
+  const generation = React.useRef(0);
+
+  const fetchPage = React.useCallback(
+    (after: string | undefined, append: boolean) => {
+      if (!url) return;
+      const current = generation.current;
+      setLoading(true);
+      setError(undefined);
+      getPage<T>(url, after)
+        .then((page) => {
+          if (current !== generation.current) return;
+          setItems((loaded) => (append ? [...loaded, ...page.data] : page.data));
+          setNext(page.next);
+        })
+        .catch((err) => {
+          if (current !== generation.current) return;
+          setError(err.response?.data?.message || err.message || "Failed to load");
+        })
+        .finally(() => {
+          if (current === generation.current) setLoading(false);
+        });
+    },
+    [url]
+  );
+
+  const reload = React.useCallback(() => {
+    generation.current++;
+    setItems([]);
+    setNext(undefined);
+    fetchPage(undefined, false);
+  }, [fetchPage]);
+
+  React.useEffect(reload, [reload]);
+
+  const loadMore = React.useCallback(() => {
+    if (next !== undefined && !loading) {
+      fetchPage(next, true);
+    }
+  }, [fetchPage, next, loading]);
+
+  return { items, hasMore: next !== undefined, loading, error, loadMore, reload };
+}
@@ -19,6 +19,8 @@ import {
 import { AppRegistration, Person, School, CheckCircle } from "@mui/icons-material";
 import App from "../App";
 import { API_ENDPOINT } from "../config";
+import { usePagedList } from "../pagination";
+import LoadMore from "../LoadMore";
 
 interface Student {
   id: number;
@@ -36,35 +38,23 @@ interface Module {
 
 interface Registration {
   id: number;
-  student: Student;
-  module: Module;
+  student_id: number;
+  first_name: string;
+  last_name: string;
+  module_code: string;
+  module_name: string;
+  mnc: boolean;
 }
 
 function Registrations() {
-  const [registrations, setRegistrations] = React.useState<Registration[]>([]);
-  const [students, setStudents] = React.useState<Student[]>([]);
-  const [modules, setModules] = React.useState<Module[]>([]);
+  const registrations = usePagedList<Registration>(`${API_ENDPOINT}/registrations`);
+  const students = usePagedList<Student>(`${API_ENDPOINT}/students`);
+  const modules = usePagedList<Module>(`${API_ENDPOINT}/modules`);
   const [selectedStudent, setSelectedStudent] = React.useState<number | "">("");
   const [selectedModule, setSelectedModule] = React.useState<string>("");
   const [error, setError] = React.useState<string>();
   const [success, setSuccess] = React.useState(false);
 
-  React.useEffect(() => {
-    updateData();
-  }, []);
-
-  function updateData() {
-    Promise.all([
-      axios.get(`${API_ENDPOINT}/registrations`).catch(() => ({ data: [] })),
-      axios.get(`${API_ENDPOINT}/students`).catch(() => ({ data: [] })),
-      axios.get(`${API_ENDPOINT}/modules`).catch(() => ({ data: [] })),
-    ]).then(([regRes, studRes, modRes]) => {
-      setRegistrations(Array.isArray(regRes.data) ? regRes.data : []);
-      setStudents(Array.isArray(studRes.data) ? studRes.data : []);
-      setModules(Array.isArray(modRes.data) ? modRes.data : []);
-    });
-  }
-
   function handleRegister() {
     if (!selectedStudent || !selectedModule) {
       setError("Please select both a student and a module");
@@ -83,7 +73,7 @@ function Registrations() {
         setSuccess(true);
         setSelectedStudent("");
         setSelectedModule("");
-        updateData();
+        registrations.reload();
         setTimeout(() => setSuccess(false), 3000);
       })
       .catch((err) => {
@@ -115,7 +105,7 @@ function Registrations() {
 
       <Grid container spacing={3}>
         <Grid item xs={12} lg={8}>
-          {registrations.length === 0 ? (
+          {registrations.items.length === 0 ? (
             <Card sx={{ borderRadius: 3, p: 4, textAlign: "center" }}>
               <AppRegistration sx={{ fontSize: 80, color: "#ccc", mb: 2 }} />
               <Typography variant="h6" color="text.secondary">
@@ -127,7 +117,7 @@ function Registrations() {
             </Card>
           ) : (
             <Grid container spacing={2}>
-              {registrations.map((reg, index) => (
+              {registrations.items.map((reg, index) => (
                 <Grid item xs={12} key={reg.id}>
                   <Card
                     sx={{
@@ -158,22 +148,22 @@ function Registrations() {
                             sx={{
                               width: 50,
                               height: 50,
-                              bgcolor: getAvatarColor(reg.student.id),
+                              bgcolor: getAvatarColor(reg.student_id),
                               fontSize: 18,
                               fontWeight: 700,
                             }}
                           >
-                            {getInitials(reg.student.firstName, reg.student.lastName)}
+                            {getInitials(reg.first_name, reg.last_name)}
                           </Avatar>
                           <Box>
                             <Box sx={{ display: "flex", alignItems: "center", gap: 1, mb: 0.5 }}>
                               <Person sx={{ fontSize: 18, color: "text.secondary" }} />
                               <Typography variant="body1" sx={{ fontWeight: 600 }}>
-                                {reg.student.firstName} {reg.student.lastName}
+                                {reg.first_name} {reg.last_name}
                               </Typography>
                             </Box>
                             <Typography variant="caption" color="text.secondary">
-                              ID: {reg.student.id}
+                              ID: {reg.student_id}
                             </Typography>
                           </Box>
                         </Box>
@@ -182,7 +172,7 @@ function Registrations() {
                           <School sx={{ fontSize: 20, color: "text.secondary" }} />
                           <Box>
                             <Chip
-                              label={reg.module.code}
+                              label={reg.module_code}
                               size="small"
                               sx={{
                                 fontWeight: 700,
@@ -192,7 +182,7 @@ function Registrations() {
                               }}
                             />
                             <Typography variant="body2" color="text.secondary">
-                              {reg.module.name}
+                              {reg.module_name}
                             </Typography>
                           </Box>
                         </Box>
@@ -212,6 +202,7 @@ function Registrations() {
               ))}
             </Grid>
           )}
+          <LoadMore list={registrations} color="white" />
         </Grid>
 
         <Grid item xs={12} lg={4}>
@@ -252,11 +243,16 @@ function Registrations() {
                   onChange={(e) => setSelectedStudent(e.target.value as number)}
                   label="Student"
                 >
-                  {students.map((s) => (
+                  {students.items.map((s) => (
                     <MenuItem key={s.id} value={s.id}>
                       {`${s.firstName} ${s.lastName} (${s.id})`}
                     </MenuItem>
                   ))}
+                  {students.hasMore && (
+                    <MenuItem value={selectedStudent} onClick={students.loadMore} disabled={students.loading}>
+                      Load more students…
+                    </MenuItem>
+                  )}
                 </Select>
               </FormControl>
 
@@ -267,11 +263,16 @@ function Registrations() {
                   onChange={(e) => setSelectedModule(e.target.value)}
                   label="Module"
                 >
-                  {modules.map((m) => (
+                  {modules.items.map((m) => (
                     <MenuItem key={m.code} value={m.code}>
                       {`${m.code} - ${m.name}`}
                     </MenuItem>
                   ))}
+                  {modules.hasMore && (
+                    <MenuItem value={selectedModule} onClick={modules.loadMore} disabled={modules.loading}>
+                      Load more modules…
+                    </MenuItem>
+                  )}
                 </Select>
               </FormControl>
 
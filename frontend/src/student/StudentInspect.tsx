@@ -24,6 +24,8 @@ import {
 } from "@mui/icons-material";
 import App from "../App";
 import { API_ENDPOINT } from "../config";
+import { usePagedList } from "../pagination";
+import LoadMore from "../LoadMore";
 
 interface Student {
   id: number;
@@ -33,29 +35,28 @@ interface Student {
   email: string;
 }
 
-interface Module {
-  code: string;
-  name: string;
-  mnc: boolean;
-}
-
 interface Grade {
   id: number;
   score: number;
-  module: Module;
+  student_id: number;
+  module_code: string;
+  module_name: string;
 }
 
 interface Registration {
   id: number;
-  module: Module;
+  module_code: string;
+  module_name: string;
+  mnc: boolean;
 }
 
 function StudentInspect() {
   const { id } = useParams<{ id: string }>();
   const navigate = useNavigate();
   const [student, setStudent] = React.useState<Student | null>(null);
-  const [grades, setGrades] = React.useState<Grade[]>([]);
-  const [registrations, setRegistrations] = React.useState<Registration[]>([]);
+  const grades = usePagedList<Grade>(id && `${API_ENDPOINT}/grades/student/${id}`);
+  const registrations = usePagedList<Registration>(id && `${API_ENDPOINT}/registrations/student/${id}`);
+  const [average, setAverage] = React.useState<number>(-1);
   const [loading, setLoading] = React.useState(true);
 
   React.useEffect(() => {
@@ -63,16 +64,11 @@ function StudentInspect() {
 
     Promise.all([
       axios.get(`${API_ENDPOINT}/students/${id}`),
-      axios.get(`${API_ENDPOINT}/grades`),
-      axios.get(`${API_ENDPOINT}/registrations/student/${id}`),
+      axios.get(`${API_ENDPOINT}/students/${id}/average`),
     ])
-      .then(([studentRes, gradesRes, registrationsRes]) => {
+      .then(([studentRes, averageRes]) => {
         setStudent(studentRes.data);
-        const studentGrades = gradesRes.data.filter(
-          (g: any) => g.student.id === parseInt(id)
-        );
-        setGrades(studentGrades);
-        setRegistrations(registrationsRes.data);
+        setAverage(averageRes.data.average);
         setLoading(false);
       })
       .catch((error) => {
@@ -81,11 +77,8 @@ function StudentInspect() {
       });
   }, [id]);
 
-  const averageScore = React.useMemo(() => {
-    if (grades.length === 0) return 0;
-    const total = grades.reduce((sum, g) => sum + g.score, 0);
-    return (total / grades.length).toFixed(1);
-  }, [grades]);
+  // Over every grade, not just the pages loaded
+  const averageScore = average < 0 ? 0 : average.toFixed(1);
 
   function getInitials(firstName?: string, lastName?: string): string {
     return `${firstName?.charAt(0) ?? ""}${lastName?.charAt(0) ?? ""}`.toUpperCase();
@@ -244,13 +237,13 @@ function StudentInspect() {
               </Typography>
             </Box>
 
-            {grades.length === 0 ? (
+            {grades.items.length === 0 ? (
               <Typography sx={{ color: "rgba(255,255,255,0.5)", textAlign: "center", py: 4 }}>
                 No grades recorded yet
               </Typography>
             ) : (
               <Grid container spacing={2}>
-                {grades.map((grade) => (
+                {grades.items.map((grade) => (
                   <Grid item xs={12} sm={6} key={grade.id}>
                     <Card
                       sx={{
@@ -269,7 +262,7 @@ function StudentInspect() {
                         <Box sx={{ display: "flex", justifyContent: "space-between", alignItems: "center" }}>
                           <Box>
                             <Chip
-                              label={grade.module.code}
+                              label={grade.module_code}
                               size="small"
                               sx={{
                                 bgcolor: "rgba(46, 204, 113, 0.2)",
@@ -279,7 +272,7 @@ function StudentInspect() {
                               }}
                             />
                             <Typography variant="body2" sx={{ color: "rgba(255,255,255,0.7)" }}>
-                              {grade.module.name}
+                              {grade.module_name}
                             </Typography>
                           </Box>
                           <Box sx={{ textAlign: "center" }}>
@@ -320,6 +313,7 @@ function StudentInspect() {
                 ))}
               </Grid>
             )}
+            <LoadMore list={grades} color="white" />
           </Paper>
 
           <Paper
@@ -338,13 +332,13 @@ function StudentInspect() {
               </Typography>
             </Box>
 
-            {registrations.length === 0 ? (
+            {registrations.items.length === 0 ? (
               <Typography sx={{ color: "rgba(255,255,255,0.5)", textAlign: "center", py: 4 }}>
                 Not registered for any modules yet
               </Typography>
             ) : (
               <Grid container spacing={2}>
-                {registrations.map((reg) => (
+                {registrations.items.map((reg) => (
                   <Grid item xs={12} sm={6} key={reg.id}>
                     <Card
                       sx={{
@@ -376,7 +370,7 @@ function StudentInspect() {
                           </Box>
                           <Box sx={{ flexGrow: 1 }}>
                             <Chip
-                              label={reg.module.code}
+                              label={reg.module_code}
                               size="small"
                               sx={{
                                 bgcolor: "rgba(52, 152, 219, 0.2)",
@@ -386,9 +380,9 @@ function StudentInspect() {
                               }}
                             />
                             <Typography variant="body2" sx={{ color: "rgba(255,255,255,0.7)" }}>
-                              {reg.module.name}
+                              {reg.module_name}
                             </Typography>
-                            {reg.module.mnc && (
+                            {reg.mnc && (
                               <Chip
                                 label="MNC"
                                 size="small"
@@ -409,6 +403,7 @@ function StudentInspect() {
                 ))}
               </Grid>
             )}
+            <LoadMore list={registrations} color="white" />
           </Paper>
         </Grid>
       </Grid>
@@ -1,32 +1,18 @@
 import React from "react";
-import axios from "axios";
 import { Typography, Alert, Grid, Card, CardContent, Chip, Box, Avatar, CardActionArea } from "@mui/material";
 import { Person, Email, AccountCircle } from "@mui/icons-material";
 import { useNavigate } from "react-router-dom";
 import App from "../App.tsx";
 import { EntityModelStudent } from "../api/index";
 import { API_ENDPOINT } from "../config";
+import { usePagedList } from "../pagination";
+import LoadMore from "../LoadMore";
 import AddStudent from "./AddStudent";
 
 function Students() {
   const navigate = useNavigate();
-  const [students, setStudents] = React.useState<EntityModelStudent[]>([]);
-  const [error, setError] = React.useState<string>();
-
-  React.useEffect(() => {
-    updateStudents();
-  }, []);
-
-  function updateStudents() {
-    axios
-      .get(`${API_ENDPOINT}/students`)
-      .then((response) => {
-        setStudents(response.data);
-      })
-      .catch((response) => {
-        setError(response.message);
-      });
-  }
+  const students = usePagedList<EntityModelStudent>(`${API_ENDPOINT}/students`);
+  const error = students.error;
 
   function getInitials(firstName?: string, lastName?: string): string {
     return `${firstName?.charAt(0) ?? ""}${lastName?.charAt(0) ?? ""}`.toUpperCase();
@@ -52,7 +38,7 @@ function Students() {
 
       <Grid container spacing={3}>
         <Grid item xs={12} lg={8}>
-          {!error && students.length < 1 && (
+          {!error && !students.loading && students.items.length < 1 && (
             <Card sx={{ borderRadius: 3, p: 4, textAlign: "center" }}>
               <Person sx={{ fontSize: 80, color: "#ccc", mb: 2 }} />
               <Typography variant="h6" color="text.secondary">No students yet</Typography>
@@ -61,7 +47,7 @@ function Students() {
           )}
 
           <Grid container spacing={2}>
-            {students.map((s, index) => (
+            {students.items.map((s, index) => (
               <Grid item xs={12} md={6} key={s.id}>
                 <Card
                   sx={{
@@ -129,10 +115,11 @@ function Students() {
               </Grid>
             ))}
           </Grid>
+          <LoadMore list={students} color="white" />
         </Grid>
 
         <Grid item xs={12} lg={4}>
-          <AddStudent update={updateStudents} />
+          <AddStudent update={students.reload} />
         </Grid>
       </Grid>
     </App>